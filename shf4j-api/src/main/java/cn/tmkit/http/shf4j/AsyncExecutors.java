@@ -0,0 +1,105 @@
+package cn.tmkit.http.shf4j;
+
+import cn.tmkit.core.lang.Threads;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 异步执行HTTP请求使用的线程池
+ * <p>
+ * 不支持原生异步的{@linkplain Client}实现在这里执行阻塞调用。线程数及等待队列均有上限，
+ * 超出时直接返回失败的{@linkplain CompletableFuture}，而不是在调用方线程上执行或无限堆积。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-16
+ */
+public final class AsyncExecutors {
+
+    /**
+     * 默认的最大线程数
+     */
+    public static final int DEFAULT_MAX_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * 默认的等待队列长度
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 空闲线程的存活时长，单位秒
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * 默认的线程池，守护线程，空闲时回收
+     *
+     * @return {@linkplain ExecutorService}
+     */
+    public static ExecutorService getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 共用的定时调度器，单个守护线程，只用于排队超时、重试等待等短小的定时任务，不能在其中执行阻塞调用
+     *
+     * @return {@linkplain ScheduledExecutorService}
+     */
+    public static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * 创建有界的线程池
+     *
+     * @param maxThreads    最大线程数
+     * @param queueCapacity 等待队列长度
+     * @param namePrefix    线程名前缀
+     * @return {@linkplain ExecutorService}
+     */
+    public static ExecutorService newBoundedExecutor(int maxThreads, int queueCapacity, String namePrefix) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                Threads.daemonThreadFactory(namePrefix), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 在指定线程池中执行，线程池拒绝时返回失败的结果
+     *
+     * @param supplier 待执行的逻辑
+     * @param executor 线程池
+     * @param <T>      结果类型
+     * @return {@linkplain CompletableFuture}
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private static final class Holder {
+
+        private static final ExecutorService INSTANCE =
+                newBoundedExecutor(DEFAULT_MAX_THREADS, DEFAULT_QUEUE_CAPACITY, "shf4j-async-");
+
+    }
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService INSTANCE =
+                Executors.newSingleThreadScheduledExecutor(Threads.daemonThreadFactory("shf4j-scheduler-"));
+
+    }
+
+}
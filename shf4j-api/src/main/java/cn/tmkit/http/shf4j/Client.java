@@ -6,6 +6,7 @@ import cn.tmkit.core.lang.Maps;
 import cn.tmkit.core.lang.Strings;
 import cn.tmkit.core.lang.Urls;
 import cn.tmkit.core.map.MultiValueMap;
+import cn.tmkit.http.shf4j.retry.RetryExecutor;
 import org.jetbrains.annotations.NotNull;
 
 import javax.net.ssl.HttpsURLConnection;
@@ -14,8 +15,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -36,11 +42,81 @@ public interface Client {
      */
     Response execute(@NotNull Request request, Options options) throws IoRuntimeException;
 
+    /**
+     * 异步执行HTTP请求
+     * <p>默认在{@linkplain AsyncExecutors#getDefault()}中执行{@linkplain #execute(Request, Options)}，
+     * 支持原生异步的实现应覆盖该方法。请求异常时结果以{@linkplain IoRuntimeException}结束</p>
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     */
+    default CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        return AsyncExecutors.supplyAsync(() -> execute(request, options), AsyncExecutors.getDefault());
+    }
+
     /**
      * 实现一个简单的HTTP客户端
+     * <p>
+     * 连接由{@code HttpURLConnection}的keep-alive缓存管理，只有响应体读取完整后才会复用：关闭响应时剩余内容不超过
+     * {@code maxDrainBytes}则读取并丢弃，否则直接断开；错误响应的流同样如此处理。keep-alive缓存是JVM级别的，
+     * {@linkplain Options#maxIdleConnectionsPerHost()}及{@linkplain Options#keepAliveTimeMillis()}通过系统属性
+     * {@code http.maxConnections}、{@code http.keepAlive.time.server}设置，仅第一个创建的客户端生效，
+     * 且需要在JVM第一次使用{@code HttpURLConnection}之前，已设置的系统属性优先。
+     * </p>
      */
     class DefaultClient implements Client {
 
+        /**
+         * 默认关闭响应时最多读取并丢弃的字节数
+         */
+        public static final long DEFAULT_MAX_DRAIN_BYTES = 64 * 1024;
+
+        /**
+         * keep-alive缓存的系统属性是否已设置
+         */
+        private static final AtomicBoolean KEEP_ALIVE_CONFIGURED = new AtomicBoolean();
+
+        /**
+         * 请求未指定配置时使用，为{@code null}时不设置超时等配置
+         */
+        private final Options defaultOptions;
+
+        /**
+         * 关闭响应时最多读取并丢弃的字节数，超过后断开连接
+         */
+        private final long maxDrainBytes;
+
+        /**
+         * 按主机统计的连接复用情况
+         */
+        private final ConcurrentMap<String, HostConnectionStats> hostStats = new ConcurrentHashMap<>();
+
+        private final RetryExecutor retryExecutor;
+
+        public DefaultClient() {
+            this(null);
+        }
+
+        public DefaultClient(Options options) {
+            this(options, DEFAULT_MAX_DRAIN_BYTES);
+        }
+
+        /**
+         * 构造客户端
+         *
+         * @param options       默认的配置项，可空
+         * @param maxDrainBytes 关闭响应时最多读取并丢弃的字节数
+         */
+        public DefaultClient(Options options, long maxDrainBytes) {
+            this.defaultOptions = options;
+            this.maxDrainBytes = Math.max(0, maxDrainBytes);
+            this.retryExecutor = new RetryExecutor(options);
+            if (options != null) {
+                configureKeepAlive(options);
+            }
+        }
+
         /**
          * 执行HTTP请求
          *
@@ -51,14 +127,26 @@ public interface Client {
          */
         @Override
         public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
-            try {
-                HttpURLConnection connection = convertAndSend(request, options);
-                return convertResponse(connection, request);
-            } catch (IOException e) {
-                throw new IoRuntimeException(e);
-            } finally {
-                Utils.closeParts(request.body());
-            }
+            Options opts = options == null ? defaultOptions : options;
+            return retryExecutor.execute(request, opts, () -> {
+                try {
+                    HttpURLConnection connection = convertAndSend(request, opts);
+                    return convertResponse(connection, request, opts);
+                } catch (IOException e) {
+                    throw new IoRuntimeException(e);
+                } finally {
+                    Utils.closeParts(request.body());
+                }
+            });
+        }
+
+        /**
+         * 按主机统计的连接复用情况，键为{@code host:port}
+         *
+         * @return 不可修改的统计视图
+         */
+        public Map<String, HostConnectionStats> connectionStats() {
+            return Collections.unmodifiableMap(hostStats);
         }
 
         public HttpURLConnection getConnection(final URL url) throws IOException {
@@ -68,6 +156,18 @@ public interface Client {
         HttpURLConnection convertAndSend(Request request, Options options) throws IOException {
             final URL url = new URL(encodeUrl(request.url(), request.queryParams()));
             HttpURLConnection connection = getConnection(url);
+            HostConnectionStats stats = stats(url);
+            stats.onRequest();
+            try {
+                send(connection, request, options);
+            } catch (IOException | RuntimeException e) {
+                abandon(connection, stats);
+                throw e;
+            }
+            return connection;
+        }
+
+        private void send(HttpURLConnection connection, Request request, Options options) throws IOException {
             if (connection instanceof HttpsURLConnection) {
                 HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
                 // do something
@@ -77,6 +177,9 @@ public interface Client {
                 connection.setReadTimeout(options.readTimeoutMillis());
                 connection.setAllowUserInteraction(false);
                 connection.setInstanceFollowRedirects(options.followRedirects());
+                if (!options.keepAlive()) {
+                    connection.setRequestProperty("Connection", "close");
+                }
             }
             connection.setRequestMethod(request.method().name());
             List<String> contentEncodingValues = request.headers().get(HeaderName.CONTENT_ENCODING.toString());
@@ -85,15 +188,18 @@ public interface Client {
             boolean deflateEncodedRequest =
                     contentEncodingValues != null && contentEncodingValues.contains(ENCODING_DEFLATE);
             boolean hasAcceptHeader = false;
-            Integer contentLength = null;
+            boolean hasContentTypeHeader = false;
+            Long contentLength = null;
             for (String field : request.headers().keySet()) {
                 if ("Accept".equalsIgnoreCase(field)) {
                     hasAcceptHeader = true;
+                } else if (HeaderName.CONTENT_TYPE.matchesIgnoreCase(field)) {
+                    hasContentTypeHeader = true;
                 }
                 for (String value : request.headers().get(field)) {
                     if (field.equals(HeaderName.CONTENT_LENGTH.toString())) {
                         if (!gzipEncodedRequest && !deflateEncodedRequest) {
-                            contentLength = Integer.valueOf(value);
+                            contentLength = Long.valueOf(value);
                             connection.addRequestProperty(field, value);
                         }
                     } else {
@@ -105,7 +211,18 @@ public interface Client {
                 connection.addRequestProperty("Accept", "*/*");
             }
 
-            if (request.body() != null) {
+            RequestBody body = request.body();
+            if (body != null) {
+                if (body instanceof MultipartBody) {
+                    // 分隔符必须与实际编码时的一致
+                    connection.setRequestProperty(HeaderName.CONTENT_TYPE.toString(),
+                            body.contentType() + "; boundary=" + ((MultipartBody) body).getBoundary());
+                } else if (!hasContentTypeHeader && body.contentType() != null) {
+                    connection.addRequestProperty(HeaderName.CONTENT_TYPE.toString(), body.contentType().toString());
+                }
+                if (contentLength == null && !gzipEncodedRequest && !deflateEncodedRequest && body.contentLengthLong() >= 0) {
+                    contentLength = body.contentLengthLong();
+                }
                 if (contentLength != null) {
                     connection.setFixedLengthStreamingMode(contentLength);
                 } else {
@@ -119,12 +236,11 @@ public interface Client {
                     out = new DeflaterOutputStream(out);
                 }
                 try {
-                    out.write(request.body().getData());
+                    body.writeTo(out);
                 } finally {
                     IoUtil.closeQuietly(out);
                 }
             }
-            return connection;
         }
 
         private String encodeUrl(String url, MultiValueMap<String, String> queryParamMap) {
@@ -157,22 +273,43 @@ public interface Client {
         }
 
         public Response convertResponse(HttpURLConnection connection, Request request) throws IOException {
-            int status = connection.getResponseCode();
-            String reason = connection.getResponseMessage();
+            return convertResponse(connection, request, defaultOptions);
+        }
 
-            if (status < 0) {
-                throw new IOException(Strings.format("Invalid status({}) executing {} {}", status,
-                        connection.getRequestMethod(), connection.getURL()));
+        private Response convertResponse(HttpURLConnection connection, Request request, Options options) throws IOException {
+            HostConnectionStats stats = stats(connection.getURL());
+            int status;
+            String reason;
+            Map<String, List<String>> headers;
+            InputStream stream;
+            try {
+                status = connection.getResponseCode();
+                reason = connection.getResponseMessage();
+                if (status < 0) {
+                    throw new IOException(Strings.format("Invalid status({}) executing {} {}", status,
+                            connection.getRequestMethod(), connection.getURL()));
+                }
+                headers = connection.getHeaderFields();
+                stream = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            } catch (IOException | RuntimeException e) {
+                abandon(connection, stats);
+                throw e;
             }
 
-            Map<String, List<String>> headers = connection.getHeaderFields();
-
             int length = connection.getContentLength();
-            InputStream stream;
-            if (status >= 400) {
-                stream = connection.getErrorStream();
+            int maxIdleConnections = options == null ? Options.DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST :
+                    options.maxIdleConnectionsPerHost();
+            boolean reusable = (options == null || options.keepAlive()) &&
+                    !"close".equalsIgnoreCase(connection.getHeaderField("Connection"));
+            if (stream == null) {
+                // 错误响应没有内容
+                if (reusable) {
+                    stats.onReleased(0, maxIdleConnections);
+                } else {
+                    abandon(connection, stats);
+                }
             } else {
-                stream = connection.getInputStream();
+                stream = new KeepAliveInputStream(stream, connection, stats, maxDrainBytes, reusable, maxIdleConnections);
             }
             return Response.builder()
                     .statusCode(status)
@@ -182,6 +319,52 @@ public interface Client {
                     .body(stream, length)
                     .build();
         }
+
+        private HostConnectionStats stats(URL url) {
+            int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+            return hostStats.computeIfAbsent(url.getHost() + ":" + port, HostConnectionStats::new);
+        }
+
+        /**
+         * 关闭错误流并断开连接
+         *
+         * @param connection 连接
+         * @param stats      主机的统计
+         */
+        private static void abandon(HttpURLConnection connection, HostConnectionStats stats) {
+            IoUtil.closeQuietly(connection.getErrorStream());
+            connection.disconnect();
+            stats.onAbandoned();
+        }
+
+        /**
+         * 设置keep-alive缓存的系统属性，与默认值相同或已设置时不修改
+         * <p>
+         * 修改的是JVM全局的系统属性，对进程内所有{@code HttpURLConnection}生效，不只是当前客户端。
+         * </p>
+         *
+         * @param options 配置项
+         */
+        private static void configureKeepAlive(Options options) {
+            if (!KEEP_ALIVE_CONFIGURED.compareAndSet(false, true)) {
+                return;
+            }
+            if (options.maxIdleConnectionsPerHost() != Options.DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST) {
+                setPropertyIfAbsent("http.maxConnections", String.valueOf(options.maxIdleConnectionsPerHost()));
+            }
+            if (options.keepAliveTimeMillis() != Options.DEFAULT_KEEP_ALIVE_TIME_MILLIS) {
+                // 单位为秒
+                String seconds = String.valueOf(Math.max(1, options.keepAliveTimeMillis() / 1000));
+                setPropertyIfAbsent("http.keepAlive.time.server", seconds);
+                setPropertyIfAbsent("http.keepAlive.time.proxy", seconds);
+            }
+        }
+
+        private static void setPropertyIfAbsent(String key, String value) {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        }
     }
 
 
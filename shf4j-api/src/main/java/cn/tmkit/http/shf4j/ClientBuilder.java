@@ -11,13 +11,43 @@ import cn.tmkit.core.support.CloneSupport;
  */
 public abstract class ClientBuilder extends CloneSupport<ClientBuilder> {
 
+    /**
+     * HTTP协议的选择策略，配置项未指定时使用
+     */
+    protected ProtocolPolicy protocolPolicy;
+
     public abstract Client build(Options options);
 
+    /**
+     * 设置默认的HTTP协议选择策略，{@linkplain Options#protocolPolicy()}不为空时以其为准
+     *
+     * @param protocolPolicy 协议策略
+     * @return {@linkplain ClientBuilder}
+     */
+    public ClientBuilder protocolPolicy(ProtocolPolicy protocolPolicy) {
+        this.protocolPolicy = protocolPolicy;
+        return this;
+    }
+
+    /**
+     * 合并构造器上的配置，{@code options}为空时以{@linkplain Options#DEFAULT_OPTIONS}为基础
+     *
+     * @param options 配置项
+     * @return 合并后的配置项
+     */
+    protected Options resolveOptions(Options options) {
+        Options opts = (options == null) ? Options.DEFAULT_OPTIONS : options;
+        if (protocolPolicy != null && opts.protocolPolicy() == null) {
+            opts = opts.newBuilder().protocolPolicy(protocolPolicy).build();
+        }
+        return opts;
+    }
+
     static class Default extends ClientBuilder {
 
         @Override
         public Client build(Options options) {
-            return new Client.DefaultClient();
+            return new Client.DefaultClient(resolveOptions(options));
         }
 
     }
@@ -3,9 +3,14 @@ package cn.tmkit.http.shf4j;
 import cn.tmkit.core.lang.Asserts;
 import cn.tmkit.core.lang.Charsets;
 import cn.tmkit.core.lang.Collections;
+import cn.tmkit.core.lang.Objects;
+import cn.tmkit.core.lang.Strings;
+import cn.tmkit.core.lang.Urls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.List;
 
@@ -36,6 +41,43 @@ public final class FormBody extends RequestBody {
         return charset;
     }
 
+    /**
+     * 按{@code application/x-www-form-urlencoded}编码后的内容
+     *
+     * @return 内容
+     */
+    @Override
+    public byte[] getData() {
+        if (data == null) {
+            Charset encoding = Objects.getIfNull(charset, Charsets.UTF_8);
+            StringBuilder buffer = new StringBuilder();
+            for (NameValuePair nameValuePair : nameValuePairs) {
+                if (buffer.length() > 0) {
+                    buffer.append(Strings.AMP);
+                }
+                buffer.append(Urls.encode(nameValuePair.getName(), encoding)).append(Strings.EQUALS)
+                        .append(Urls.encode(nameValuePair.getValue(), encoding));
+            }
+            data = buffer.toString().getBytes(encoding);
+        }
+        return data;
+    }
+
+    @Override
+    public Integer contentLength() {
+        return getData().length;
+    }
+
+    @Override
+    public long contentLengthLong() {
+        return getData().length;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(getData());
+    }
+
     public static Builder builder() {
         return new Builder();
     }
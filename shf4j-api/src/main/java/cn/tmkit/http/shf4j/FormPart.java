@@ -3,15 +3,11 @@ package cn.tmkit.http.shf4j;
 import cn.tmkit.core.io.FileUtil;
 import cn.tmkit.core.lang.Charsets;
 import cn.tmkit.core.lang.Objects;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.InputStream;
+import java.io.*;
 import java.nio.charset.Charset;
 
 /**
@@ -22,8 +18,6 @@ import java.nio.charset.Charset;
  * @date 2024-01-29
  */
 @Getter
-@AllArgsConstructor
-@RequiredArgsConstructor
 public class FormPart {
 
 
@@ -48,6 +42,39 @@ public class FormPart {
      */
     private String filename;
 
+    /**
+     * 表单字段值的长度，未知时为-1
+     */
+    private long length = -1;
+
+    public FormPart(String name, @NotNull ContentType contentType, InputStream in) {
+        this.name = name;
+        this.contentType = contentType;
+        this.in = in;
+    }
+
+    public FormPart(String name, @NotNull ContentType contentType, InputStream in, String filename) {
+        this(name, contentType, in);
+        this.filename = filename;
+    }
+
+    public FormPart(String name, @NotNull ContentType contentType, InputStream in, String filename, long length) {
+        this(name, contentType, in, filename);
+        this.length = length < 0 ? -1 : length;
+    }
+
+    /**
+     * 将表单字段值写到输出流，输入流只能读取一次，不会关闭{@code out}
+     *
+     * @param out 输出流
+     * @throws IOException 读取或写出异常
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (in != null) {
+            Utils.copy(in, out);
+        }
+    }
+
     /**
      * 创建普通表单字段
      *
@@ -70,7 +97,8 @@ public class FormPart {
     public static FormPart create(String name, String value, ContentType contentType) {
         ContentType targetContentType = Objects.getIfNull(contentType, ContentType.DEFAULT_TEXT);
         Charset encoding = Objects.getIfNull(targetContentType.getCharset(), Charsets.UTF_8);
-        return new FormPart(name, targetContentType, new ByteArrayInputStream(value.getBytes(encoding)));
+        byte[] data = value.getBytes(encoding);
+        return new FormPart(name, targetContentType, new ByteArrayInputStream(data), null, data.length);
     }
 
     /**
@@ -82,7 +110,7 @@ public class FormPart {
      * @return {@linkplain FormPart}
      */
     public static FormPart create(String name, byte[] value, ContentType contentType) {
-        return new FormPart(name, Objects.getIfNull(contentType, ContentType.DEFAULT_TEXT), new ByteArrayInputStream(value));
+        return new FormPart(name, Objects.getIfNull(contentType, ContentType.DEFAULT_TEXT), new ByteArrayInputStream(value), null, value.length);
     }
 
     /**
@@ -94,7 +122,7 @@ public class FormPart {
      */
     public static FormPart create(String name, @NotNull File file) {
         return new FormPart(name, ContentType.parseByFileExt(FileUtil.getFileExt(file)),
-                FileUtil.getBufferedInputStream(file), file.getName());
+                FileUtil.getBufferedInputStream(file), file.getName(), file.length());
     }
 
     /**
@@ -122,8 +150,22 @@ public class FormPart {
         return new FormPart(name, Objects.getIfNull(contentType, ContentType.DEFAULT_BINARY), in, filename);
     }
 
+    /**
+     * 创建文件表单字段，长度已知时可以按固定长度发送
+     *
+     * @param name        表单字段名
+     * @param filename    文件名
+     * @param in          文件输入流
+     * @param contentType 文件类型，如果为{@code null}则为{@linkplain ContentType#DEFAULT_BINARY}
+     * @param length      内容长度，未知时传-1
+     * @return {@literal @FormPart}
+     */
+    public static FormPart create(String name, @NotNull String filename, @NotNull InputStream in, @Nullable ContentType contentType, long length) {
+        return new FormPart(name, Objects.getIfNull(contentType, ContentType.DEFAULT_BINARY), in, filename, length);
+    }
+
     public static FormPart create(String name, @NotNull FormPart formPart) {
-        return new FormPart(name, formPart.contentType, formPart.in, formPart.filename);
+        return new FormPart(name, formPart.contentType, formPart.in, formPart.filename, formPart.length);
     }
 
 
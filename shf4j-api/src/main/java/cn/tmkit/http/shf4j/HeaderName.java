@@ -133,6 +133,41 @@ public enum HeaderName {
      */
     ETAG("ETag"),
 
+    /**
+     * 资源的最后修改时间
+     */
+    LAST_MODIFIED("Last-Modified"),
+
+    /**
+     * 响应的过期时间
+     */
+    EXPIRES("Expires"),
+
+    /**
+     * 响应在缓存中已存放的秒数
+     */
+    AGE("Age"),
+
+    /**
+     * 缓存的响应与哪些请求头相关
+     */
+    VARY("Vary"),
+
+    /**
+     * 条件请求，ETag不匹配时才返回内容
+     */
+    IF_NONE_MATCH("If-None-Match"),
+
+    /**
+     * 条件请求，在指定时间后修改过才返回内容
+     */
+    IF_MODIFIED_SINCE("If-Modified-Since"),
+
+    /**
+     * 服务暂不可用或限流时，客户端应等待多久再重试
+     */
+    RETRY_AFTER("Retry-After"),
+
     /**
      * 重定向指示到的URL
      */
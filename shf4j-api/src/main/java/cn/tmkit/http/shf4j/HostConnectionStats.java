@@ -0,0 +1,128 @@
+package cn.tmkit.http.shf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个主机的连接复用统计
+ * <p>
+ * {@code HttpURLConnection}不公开底层连接是否来自keep-alive缓存，{@linkplain #reusedUpperBound()}按已归还且未被取用的连接数估算：
+ * 发起请求时存在这样的连接即计为复用，不考虑服务端提前关闭的空闲连接，是复用次数的上限。
+ * {@linkplain #released()}与{@linkplain #abandoned()}是准确的，可用于判断响应是否被完整读取。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public final class HostConnectionStats {
+
+    /**
+     * 主机，格式为{@code host:port}
+     */
+    private final String host;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder reused = new LongAdder();
+
+    private final LongAdder released = new LongAdder();
+
+    private final LongAdder abandoned = new LongAdder();
+
+    private final LongAdder drainedBytes = new LongAdder();
+
+    /**
+     * 已归还且未被取用的连接数
+     */
+    private final AtomicInteger idle = new AtomicInteger();
+
+    HostConnectionStats(String host) {
+        this.host = host;
+    }
+
+    /**
+     * 发起请求
+     */
+    void onRequest() {
+        requests.increment();
+        if (idle.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+            reused.increment();
+        }
+    }
+
+    /**
+     * 响应读取完整，连接归还到keep-alive缓存
+     *
+     * @param drained            关闭时读取并丢弃的字节数
+     * @param maxIdleConnections 空闲连接数上限
+     */
+    void onReleased(long drained, int maxIdleConnections) {
+        released.increment();
+        drainedBytes.add(drained);
+        idle.updateAndGet(n -> Math.min(n + 1, maxIdleConnections));
+    }
+
+    /**
+     * 响应未读取完整或不能保持连接，连接被关闭
+     */
+    void onAbandoned() {
+        abandoned.increment();
+    }
+
+    public String host() {
+        return host;
+    }
+
+    /**
+     * 请求数
+     *
+     * @return 请求数
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * 估算的复用连接的请求数，是上限而不是准确值，服务端提前关闭的空闲连接也会被计入
+     *
+     * @return 复用次数的上限
+     */
+    public long reusedUpperBound() {
+        return reused.sum();
+    }
+
+    /**
+     * 归还到keep-alive缓存的连接数
+     *
+     * @return 归还次数
+     */
+    public long released() {
+        return released.sum();
+    }
+
+    /**
+     * 关闭而未归还的连接数
+     *
+     * @return 关闭次数
+     */
+    public long abandoned() {
+        return abandoned.sum();
+    }
+
+    /**
+     * 关闭响应时读取并丢弃的字节数
+     *
+     * @return 字节数
+     */
+    public long drainedBytes() {
+        return drainedBytes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "HostConnectionStats{host='" + host + "', requests=" + requests() + ", reusedUpperBound=" + reusedUpperBound() +
+                ", released=" + released() + ", abandoned=" + abandoned() + ", drainedBytes=" + drainedBytes() + '}';
+    }
+
+}
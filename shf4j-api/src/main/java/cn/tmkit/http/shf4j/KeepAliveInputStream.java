@@ -0,0 +1,127 @@
+package cn.tmkit.http.shf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+
+/**
+ * {@code HttpURLConnection}的响应流，关闭时决定连接是否归还到keep-alive缓存
+ * <p>
+ * {@code HttpURLConnection}只有在响应体读取完整后才会复用连接：关闭时剩余内容不超过{@code maxDrainBytes}
+ * 则读取并丢弃，连接归还；超过上限或不能保持连接时调用{@linkplain HttpURLConnection#disconnect()}直接关闭。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+final class KeepAliveInputStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final HttpURLConnection connection;
+
+    private final HostConnectionStats stats;
+
+    /**
+     * 关闭时最多读取并丢弃的字节数
+     */
+    private final long maxDrainBytes;
+
+    /**
+     * 连接是否可以保持
+     */
+    private final boolean reusable;
+
+    private final int maxIdleConnections;
+
+    /**
+     * 已读取的字节数
+     */
+    private long count;
+
+    private boolean eof;
+
+    private boolean closed;
+
+    KeepAliveInputStream(InputStream in, HttpURLConnection connection, HostConnectionStats stats,
+                         long maxDrainBytes, boolean reusable, int maxIdleConnections) {
+        super(in);
+        this.connection = connection;
+        this.stats = stats;
+        this.maxDrainBytes = maxDrainBytes;
+        this.reusable = reusable;
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            eof = true;
+        } else {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n == -1) {
+            eof = true;
+        } else {
+            count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long drained = reusable ? drain() : -1;
+        if (drained < 0) {
+            // 放弃剩余内容，由HttpURLConnection关闭连接
+            connection.disconnect();
+            stats.onAbandoned();
+        }
+        try {
+            super.close();
+        } finally {
+            if (drained >= 0) {
+                stats.onReleased(drained, maxIdleConnections);
+            }
+        }
+    }
+
+    /**
+     * 读取并丢弃剩余内容
+     *
+     * @return 丢弃的字节数，剩余内容超过上限或读取异常时返回-1
+     */
+    private long drain() {
+        if (eof) {
+            return 0;
+        }
+        long contentLength = connection.getContentLengthLong();
+        if (contentLength >= 0 && contentLength - count > maxDrainBytes) {
+            return -1;
+        }
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(1, maxDrainBytes))];
+        long drained = 0;
+        try {
+            int n;
+            while (drained <= maxDrainBytes && (n = in.read(buffer)) != -1) {
+                drained += n;
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return drained <= maxDrainBytes ? drained : -1;
+    }
+
+}
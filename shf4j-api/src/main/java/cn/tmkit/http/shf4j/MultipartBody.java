@@ -1,12 +1,16 @@
 package cn.tmkit.http.shf4j;
 
+import cn.tmkit.core.id.Ids;
 import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.core.lang.Charsets;
 import cn.tmkit.core.lang.CollectionUtils;
+import cn.tmkit.core.lang.Objects;
 import cn.tmkit.core.lang.Strings;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,12 +29,95 @@ public class MultipartBody extends RequestBody {
 
     private final List<FormPart> parts;
 
+    private static final byte[] CRLF = {'\r', '\n'};
+
     MultipartBody(Builder builder) {
         this.contentType = builder.contentType;
-        this.boundary = builder.boundary;
+        this.boundary = Strings.hasLength(builder.boundary) ? builder.boundary : Ids.uuidNoDash();
         this.parts = Collections.unmodifiableList(builder.parts);
     }
 
+    /**
+     * 编码后的内容长度，存在长度未知的字段时返回-1
+     *
+     * @return 内容长度
+     */
+    @Override
+    public long contentLengthLong() {
+        long length = 0;
+        for (FormPart part : parts) {
+            if (part.getLength() < 0) {
+                return -1;
+            }
+            length += partHeader(part).length + part.getLength() + CRLF.length;
+        }
+        return length + closeDelimiter().length;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    /**
+     * 按{@code multipart/form-data}格式编码并写到输出流，各字段的内容直接从其输入流复制，不会关闭{@code out}
+     *
+     * @param out 输出流
+     * @throws IOException 读取或写出异常
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        for (FormPart part : parts) {
+            out.write(partHeader(part));
+            part.writeTo(out);
+            out.write(CRLF);
+        }
+        out.write(closeDelimiter());
+    }
+
+    /**
+     * 按{@code multipart/form-data}格式编码后的输入流，内容与{@linkplain #writeTo(OutputStream)}相同，
+     * 各字段的内容在读取时才从其输入流读取，供只能从输入流读取请求体的实现使用
+     *
+     * @return 输入流
+     */
+    public InputStream openStream() {
+        List<InputStream> streams = new ArrayList<>(parts.size() * 3 + 1);
+        for (FormPart part : parts) {
+            streams.add(new ByteArrayInputStream(partHeader(part)));
+            if (part.getIn() != null) {
+                streams.add(part.getIn());
+            }
+            streams.add(new ByteArrayInputStream(CRLF));
+        }
+        streams.add(new ByteArrayInputStream(closeDelimiter()));
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     * 字段的分隔符及头部
+     *
+     * @param part 表单字段
+     * @return 编码后的字节
+     */
+    private byte[] partHeader(FormPart part) {
+        StringBuilder buffer = new StringBuilder(128).append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(escape(part.getName())).append('"');
+        if (part.getFilename() != null) {
+            buffer.append("; filename=\"").append(escape(part.getFilename())).append('"');
+        }
+        buffer.append("\r\nContent-Type: ").append(part.getContentType()).append("\r\n\r\n");
+        return buffer.toString().getBytes(Objects.getIfNull(getCharset(), Charsets.UTF_8));
+    }
+
+    private byte[] closeDelimiter() {
+        return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\r", "%0D").replace("\n", "%0A").replace("\"", "%22");
+    }
+
     public static Builder builder() {
         return new Builder();
     }
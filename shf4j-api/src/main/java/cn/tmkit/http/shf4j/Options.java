@@ -1,8 +1,11 @@
 package cn.tmkit.http.shf4j;
 
 import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.http.shf4j.retry.RetryPolicy;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +46,16 @@ public class Options {
      */
     private final int retryCount;
 
+    /**
+     * 重试策略，为空时按{@linkplain #retryCount}使用默认策略
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * 实际使用的重试策略，构造时确定，避免每个请求都创建默认策略
+     */
+    private final RetryPolicy effectiveRetryPolicy;
+
     /**
      * 代理
      */
@@ -50,6 +63,26 @@ public class Options {
 
     private final List<HttpStatus> decodeStatusCodes;
 
+    /**
+     * HTTP协议的选择策略，为空时使用实现的默认行为
+     */
+    private final ProtocolPolicy protocolPolicy;
+
+    /**
+     * 是否保持连接（keep-alive）
+     */
+    private final boolean keepAlive;
+
+    /**
+     * 每个主机保留的空闲连接数上限
+     */
+    private final int maxIdleConnectionsPerHost;
+
+    /**
+     * 空闲连接的保留时长，单位毫秒
+     */
+    private final int keepAliveTimeMillis;
+
     private SSLConfig sslConfig;
 
     Options(Builder builder) {
@@ -58,8 +91,15 @@ public class Options {
         this.writeTimeoutMillis = builder.writeTimeoutMillis;
         this.followRedirects = builder.followRedirects;
         this.retryCount = builder.retryCount;
+        this.retryPolicy = builder.retryPolicy;
+        this.effectiveRetryPolicy = retryPolicy != null ? retryPolicy : RetryPolicy.ofMaxRetries(retryCount);
         this.proxyInfo = builder.proxyInfo;
-        this.decodeStatusCodes = builder.decodeStatusCodes;
+        this.decodeStatusCodes = (builder.decodeStatusCodes == null) ? null :
+                Collections.unmodifiableList(new ArrayList<>(builder.decodeStatusCodes));
+        this.protocolPolicy = builder.protocolPolicy;
+        this.keepAlive = builder.keepAlive;
+        this.maxIdleConnectionsPerHost = builder.maxIdleConnectionsPerHost;
+        this.keepAliveTimeMillis = builder.keepAliveTimeMillis;
     }
 
     public int connectTimeoutMillis() {
@@ -82,6 +122,15 @@ public class Options {
         return retryCount;
     }
 
+    /**
+     * 重试策略，未设置时为重试{@linkplain #retryCount()}次的默认策略
+     *
+     * @return {@linkplain RetryPolicy}
+     */
+    public RetryPolicy retryPolicy() {
+        return effectiveRetryPolicy;
+    }
+
     public ProxyInfo proxyInfo() {
         return proxyInfo;
     }
@@ -90,10 +139,89 @@ public class Options {
         return decodeStatusCodes;
     }
 
+    /**
+     * HTTP协议的选择策略
+     *
+     * @return {@linkplain ProtocolPolicy}，为空时使用实现的默认行为
+     */
+    public ProtocolPolicy protocolPolicy() {
+        return protocolPolicy;
+    }
+
+    /**
+     * 是否保持连接，为{@code false}时每个请求使用新的连接并在完成后关闭
+     *
+     * @return 是否保持连接
+     */
+    public boolean keepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * 每个主机保留的空闲连接数上限
+     * <p>
+     * 对{@linkplain Client.DefaultClient}而言这是JVM全局配置：映射到系统属性{@code http.maxConnections}，
+     * 会影响进程内所有{@code HttpURLConnection}，且只有第一个创建的客户端生效。
+     * </p>
+     *
+     * @return 空闲连接数上限
+     */
+    public int maxIdleConnectionsPerHost() {
+        return maxIdleConnectionsPerHost;
+    }
+
+    /**
+     * 空闲连接的保留时长，单位毫秒，服务端通过{@code Keep-Alive}响应头指定时以服务端为准
+     * <p>
+     * 对{@linkplain Client.DefaultClient}而言这是JVM全局配置：映射到系统属性{@code http.keepAlive.time.server}
+     * 及{@code http.keepAlive.time.proxy}，会影响进程内所有{@code HttpURLConnection}，且只有第一个创建的客户端生效。
+     * </p>
+     *
+     * @return 保留时长
+     */
+    public int keepAliveTimeMillis() {
+        return keepAliveTimeMillis;
+    }
+
     public Builder newBuilder() {
         return new Builder(this);
     }
 
+    /**
+     * 所有配置项相同即相等，可以作为缓存的键
+     *
+     * @param o 另一个对象
+     * @return 是否相等
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Options that = (Options) o;
+        return connectTimeoutMillis == that.connectTimeoutMillis &&
+                readTimeoutMillis == that.readTimeoutMillis &&
+                writeTimeoutMillis == that.writeTimeoutMillis &&
+                followRedirects == that.followRedirects &&
+                retryCount == that.retryCount &&
+                Objects.equals(retryPolicy, that.retryPolicy) &&
+                Objects.equals(proxyInfo, that.proxyInfo) &&
+                Objects.equals(decodeStatusCodes, that.decodeStatusCodes) &&
+                protocolPolicy == that.protocolPolicy &&
+                keepAlive == that.keepAlive &&
+                maxIdleConnectionsPerHost == that.maxIdleConnectionsPerHost &&
+                keepAliveTimeMillis == that.keepAliveTimeMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectTimeoutMillis, readTimeoutMillis, writeTimeoutMillis, followRedirects, retryCount,
+                retryPolicy, proxyInfo, decodeStatusCodes, protocolPolicy, keepAlive, maxIdleConnectionsPerHost, keepAliveTimeMillis);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -130,6 +258,8 @@ public class Options {
          */
         private int retryCount;
 
+        private RetryPolicy retryPolicy;
+
         /**
          * 代理
          */
@@ -137,6 +267,14 @@ public class Options {
 
         private List<HttpStatus> decodeStatusCodes;
 
+        private ProtocolPolicy protocolPolicy;
+
+        private boolean keepAlive = true;
+
+        private int maxIdleConnectionsPerHost = DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST;
+
+        private int keepAliveTimeMillis = DEFAULT_KEEP_ALIVE_TIME_MILLIS;
+
         Builder() {
             super();
         }
@@ -144,10 +282,16 @@ public class Options {
         Builder(@NotNull Options source) {
             this.connectTimeoutMillis = Objects.requireNonNull(source).connectTimeoutMillis;
             this.readTimeoutMillis = source.readTimeoutMillis;
-            this.writeTimeoutMillis = source.connectTimeoutMillis;
+            this.writeTimeoutMillis = source.writeTimeoutMillis;
             this.followRedirects = source.followRedirects;
             this.retryCount = source.retryCount;
+            this.retryPolicy = source.retryPolicy;
             this.proxyInfo = source.proxyInfo;
+            this.decodeStatusCodes = source.decodeStatusCodes;
+            this.protocolPolicy = source.protocolPolicy;
+            this.keepAlive = source.keepAlive;
+            this.maxIdleConnectionsPerHost = source.maxIdleConnectionsPerHost;
+            this.keepAliveTimeMillis = source.keepAliveTimeMillis;
         }
 
         /**
@@ -324,6 +468,17 @@ public class Options {
             return this;
         }
 
+        /**
+         * 设置重试策略，优先于{@linkplain #retryCount(int)}
+         *
+         * @param retryPolicy 重试策略，为空时按重试次数使用默认策略
+         * @return {@linkplain Builder}
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
         /**
          * 设置HTTP代理信息
          *
@@ -343,12 +498,69 @@ public class Options {
             return this;
         }
 
+        /**
+         * 设置HTTP协议的选择策略，为空时使用实现的默认行为
+         *
+         * @param protocolPolicy 协议策略
+         * @return {@linkplain Builder}
+         */
+        public Builder protocolPolicy(ProtocolPolicy protocolPolicy) {
+            this.protocolPolicy = protocolPolicy;
+            return this;
+        }
+
+        /**
+         * 设置是否保持连接
+         *
+         * @param keepAlive 是否保持连接
+         * @return {@linkplain Builder}
+         */
+        public Builder keepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * 设置每个主机保留的空闲连接数上限，默认实现中为JVM全局配置，见{@linkplain Options#maxIdleConnectionsPerHost()}
+         *
+         * @param maxIdleConnectionsPerHost 空闲连接数上限，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxIdleConnectionsPerHost(int maxIdleConnectionsPerHost) {
+            Asserts.isTrue(maxIdleConnectionsPerHost > 0, "'maxIdleConnectionsPerHost' must than 0");
+            this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * 设置空闲连接的保留时长，默认实现中为JVM全局配置，见{@linkplain Options#keepAliveTimeMillis()}
+         *
+         * @param keepAliveTime 保留时长，必须大于0
+         * @param timeUnit      时长单位
+         * @return {@linkplain Builder}
+         */
+        public Builder keepAliveTime(int keepAliveTime, @NotNull TimeUnit timeUnit) {
+            Asserts.isTrue(keepAliveTime > 0, "'keepAliveTime' must than 0");
+            this.keepAliveTimeMillis = (int) timeUnit.toMillis(keepAliveTime);
+            return this;
+        }
+
         public Options build() {
             return new Options(this);
         }
 
     }
 
+    /**
+     * 默认每个主机保留的空闲连接数，与{@code HttpURLConnection}的默认值一致
+     */
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST = 5;
+
+    /**
+     * 默认的空闲连接保留时长，与{@code HttpURLConnection}的默认值一致
+     */
+    public static final int DEFAULT_KEEP_ALIVE_TIME_MILLIS = 5_000;
+
     /**
      * 默认的配置，连接、读取，写入为60s超时
      */
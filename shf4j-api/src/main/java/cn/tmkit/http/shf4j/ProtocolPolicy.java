@@ -0,0 +1,39 @@
+package cn.tmkit.http.shf4j;
+
+/**
+ * HTTP协议的选择策略
+ * <p>
+ * 未指定时使用各实现自身的默认行为；{@linkplain Client.DefaultClient}基于{@code HttpURLConnection}，只支持HTTP/1.1。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public enum ProtocolPolicy {
+
+    /**
+     * 只使用HTTP/1.1
+     */
+    HTTP_1_1,
+
+    /**
+     * 优先使用HTTP/2：HTTPS通过ALPN协商，协商失败或明文HTTP时使用HTTP/1.1
+     */
+    HTTP_2,
+
+    /**
+     * 明文HTTP/2（h2c），不经协商直接使用HTTP/2（prior knowledge），服务端必须支持
+     */
+    H2C_PRIOR_KNOWLEDGE;
+
+    /**
+     * 是否会使用HTTP/2
+     *
+     * @return 使用HTTP/2返回{@code true}
+     */
+    public boolean isHttp2() {
+        return this != HTTP_1_1;
+    }
+
+}
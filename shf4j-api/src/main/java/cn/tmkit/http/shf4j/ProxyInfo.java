@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.net.InetSocketAddress;
 import java.net.Proxy;
+import java.util.Objects;
 
 /**
  * Http代理信息
@@ -20,14 +21,12 @@ public class ProxyInfo {
 
     private final ProxyType type;
 
-    private String username;
+    private final String username;
 
-    private String password;
+    private final String password;
 
     ProxyInfo(String host, int port, ProxyType type) {
-        this.host = host;
-        this.port = port;
-        this.type = type;
+        this(type, host, port, null, null);
     }
 
     ProxyInfo(ProxyType type, String host, int port, String username, String password) {
@@ -95,6 +94,24 @@ public class ProxyInfo {
         return new ProxyInfo(ProxyType.SOCKS, hostOrIp, port, username, pwd);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ProxyInfo that = (ProxyInfo) o;
+        return port == that.port && type == that.type && Objects.equals(host, that.host) &&
+                Objects.equals(username, that.username) && Objects.equals(password, that.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, type, username, password);
+    }
+
     /**
      * Represents the proxy type.
      */
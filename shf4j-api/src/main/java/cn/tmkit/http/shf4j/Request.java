@@ -160,7 +160,8 @@ public final class Request {
             this.url = request.url;
             this.headerMap = new LinkedMultiValueMap<>(request.headers);
             this.body = request.body;
-            this.queryParams = request.queryParams;
+            this.queryParams = new LinkedMultiValueMap<>(request.queryParams);
+            this.decodeStatusCodes = new HashSet<>(request.decodeStatusCodes);
         }
 
         public Builder method(@NotNull HttpMethod method) {
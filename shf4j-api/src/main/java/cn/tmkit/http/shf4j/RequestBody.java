@@ -1,13 +1,13 @@
 package cn.tmkit.http.shf4j;
 
-import cn.tmkit.core.io.Files;
-import cn.tmkit.core.io.IoUtil;
 import cn.tmkit.core.lang.Charsets;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 
 /**
@@ -48,6 +48,36 @@ public class RequestBody {
         return data != null ? data.length : null;
     }
 
+    /**
+     * 请求内容的长度，如果未知则返回-1
+     *
+     * @return 内容长度
+     */
+    public long contentLengthLong() {
+        return data != null ? data.length : -1;
+    }
+
+    /**
+     * 内容是否可以重复发送，流式的内容只能发送一次
+     *
+     * @return 是否可以重复发送
+     */
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * 将内容写到输出流，不会关闭{@code out}
+     *
+     * @param out 输出流
+     * @throws IOException 写出异常
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (data != null) {
+            out.write(data);
+        }
+    }
+
     /**
      * 返回请求中Content-Type的请求头
      *
@@ -108,27 +138,37 @@ public class RequestBody {
     }
 
     /**
-     * 从文件内容生成请求体对象
+     * 从文件内容生成请求体对象，发送时直接从文件读取
      *
      * @param contentType 请求类型
      * @param file        文件内容
      * @return {@linkplain RequestBody}对象
      */
     public static RequestBody create(ContentType contentType, @NotNull File file) {
-        return new RequestBody(contentType, Files.readBytes(file));
+        return new StreamingRequestBody(contentType, file);
     }
 
     /**
-     * 从输入流生成请求体对象
+     * 从输入流生成请求体对象，长度未知
      *
      * @param contentType 请求类型
      * @param in          文件内容
      * @return {@linkplain RequestBody}对象
      */
     public static RequestBody create(ContentType contentType, @NotNull InputStream in) {
-        return new RequestBody(contentType, IoUtil.readBytes(in));
+        return create(contentType, in, -1);
     }
 
-    
+    /**
+     * 从输入流生成请求体对象，发送时直接从输入流读取，发送后关闭输入流
+     *
+     * @param contentType 请求类型
+     * @param in          文件内容
+     * @param length      内容长度，未知时传-1
+     * @return {@linkplain RequestBody}对象
+     */
+    public static RequestBody create(ContentType contentType, @NotNull InputStream in, long length) {
+        return new StreamingRequestBody(contentType, in, length);
+    }
 
 }
@@ -367,19 +367,19 @@ public class Response implements Closeable, AutoCloseable {
 
         @Override
         public Reader asReader(Charset charset) throws IoRuntimeException {
-            return new BufferedReader(new InputStreamReader(byteStream(), charset));
+            return new BufferedReader(new InputStreamReader(byteStream(), Charsets.getCharset(charset, Charsets.UTF_8)));
         }
 
         /**
          * 将响应内容转为字符串，并且会自动关闭流
          *
-         * @param charset 编码字符集，可空，
+         * @param charset 编码字符集，可空，为空时使用{@code UTF-8}
          * @return 响应字符串
          * @throws IoRuntimeException IO异常
          */
         @Override
         public String string(Charset charset) throws IoRuntimeException {
-            return new String(data, charset);
+            return new String(data, Charsets.getCharset(charset, Charsets.UTF_8));
         }
 
         @Override
@@ -415,7 +415,7 @@ public class Response implements Closeable, AutoCloseable {
          */
         @Override
         public Integer length() {
-            return length;
+            return length >= 0 ? length : null;
         }
 
         @Override
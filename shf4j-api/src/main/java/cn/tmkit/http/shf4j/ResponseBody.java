@@ -4,9 +4,16 @@ import cn.tmkit.core.exception.IoRuntimeException;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * HTTP响应内容接口
@@ -53,4 +60,43 @@ public interface ResponseBody extends Closeable, AutoCloseable {
      */
     String string(@Nullable Charset charset) throws IoRuntimeException;
 
+    /**
+     * 将响应内容边读边写到输出流，不会整体读入内存，也不会关闭{@code out}
+     *
+     * @param out 输出流
+     * @return 写出的字节数
+     * @throws IoRuntimeException IO异常
+     */
+    default long transferTo(OutputStream out) throws IoRuntimeException {
+        try {
+            return Utils.copy(byteStream(), out);
+        } catch (IOException e) {
+            throw new IoRuntimeException(e);
+        }
+    }
+
+    /**
+     * 将响应内容通过{@linkplain FileChannel#transferFrom(ReadableByteChannel, long, long)}写到文件，
+     * 文件已存在时覆盖，内存占用与响应大小无关
+     *
+     * @param target 目标文件
+     * @return 写出的字节数
+     * @throws IoRuntimeException IO异常
+     */
+    default long transferTo(Path target) throws IoRuntimeException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ReadableByteChannel source = Channels.newChannel(byteStream());
+            long position = 0;
+            long transferred;
+            // 阻塞的输入流只有在读完时才会返回0
+            while ((transferred = channel.transferFrom(source, position, Utils.TRANSFER_CHUNK_SIZE)) > 0) {
+                position += transferred;
+            }
+            return position;
+        } catch (IOException e) {
+            throw new IoRuntimeException(e);
+        }
+    }
+
 }
@@ -0,0 +1,161 @@
+package cn.tmkit.http.shf4j;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.io.IoUtil;
+import cn.tmkit.core.lang.Asserts;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 流式的请求体，发送时直接从文件或输入流写到连接上，内容不会整体读入内存
+ * <p>
+ * 基于文件时长度已知且可以重复发送；基于输入流时只能发送一次，长度未知时以{@code chunked}方式发送。
+ * 调用{@linkplain #getData()}后内容已读入内存，之后按内存中的内容发送，可以重复发送。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-17
+ */
+public class StreamingRequestBody extends RequestBody {
+
+    /**
+     * 写出时使用的缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 文件内容
+     */
+    private final File file;
+
+    /**
+     * 输入流内容
+     */
+    private final InputStream in;
+
+    /**
+     * 内容长度，未知时为-1
+     */
+    private final long length;
+
+    StreamingRequestBody(ContentType contentType, @NotNull File file) {
+        super(contentType, null);
+        this.file = Asserts.notNull(file, "file == null");
+        this.in = null;
+        this.length = file.length();
+    }
+
+    StreamingRequestBody(ContentType contentType, @NotNull InputStream in, long length) {
+        super(contentType, null);
+        this.file = null;
+        this.in = Asserts.notNull(in, "in == null");
+        this.length = length < 0 ? -1 : length;
+    }
+
+    /**
+     * 请求内容的长度，未知或超过{@linkplain Integer#MAX_VALUE}时返回{@code null}
+     *
+     * @return 内容长度
+     */
+    @Nullable
+    @Override
+    public Integer contentLength() {
+        long contentLength = contentLengthLong();
+        return (contentLength >= 0 && contentLength <= Integer.MAX_VALUE) ? (int) contentLength : null;
+    }
+
+    @Override
+    public long contentLengthLong() {
+        return data != null ? data.length : length;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return file != null || data != null;
+    }
+
+    /**
+     * 将内容写到输出流，不会关闭{@code out}
+     *
+     * @param out 输出流
+     * @throws IOException 读取或写出异常
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        if (data != null) {
+            // 输入流已被getData()读完
+            out.write(data);
+            return;
+        }
+        if (file == null) {
+            Utils.copy(in, out);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * 一次性读取全部内容，仅为兼容直接使用字节数组的实现，读取后按内存中的内容发送
+     *
+     * @return 内容
+     */
+    @Override
+    public byte[] getData() {
+        if (data == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : BUFFER_SIZE);
+            try {
+                writeTo(out);
+            } catch (IOException e) {
+                throw new IoRuntimeException(e);
+            }
+            data = out.toByteArray();
+        }
+        return data;
+    }
+
+    /**
+     * 文件内容，基于输入流时返回{@code null}
+     *
+     * @return 文件
+     */
+    @Nullable
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 输入流内容，基于文件时返回{@code null}
+     *
+     * @return 输入流
+     */
+    @Nullable
+    public InputStream getIn() {
+        return in;
+    }
+
+    /**
+     * 关闭输入流
+     */
+    void close() {
+        IoUtil.closeQuietly(in);
+    }
+
+}
@@ -3,7 +3,7 @@ package cn.tmkit.http.shf4j;
 import cn.tmkit.core.io.IoUtil;
 import cn.tmkit.core.lang.Collections;
 
-import java.io.InputStream;
+import java.io.*;
 import java.util.List;
 
 /**
@@ -15,8 +15,20 @@ import java.util.List;
  */
 public class Utils {
 
+    /**
+     * 复制流的缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 写文件时单次{@code transferFrom}的最大字节数
+     */
+    static final long TRANSFER_CHUNK_SIZE = 1 << 20;
+
     public static void closeParts(RequestBody requestBody) {
-        if (requestBody instanceof MultipartBody) {
+        if (requestBody instanceof StreamingRequestBody) {
+            ((StreamingRequestBody) requestBody).close();
+        } else if (requestBody instanceof MultipartBody) {
             MultipartBody multipartBody = (MultipartBody) requestBody;
             List<FormPart> parts = multipartBody.getParts();
             if (Collections.isNotEmpty(parts)) {
@@ -30,4 +42,56 @@ public class Utils {
         }
     }
 
+    /**
+     * 将输入流的内容复制到输出流，不会关闭两者
+     *
+     * @param in  输入流
+     * @param out 输出流
+     * @return 复制的字节数
+     * @throws IOException 读取或写出异常
+     */
+    public static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * 最多读取{@code limit + 1}个字节，返回的长度超过{@code limit}时表示还有剩余内容，不会关闭输入流
+     *
+     * @param in    输入流
+     * @param limit 上限
+     * @return 读取的内容
+     * @throws IOException 读取异常
+     */
+    public static byte[] readAtMost(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, IoUtil.DEFAULT_LARGE_BUFFER_SIZE));
+        byte[] buffer = new byte[IoUtil.DEFAULT_LARGE_BUFFER_SIZE];
+        int n;
+        while (out.size() <= limit &&
+                (n = in.read(buffer, 0, (int) Math.min(buffer.length, (long) limit + 1 - out.size()))) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 把{@linkplain #readAtMost(InputStream, int)}已读取的内容放回响应体的开头，返回的响应与原响应的内容相同
+     *
+     * @param response 原响应
+     * @param head     已读取的内容
+     * @param rest     响应体的剩余部分
+     * @return 新的响应
+     */
+    public static Response unread(Response response, byte[] head, InputStream rest) {
+        Integer length = response.body() == null ? null : response.body().length();
+        InputStream in = new SequenceInputStream(new ByteArrayInputStream(head), rest);
+        return response.toBuilder().body(in, length == null ? -1 : length).build();
+    }
+
 }
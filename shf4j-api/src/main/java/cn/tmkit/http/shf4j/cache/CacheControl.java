@@ -0,0 +1,92 @@
+package cn.tmkit.http.shf4j.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@code Cache-Control}头中与私有缓存相关的指令，未出现的时长类指令为-1
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+final class CacheControl {
+
+    static final CacheControl EMPTY = new CacheControl();
+
+    boolean noCache;
+
+    boolean noStore;
+
+    boolean mustRevalidate;
+
+    long maxAgeSeconds = -1;
+
+    long maxStaleSeconds = -1;
+
+    long minFreshSeconds = -1;
+
+    private CacheControl() {
+    }
+
+    /**
+     * 解析{@code Cache-Control}头，忽略无法识别的指令
+     *
+     * @param values 头的所有值，可空
+     * @return 解析结果
+     */
+    static CacheControl parse(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        CacheControl cacheControl = new CacheControl();
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                int index = directive.indexOf('=');
+                String name = (index < 0 ? directive : directive.substring(0, index)).trim().toLowerCase(Locale.ROOT);
+                String argument = index < 0 ? null : directive.substring(index + 1).trim();
+                switch (name) {
+                    case "no-cache":
+                        cacheControl.noCache = true;
+                        break;
+                    case "no-store":
+                        cacheControl.noStore = true;
+                        break;
+                    case "must-revalidate":
+                    case "proxy-revalidate":
+                        cacheControl.mustRevalidate = true;
+                        break;
+                    case "max-age":
+                        cacheControl.maxAgeSeconds = seconds(argument, -1);
+                        break;
+                    case "max-stale":
+                        // 无参数时表示接受任意过期时长
+                        cacheControl.maxStaleSeconds = seconds(argument, Long.MAX_VALUE);
+                        break;
+                    case "min-fresh":
+                        cacheControl.minFreshSeconds = seconds(argument, -1);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return cacheControl;
+    }
+
+    private static long seconds(String argument, long defaultValue) {
+        if (argument == null || argument.isEmpty()) {
+            return defaultValue;
+        }
+        if (argument.length() > 1 && argument.charAt(0) == '"' && argument.charAt(argument.length() - 1) == '"') {
+            argument = argument.substring(1, argument.length() - 1);
+        }
+        try {
+            return Math.max(0, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            // 超过long范围视为无限大，其他格式错误视为未设置
+            return argument.chars().allMatch(Character::isDigit) ? Long.MAX_VALUE : defaultValue;
+        }
+    }
+
+}
@@ -0,0 +1,377 @@
+package cn.tmkit.http.shf4j.cache;
+
+import cn.tmkit.http.shf4j.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存的响应，内容完整保存在内存中，不可修改
+ * <p>
+ * 新鲜度及年龄按RFC 9111第4.2节计算，没有明确的过期时间但有{@code Last-Modified}时，
+ * 使用距最后修改时间的10%作为启发式过期时间，最长1天。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+final class CacheEntry {
+
+    /**
+     * 磁盘格式的版本号
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final long MAX_HEURISTIC_FRESHNESS_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 304响应中不应覆盖到缓存上的头
+     */
+    private static final Set<String> NOT_UPDATABLE_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        NOT_UPDATABLE_HEADERS.add("Content-Length");
+        NOT_UPDATABLE_HEADERS.add("Content-Encoding");
+        NOT_UPDATABLE_HEADERS.add("Content-Range");
+        NOT_UPDATABLE_HEADERS.add("Transfer-Encoding");
+    }
+
+    final String key;
+
+    final int statusCode;
+
+    final String reason;
+
+    final ProtocolVersion protocolVersion;
+
+    /**
+     * 响应头，不含状态行
+     */
+    final Map<String, List<String>> headers;
+
+    /**
+     * {@code Vary}中列出的请求头在原始请求中的值，键为小写的头名称
+     */
+    final Map<String, List<String>> varyHeaders;
+
+    final byte[] body;
+
+    /**
+     * 发出请求的时间
+     */
+    final long requestTimeMillis;
+
+    /**
+     * 收到响应的时间
+     */
+    final long responseTimeMillis;
+
+    CacheEntry(String key, int statusCode, String reason, ProtocolVersion protocolVersion,
+               Map<String, List<String>> headers, Map<String, List<String>> varyHeaders, byte[] body,
+               long requestTimeMillis, long responseTimeMillis) {
+        this.key = key;
+        this.statusCode = statusCode;
+        this.reason = reason;
+        this.protocolVersion = protocolVersion;
+        this.headers = headers;
+        this.varyHeaders = varyHeaders;
+        this.body = body;
+        this.requestTimeMillis = requestTimeMillis;
+        this.responseTimeMillis = responseTimeMillis;
+    }
+
+    /**
+     * 根据响应创建缓存项
+     *
+     * @param key                缓存的键
+     * @param request            请求
+     * @param response           响应
+     * @param body               完整的响应内容
+     * @param requestTimeMillis  发出请求的时间
+     * @param responseTimeMillis 收到响应的时间
+     * @return 缓存项
+     */
+    static CacheEntry of(String key, Request request, Response response, byte[] body,
+                         long requestTimeMillis, long responseTimeMillis) {
+        Map<String, List<String>> headers = copyHeaders(response.headers());
+        Map<String, List<String>> varyHeaders = new TreeMap<>();
+        for (String name : varyNames(headers)) {
+            List<String> values = values(request.headers(), name);
+            varyHeaders.put(name.toLowerCase(Locale.ROOT), values == null ? Collections.emptyList() : new ArrayList<>(values));
+        }
+        return new CacheEntry(key, response.statusCode(), response.reason(), response.protocolVersion(),
+                headers, varyHeaders, body, requestTimeMillis, responseTimeMillis);
+    }
+
+    /**
+     * 响应的{@code Cache-Control}
+     *
+     * @return 缓存指令
+     */
+    CacheControl cacheControl() {
+        return CacheControl.parse(values(headers, HeaderName.CACHE_CONTROL.getValue()));
+    }
+
+    /**
+     * 新鲜期的时长
+     *
+     * @return 毫秒数
+     */
+    long freshnessLifetimeMillis() {
+        CacheControl cacheControl = cacheControl();
+        if (cacheControl.maxAgeSeconds >= 0) {
+            return toMillis(cacheControl.maxAgeSeconds);
+        }
+        long date = dateMillis();
+        long expires = parseDate(first(headers, HeaderName.EXPIRES.getValue()));
+        if (expires >= 0) {
+            return Math.max(0, expires - date);
+        }
+        long lastModified = parseDate(first(headers, HeaderName.LAST_MODIFIED.getValue()));
+        if (lastModified >= 0 && lastModified < date) {
+            return Math.min((date - lastModified) / 10, MAX_HEURISTIC_FRESHNESS_MILLIS);
+        }
+        return 0;
+    }
+
+    /**
+     * 当前的年龄
+     *
+     * @param nowMillis 当前时间
+     * @return 毫秒数
+     */
+    long currentAgeMillis(long nowMillis) {
+        long apparentAge = Math.max(0, responseTimeMillis - dateMillis());
+        long ageValue = toMillis(parseSeconds(first(headers, HeaderName.AGE.getValue())));
+        long correctedInitialAge = Math.max(apparentAge, ageValue + (responseTimeMillis - requestTimeMillis));
+        return correctedInitialAge + Math.max(0, nowMillis - responseTimeMillis);
+    }
+
+    /**
+     * 判断请求的{@code Vary}头是否与缓存时一致
+     *
+     * @param request 请求
+     * @return 一致时返回{@code true}
+     */
+    boolean matchesVary(Request request) {
+        for (Map.Entry<String, List<String>> entry : varyHeaders.entrySet()) {
+            List<String> values = values(request.headers(), entry.getKey());
+            if (!entry.getValue().equals(values == null ? Collections.emptyList() : values)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String etag() {
+        return first(headers, HeaderName.ETAG.getValue());
+    }
+
+    String lastModified() {
+        return first(headers, HeaderName.LAST_MODIFIED.getValue());
+    }
+
+    /**
+     * 用304响应更新缓存项
+     *
+     * @param notModified        304响应
+     * @param requestTimeMillis  发出请求的时间
+     * @param responseTimeMillis 收到响应的时间
+     * @return 新的缓存项
+     */
+    CacheEntry revalidated(Response notModified, long requestTimeMillis, long responseTimeMillis) {
+        Map<String, List<String>> merged = new LinkedHashMap<>(headers);
+        for (Map.Entry<String, List<String>> entry : copyHeaders(notModified.headers()).entrySet()) {
+            if (!NOT_UPDATABLE_HEADERS.contains(entry.getKey())) {
+                removeIgnoreCase(merged, entry.getKey());
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new CacheEntry(key, statusCode, reason, protocolVersion, merged, varyHeaders, body,
+                requestTimeMillis, responseTimeMillis);
+    }
+
+    /**
+     * 转为响应，{@code Age}头为当前的年龄；HEAD请求只返回状态及响应头，不包含内容
+     *
+     * @param request   请求
+     * @param nowMillis 当前时间
+     * @return 响应
+     */
+    Response toResponse(Request request, long nowMillis) {
+        HttpHeaders httpHeaders = new HttpHeaders(headers);
+        removeIgnoreCase(httpHeaders, HeaderName.AGE.getValue());
+        httpHeaders.append(HeaderName.AGE, TimeUnit.MILLISECONDS.toSeconds(currentAgeMillis(nowMillis)));
+        return Response.builder()
+                .statusCode(statusCode)
+                .reason(reason)
+                .protocolVersion(protocolVersion)
+                .headers(httpHeaders)
+                .request(request)
+                .body(request.method() == HttpMethod.HEAD ? new byte[0] : body)
+                .build();
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(key);
+        out.writeInt(statusCode);
+        out.writeUTF(reason == null ? "" : reason);
+        out.writeUTF(protocolVersion == null ? "" : protocolVersion.name());
+        writeHeaders(out, headers);
+        writeHeaders(out, varyHeaders);
+        out.writeLong(requestTimeMillis);
+        out.writeLong(responseTimeMillis);
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    static CacheEntry readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported cache entry version: " + version);
+        }
+        String key = in.readUTF();
+        int statusCode = in.readInt();
+        String reason = in.readUTF();
+        String protocol = in.readUTF();
+        Map<String, List<String>> headers = readHeaders(in, new LinkedHashMap<>());
+        Map<String, List<String>> varyHeaders = readHeaders(in, new TreeMap<>());
+        long requestTimeMillis = in.readLong();
+        long responseTimeMillis = in.readLong();
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CacheEntry(key, statusCode, reason.isEmpty() ? null : reason,
+                protocol.isEmpty() ? null : ProtocolVersion.valueOf(protocol),
+                headers, varyHeaders, body, requestTimeMillis, responseTimeMillis);
+    }
+
+    private static void writeHeaders(DataOutput out, Map<String, List<String>> headers) throws IOException {
+        out.writeInt(headers.size());
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String value : entry.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    private static Map<String, List<String>> readHeaders(DataInput in, Map<String, List<String>> headers) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String name = in.readUTF();
+            int count = in.readInt();
+            List<String> values = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                values.add(in.readUTF());
+            }
+            headers.put(name, values);
+        }
+        return headers;
+    }
+
+    private long dateMillis() {
+        long date = parseDate(first(headers, HeaderName.DATE.getValue()));
+        return date >= 0 ? date : responseTimeMillis;
+    }
+
+    /**
+     * 复制响应头，去掉{@code HttpURLConnection}放在{@code null}键下的状态行
+     */
+    static Map<String, List<String>> copyHeaders(Map<String, List<String>> source) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        if (source != null) {
+            for (Map.Entry<String, List<String>> entry : source.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+                }
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * {@code Vary}中列出的头名称，包含{@code *}时返回{@code ["*"]}
+     */
+    static List<String> varyNames(Map<String, List<String>> headers) {
+        List<String> values = values(headers, HeaderName.VARY.getValue());
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (String value : values) {
+            for (String name : value.split(",")) {
+                name = name.trim();
+                if (name.equals("*")) {
+                    return Collections.singletonList("*");
+                }
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 忽略大小写获取头的所有值，各实现返回的头名称大小写不一致
+     */
+    static List<String> values(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    static String first(Map<String, List<String>> headers, String name) {
+        List<String> values = values(headers, name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static void removeIgnoreCase(Map<String, List<String>> headers, String name) {
+        headers.keySet().removeIf(key -> key != null && key.equalsIgnoreCase(name));
+    }
+
+    /**
+     * 解析HTTP日期
+     *
+     * @param value 日期字符串
+     * @return 毫秒数，为空或格式错误时返回-1
+     */
+    static long parseDate(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static long toMillis(long seconds) {
+        return seconds >= Long.MAX_VALUE / 1000 ? Long.MAX_VALUE : seconds * 1000;
+    }
+
+}
@@ -0,0 +1,474 @@
+package cn.tmkit.http.shf4j.cache;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.core.lang.Urls;
+import cn.tmkit.core.support.ConcurrentLruCache;
+import cn.tmkit.http.shf4j.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带HTTP缓存的{@linkplain Client}，可以包装任意实现
+ * <p>
+ * 作为私有缓存实现RFC 9111的常用部分：
+ * <ul>
+ *     <li>只缓存没有请求体的GET请求，带{@code Range}或条件头的请求直接透传</li>
+ *     <li>HEAD请求在同一URL的GET缓存新鲜时直接返回其状态及响应头，否则透传，HEAD的响应不写入缓存</li>
+ *     <li>遵循请求及响应的{@code Cache-Control}：{@code no-store}、{@code no-cache}、{@code max-age}、
+ *     {@code must-revalidate}，以及请求的{@code max-stale}、{@code min-fresh}</li>
+ *     <li>过期后使用{@code ETag}/{@code Last-Modified}发出条件请求，返回304时继续使用缓存的内容</li>
+ *     <li>按{@code Vary}比较请求头，每个URL只保留一个版本；{@code Vary: *}的响应不缓存</li>
+ *     <li>POST、PUT、PATCH、DELETE请求成功后删除同一URL的缓存</li>
+ * </ul>
+ * 内存中按近似LRU保留最多{@code maxEntries}个缓存项，只按个数限制，最多占用约{@code maxEntries * maxEntryBytes}字节；
+ * 超过{@code maxEntryBytes}的响应不缓存、照常流式返回；
+ * 可选的磁盘缓存在内存未命中时读取，写入与内存同步进行。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class CachingClient implements Client, Closeable {
+
+    /**
+     * 默认内存中的缓存项个数上限
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * 默认单个响应可以缓存的最大字节数，1MB
+     */
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+
+    /**
+     * 可以按启发式规则缓存的状态码，RFC 9110第15.1节
+     */
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = new HashSet<>(
+            Arrays.asList(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501));
+
+    private final Client delegate;
+
+    private final ConcurrentLruCache<String, CacheEntry> memory;
+
+    /**
+     * 磁盘缓存，未配置时为{@code null}
+     */
+    private final DiskCacheStore disk;
+
+    private final int maxEntryBytes;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder revalidationCount = new LongAdder();
+
+    private final LongAdder notModifiedCount = new LongAdder();
+
+    private final LongAdder diskHitCount = new LongAdder();
+
+    private final LongAdder storeCount = new LongAdder();
+
+    private final LongAdder invalidationCount = new LongAdder();
+
+    CachingClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.memory = new ConcurrentLruCache<>(builder.maxEntries);
+        this.disk = builder.diskDirectory == null ? null : new DiskCacheStore(builder.diskDirectory, builder.diskMaxBytes);
+        this.maxEntryBytes = builder.maxEntryBytes;
+    }
+
+    /**
+     * 执行HTTP请求，缓存新鲜时不访问网络
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     * @throws IoRuntimeException HTTP请求异常
+     */
+    @Override
+    public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
+        Exchange exchange = prepare(request);
+        if (exchange.cached != null) {
+            return exchange.cached;
+        }
+        Response response = delegate.execute(exchange.networkRequest, options);
+        return complete(exchange, response);
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        Exchange exchange;
+        try {
+            exchange = prepare(request);
+        } catch (RuntimeException e) {
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (exchange.cached != null) {
+            return CompletableFuture.completedFuture(exchange.cached);
+        }
+        return delegate.executeAsync(exchange.networkRequest, options).thenApply(response -> complete(exchange, response));
+    }
+
+    /**
+     * 统计快照
+     *
+     * @return {@linkplain HttpCacheStats}
+     */
+    public HttpCacheStats stats() {
+        return new HttpCacheStats(hitCount.sum(), missCount.sum(), revalidationCount.sum(), notModifiedCount.sum(),
+                diskHitCount.sum(), storeCount.sum(), invalidationCount.sum());
+    }
+
+    /**
+     * 清空内存及磁盘上的缓存
+     */
+    public void clear() {
+        memory.clear();
+        if (disk != null) {
+            disk.clear();
+        }
+    }
+
+    /**
+     * 关闭被包装的客户端
+     *
+     * @throws IOException 关闭异常
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+
+    /**
+     * 查找缓存，决定直接返回、发出条件请求还是普通请求
+     *
+     * @param request 原始请求
+     * @return 本次交换的状态
+     */
+    private Exchange prepare(Request request) {
+        Exchange exchange = new Exchange(request);
+        if (!isCacheableRequest(request)) {
+            return exchange;
+        }
+        exchange.key = key(request);
+        exchange.requestCacheControl = requestCacheControl(request);
+        if (exchange.requestCacheControl.noStore) {
+            missCount.increment();
+            return exchange;
+        }
+        long now = System.currentTimeMillis();
+        CacheEntry entry = lookup(exchange.key);
+        if (entry != null && !entry.matchesVary(request)) {
+            entry = null;
+        }
+        if (entry != null && !exchange.requestCacheControl.noCache && isFresh(entry, exchange.requestCacheControl, now)) {
+            hitCount.increment();
+            exchange.cached = entry.toResponse(request, now);
+            return exchange;
+        }
+        if (request.method() == HttpMethod.HEAD) {
+            // 没有内容可以缓存，也不用HEAD校验GET的缓存
+            missCount.increment();
+            exchange.key = null;
+            return exchange;
+        }
+        if (entry != null && (entry.etag() != null || entry.lastModified() != null)) {
+            Request.Builder builder = request.newBuilder();
+            if (entry.etag() != null) {
+                builder.replaceHeader(HeaderName.IF_NONE_MATCH.getValue(), entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                builder.replaceHeader(HeaderName.IF_MODIFIED_SINCE.getValue(), entry.lastModified());
+            }
+            exchange.networkRequest = builder.build();
+            exchange.entry = entry;
+            revalidationCount.increment();
+        } else {
+            missCount.increment();
+        }
+        exchange.requestTimeMillis = now;
+        return exchange;
+    }
+
+    /**
+     * 处理网络响应：304时使用缓存内容，可缓存时读取内容并写入缓存
+     *
+     * @param exchange 本次交换的状态
+     * @param response 网络响应
+     * @return 返回给调用方的响应
+     */
+    private Response complete(Exchange exchange, Response response) {
+        Request request = exchange.request;
+        if (exchange.key == null) {
+            invalidateIfUnsafe(request, response);
+            return response;
+        }
+        long responseTime = System.currentTimeMillis();
+        if (exchange.entry != null && response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            notModifiedCount.increment();
+            CacheEntry updated = exchange.entry.revalidated(response, exchange.requestTimeMillis, responseTime);
+            if (isStorable(exchange.requestCacheControl, updated.headers, updated.statusCode)) {
+                store(updated);
+            } else {
+                remove(exchange.key);
+            }
+            return updated.toResponse(request, responseTime);
+        }
+        if (!isStorable(exchange.requestCacheControl, response.headers(), response.statusCode())) {
+            if (exchange.entry != null) {
+                remove(exchange.key);
+            }
+            return response;
+        }
+        ResponseBody body = response.body();
+        Integer length = body == null ? Integer.valueOf(0) : body.length();
+        if (length != null && length > maxEntryBytes) {
+            return response;
+        }
+        InputStream in = body == null ? null : body.byteStream();
+        byte[] data;
+        try {
+            data = in == null ? new byte[0] : Utils.readAtMost(in, maxEntryBytes);
+        } catch (IOException e) {
+            response.close();
+            throw new IoRuntimeException(e);
+        }
+        if (data.length > maxEntryBytes) {
+            // 超过上限，已读取的内容放回流的开头
+            return Utils.unread(response, data, in);
+        }
+        response.close();
+        store(CacheEntry.of(exchange.key, request, response, data, exchange.requestTimeMillis, responseTime));
+        return response.toBuilder().body(data).build();
+    }
+
+    private CacheEntry lookup(String key) {
+        CacheEntry entry = memory.get(key);
+        if (entry == null && disk != null) {
+            entry = disk.get(key);
+            if (entry != null) {
+                diskHitCount.increment();
+                memory.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    private void store(CacheEntry entry) {
+        storeCount.increment();
+        memory.put(entry.key, entry);
+        if (disk != null) {
+            disk.put(entry);
+        }
+    }
+
+    private boolean remove(String key) {
+        boolean removed = memory.remove(key) != null;
+        if (disk != null) {
+            removed |= disk.remove(key);
+        }
+        return removed;
+    }
+
+    /**
+     * 非安全方法的请求成功后，同一URL的缓存已不可信
+     */
+    private void invalidateIfUnsafe(Request request, Response response) {
+        HttpMethod method = request.method();
+        boolean unsafe = method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH ||
+                method == HttpMethod.DELETE;
+        if (unsafe && response.statusCode() >= 200 && response.statusCode() < 400) {
+            if (remove(key(request))) {
+                invalidationCount.increment();
+            }
+        }
+    }
+
+    private boolean isFresh(CacheEntry entry, CacheControl requestCacheControl, long now) {
+        CacheControl responseCacheControl = entry.cacheControl();
+        if (responseCacheControl.noCache) {
+            return false;
+        }
+        long freshness = entry.freshnessLifetimeMillis();
+        if (requestCacheControl.maxAgeSeconds >= 0) {
+            freshness = Math.min(freshness, CacheEntry.toMillis(requestCacheControl.maxAgeSeconds));
+        }
+        long minFresh = requestCacheControl.minFreshSeconds >= 0 ? CacheEntry.toMillis(requestCacheControl.minFreshSeconds) : 0;
+        long maxStale = (!responseCacheControl.mustRevalidate && requestCacheControl.maxStaleSeconds >= 0) ?
+                CacheEntry.toMillis(requestCacheControl.maxStaleSeconds) : 0;
+        long age = entry.currentAgeMillis(now);
+        // 防止溢出
+        return age + minFresh < freshness + Math.min(maxStale, Long.MAX_VALUE - freshness);
+    }
+
+    /**
+     * 响应是否可以写入缓存：状态码可缓存、没有{@code no-store}及{@code Vary: *}，且有过期时间或校验器
+     */
+    private static boolean isStorable(CacheControl requestCacheControl, Map<String, List<String>> headers, int statusCode) {
+        if (!CACHEABLE_STATUS_CODES.contains(statusCode) || requestCacheControl.noStore) {
+            return false;
+        }
+        CacheControl responseCacheControl = CacheControl.parse(CacheEntry.values(headers, HeaderName.CACHE_CONTROL.getValue()));
+        if (responseCacheControl.noStore || CacheEntry.varyNames(headers).contains("*")) {
+            return false;
+        }
+        return responseCacheControl.maxAgeSeconds >= 0 || responseCacheControl.noCache ||
+                CacheEntry.first(headers, HeaderName.EXPIRES.getValue()) != null ||
+                CacheEntry.first(headers, HeaderName.ETAG.getValue()) != null ||
+                CacheEntry.first(headers, HeaderName.LAST_MODIFIED.getValue()) != null;
+    }
+
+    private static boolean isCacheableRequest(Request request) {
+        if ((request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) || request.body() != null) {
+            return false;
+        }
+        Map<String, List<String>> headers = request.headers();
+        return CacheEntry.values(headers, HeaderName.IF_NONE_MATCH.getValue()) == null &&
+                CacheEntry.values(headers, HeaderName.IF_MODIFIED_SINCE.getValue()) == null &&
+                CacheEntry.values(headers, "Range") == null;
+    }
+
+    private static CacheControl requestCacheControl(Request request) {
+        List<String> values = CacheEntry.values(request.headers(), HeaderName.CACHE_CONTROL.getValue());
+        if (values == null) {
+            // HTTP/1.0的Pragma: no-cache
+            String pragma = CacheEntry.first(request.headers(), HeaderName.PRAGMA.getValue());
+            if (pragma != null && pragma.toLowerCase(Locale.ROOT).contains("no-cache")) {
+                values = Collections.singletonList("no-cache");
+            }
+        }
+        return CacheControl.parse(values);
+    }
+
+    /**
+     * 缓存的键，为URL及编码后的查询参数
+     */
+    private static String key(Request request) {
+        StringBuilder buffer = new StringBuilder(request.url());
+        char separator = '?';
+        for (Map.Entry<String, List<String>> entry : request.queryParams().entrySet()) {
+            for (String value : entry.getValue()) {
+                buffer.append(separator).append(Urls.encode(entry.getKey())).append('=')
+                        .append(value == null ? "" : Urls.encode(value));
+                separator = '&';
+            }
+        }
+        return buffer.toString();
+    }
+
+    public static Builder builder(@NotNull Client delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * 一次请求的缓存状态
+     */
+    private static class Exchange {
+
+        final Request request;
+
+        /**
+         * 实际发出的请求，条件请求时带有{@code If-None-Match}等头
+         */
+        Request networkRequest;
+
+        /**
+         * 缓存的键，请求不经过缓存时为{@code null}
+         */
+        String key;
+
+        CacheControl requestCacheControl = CacheControl.EMPTY;
+
+        /**
+         * 需要校验的缓存项
+         */
+        CacheEntry entry;
+
+        /**
+         * 直接返回的缓存响应
+         */
+        Response cached;
+
+        long requestTimeMillis;
+
+        Exchange(Request request) {
+            this.request = request;
+            this.networkRequest = request;
+        }
+
+    }
+
+    public static class Builder {
+
+        private final Client delegate;
+
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+        private int maxEntryBytes = DEFAULT_MAX_ENTRY_BYTES;
+
+        private Path diskDirectory;
+
+        private long diskMaxBytes;
+
+        Builder(@NotNull Client delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate == null");
+        }
+
+        /**
+         * 设置内存中的缓存项个数上限，内存占用最多约为个数上限乘以{@linkplain #maxEntryBytes(int)}
+         *
+         * @param maxEntries 个数上限，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxEntries(int maxEntries) {
+            Asserts.isTrue(maxEntries > 0, "'maxEntries' must than 0");
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * 设置单个响应可以缓存的最大字节数
+         *
+         * @param maxEntryBytes 最大字节数，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxEntryBytes(int maxEntryBytes) {
+            Asserts.isTrue(maxEntryBytes > 0, "'maxEntryBytes' must than 0");
+            this.maxEntryBytes = maxEntryBytes;
+            return this;
+        }
+
+        /**
+         * 启用磁盘缓存
+         *
+         * @param directory 缓存目录，不存在时创建
+         * @param maxBytes  磁盘缓存的总大小上限，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder diskCache(@NotNull Path directory, long maxBytes) {
+            Asserts.isTrue(maxBytes > 0, "'maxBytes' must than 0");
+            this.diskDirectory = Objects.requireNonNull(directory, "directory == null");
+            this.diskMaxBytes = maxBytes;
+            return this;
+        }
+
+        public CachingClient build() {
+            return new CachingClient(this);
+        }
+
+    }
+
+}
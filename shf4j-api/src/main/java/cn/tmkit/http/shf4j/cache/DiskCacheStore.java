@@ -0,0 +1,205 @@
+package cn.tmkit.http.shf4j.cache;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘上的缓存，每个缓存项一个文件，文件名为键的SHA-256
+ * <p>
+ * 先写临时文件再原子替换，读取时更新文件的修改时间，总大小超过上限时按修改时间淘汰最早的文件。
+ * 读写失败时当作未命中处理，不影响请求。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+final class DiskCacheStore {
+
+    private static final String SUFFIX = ".cache";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    /**
+     * 文件名及其大小
+     */
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    DiskCacheStore(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    long size = Files.size(file);
+                    sizes.put(file.getFileName().toString(), size);
+                    totalBytes.addAndGet(size);
+                }
+            }
+        } catch (IOException e) {
+            throw new IoRuntimeException("Unable to open cache directory: " + directory, e);
+        }
+    }
+
+    /**
+     * 读取缓存项
+     *
+     * @param key 键
+     * @return 缓存项，不存在、读取失败或内容与键不符时返回{@code null}，后两种情况会删除文件
+     */
+    CacheEntry get(String key) {
+        String fileName = fileName(key);
+        if (!sizes.containsKey(fileName)) {
+            return null;
+        }
+        Path file = directory.resolve(fileName);
+        CacheEntry entry;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            entry = CacheEntry.readFrom(in);
+        } catch (IOException | RuntimeException e) {
+            remove(key);
+            return null;
+        }
+        if (!key.equals(entry.key)) {
+            // 文件内容与键不符，当作损坏的文件处理
+            remove(key);
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // 只影响淘汰顺序
+        }
+        return entry;
+    }
+
+    /**
+     * 写入缓存项，单个缓存项超过总上限时不写入
+     *
+     * @param entry 缓存项
+     */
+    void put(CacheEntry entry) {
+        String fileName = fileName(entry.key);
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(directory, fileName, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE))) {
+                entry.writeTo(out);
+            }
+            long size = Files.size(tmp);
+            if (size > maxBytes) {
+                return;
+            }
+            Files.move(tmp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            Long previous = sizes.put(fileName, size);
+            totalBytes.addAndGet(size - (previous == null ? 0 : previous));
+            evict();
+        } catch (IOException e) {
+            // 写入失败只是少了一个缓存项
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    boolean remove(String key) {
+        String fileName = fileName(key);
+        Long size = sizes.remove(fileName);
+        if (size != null) {
+            totalBytes.addAndGet(-size);
+        }
+        deleteQuietly(directory.resolve(fileName));
+        return size != null;
+    }
+
+    void clear() {
+        for (String fileName : new ArrayList<>(sizes.keySet())) {
+            Long size = sizes.remove(fileName);
+            if (size != null) {
+                totalBytes.addAndGet(-size);
+            }
+            deleteQuietly(directory.resolve(fileName));
+        }
+    }
+
+    long size() {
+        return totalBytes.get();
+    }
+
+    /**
+     * 按修改时间从早到晚删除文件，直到总大小不超过上限
+     */
+    private synchronized void evict() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        for (String fileName : sizes.keySet()) {
+            files.add(directory.resolve(fileName));
+        }
+        try (Stream<Path> sorted = files.stream().sorted(Comparator.comparingLong(DiskCacheStore::lastModified))) {
+            for (Path file : (Iterable<Path>) sorted::iterator) {
+                if (totalBytes.get() <= maxBytes) {
+                    break;
+                }
+                Long size = sizes.remove(file.getFileName().toString());
+                if (size != null) {
+                    totalBytes.addAndGet(-size);
+                }
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder buffer = new StringBuilder(digest.length * 2 + SUFFIX.length());
+            for (byte b : digest) {
+                buffer.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return buffer.append(SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
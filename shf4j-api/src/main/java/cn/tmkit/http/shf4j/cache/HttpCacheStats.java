@@ -0,0 +1,153 @@
+package cn.tmkit.http.shf4j.cache;
+
+/**
+ * HTTP缓存的统计快照，不可变
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public final class HttpCacheStats {
+
+    /**
+     * 直接使用缓存、未访问网络的次数
+     */
+    private final long hitCount;
+
+    /**
+     * 没有可用的缓存、发出普通请求的次数
+     */
+    private final long missCount;
+
+    /**
+     * 缓存过期后发出条件请求的次数
+     */
+    private final long revalidationCount;
+
+    /**
+     * 条件请求返回{@code 304 Not Modified}、继续使用缓存内容的次数
+     */
+    private final long notModifiedCount;
+
+    /**
+     * 内存中未找到、从磁盘读取到缓存项的次数
+     */
+    private final long diskHitCount;
+
+    /**
+     * 写入缓存的次数
+     */
+    private final long storeCount;
+
+    /**
+     * 因非安全方法的请求而删除缓存项的次数
+     */
+    private final long invalidationCount;
+
+    public HttpCacheStats(long hitCount, long missCount, long revalidationCount, long notModifiedCount,
+                          long diskHitCount, long storeCount, long invalidationCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.revalidationCount = revalidationCount;
+        this.notModifiedCount = notModifiedCount;
+        this.diskHitCount = diskHitCount;
+        this.storeCount = storeCount;
+        this.invalidationCount = invalidationCount;
+    }
+
+    /**
+     * 经过缓存的请求次数，即命中、未命中及条件请求次数之和
+     *
+     * @return 请求次数
+     */
+    public long requestCount() {
+        return hitCount + missCount + revalidationCount;
+    }
+
+    /**
+     * 直接使用缓存的次数
+     *
+     * @return 命中次数
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 命中率，条件请求返回304也计为命中，没有请求时返回{@code 1.0}
+     *
+     * @return 命中率
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return requestCount == 0 ? 1.0 : (double) (hitCount + notModifiedCount) / requestCount;
+    }
+
+    /**
+     * 未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * 条件请求次数
+     *
+     * @return 条件请求次数
+     */
+    public long revalidationCount() {
+        return revalidationCount;
+    }
+
+    /**
+     * 条件请求返回304的次数
+     *
+     * @return 304次数
+     */
+    public long notModifiedCount() {
+        return notModifiedCount;
+    }
+
+    /**
+     * 从磁盘读取到缓存项的次数
+     *
+     * @return 磁盘命中次数
+     */
+    public long diskHitCount() {
+        return diskHitCount;
+    }
+
+    /**
+     * 写入缓存的次数
+     *
+     * @return 写入次数
+     */
+    public long storeCount() {
+        return storeCount;
+    }
+
+    /**
+     * 删除缓存项的次数
+     *
+     * @return 删除次数
+     */
+    public long invalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpCacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", revalidationCount=" + revalidationCount +
+                ", notModifiedCount=" + notModifiedCount +
+                ", diskHitCount=" + diskHitCount +
+                ", storeCount=" + storeCount +
+                ", invalidationCount=" + invalidationCount +
+                '}';
+    }
+
+}
@@ -0,0 +1,464 @@
+package cn.tmkit.http.shf4j.coalesce;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.core.lang.Urls;
+import cn.tmkit.http.shf4j.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 合并同时发出的相同请求的{@linkplain Client}，可以包装任意实现
+ * <p>
+ * 只处理没有请求体的GET、HEAD请求。键相同的请求同时进行时，只有第一个请求访问网络，其他请求等待它完成，
+ * 读取到内存中的响应分发给每个等待者，每个等待者得到独立的{@linkplain Response}。
+ * 默认的键为请求方法、URL、查询参数及请求头，可以通过{@linkplain Builder#keyFunction(Function)}替换。
+ * 此外是否跟随重定向、代理、协议策略及解码的状态码会影响得到的响应，这些配置不同的请求不合并；
+ * 超时及重试配置不影响合并。
+ * </p>
+ * <p>
+ * 响应内容超过{@code maxSharedBytes}时不共享：第一个请求照常流式返回，等待者各自再发出请求。
+ * 网络请求失败时，所有等待者得到同样的异常。请求完成后立即移除，之后的请求重新访问网络，并不缓存结果。
+ * </p>
+ * <p>
+ * 等待者最多等待自身配置的连接超时与读取超时之和（未指定配置时按{@linkplain Options#DEFAULT_OPTIONS}），
+ * 超时或同步等待被中断时各自发出请求，不会因第一个请求而无限等待；任一超时为0时不限制等待时长。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class CoalescingClient implements Client, Closeable {
+
+    /**
+     * 默认可以共享的响应内容的最大字节数，1MB
+     */
+    public static final int DEFAULT_MAX_SHARED_BYTES = 1024 * 1024;
+
+    private final Client delegate;
+
+    private final Function<Request, String> keyFunction;
+
+    private final int maxSharedBytes;
+
+    /**
+     * 进行中的请求
+     */
+    private final ConcurrentMap<Key, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder networkCount = new LongAdder();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    CoalescingClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.keyFunction = builder.keyFunction;
+        this.maxSharedBytes = builder.maxSharedBytes;
+    }
+
+    /**
+     * 执行HTTP请求，相同的请求正在进行时等待其结果
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     * @throws IoRuntimeException HTTP请求异常
+     */
+    @Override
+    public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
+        Key key = key(request, options);
+        if (key == null) {
+            return delegate.execute(request, options);
+        }
+        CompletableFuture<SharedResponse> future = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing, request, options);
+        }
+        networkCount.increment();
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (RuntimeException | Error e) {
+            finish(key, future, null, e);
+            throw e;
+        }
+        return share(key, future, response);
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        Key key;
+        try {
+            key = key(request, options);
+        } catch (RuntimeException e) {
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (key == null) {
+            return delegate.executeAsync(request, options);
+        }
+        CompletableFuture<SharedResponse> future = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return awaitAsync(existing, request, options);
+        }
+        networkCount.increment();
+        CompletableFuture<Response> result;
+        try {
+            result = delegate.executeAsync(request, options);
+        } catch (RuntimeException | Error e) {
+            finish(key, future, null, e);
+            throw e;
+        }
+        return result.handle((response, e) -> {
+            if (e != null) {
+                finish(key, future, null, e);
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            return share(key, future, response);
+        });
+    }
+
+    /**
+     * 访问网络的请求次数
+     *
+     * @return 网络请求次数
+     */
+    public long networkCount() {
+        return networkCount.sum();
+    }
+
+    /**
+     * 等待并使用了其他请求的响应的次数
+     *
+     * @return 合并的请求次数
+     */
+    public long coalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 关闭被包装的客户端
+     *
+     * @throws IOException 关闭异常
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+
+    /**
+     * 同步等待进行中的请求，超时或被中断时自行发出请求
+     */
+    private Response await(CompletableFuture<SharedResponse> existing, Request request, Options options) {
+        long timeoutMillis = maxWaitMillis(options);
+        SharedResponse shared = null;
+        boolean interrupted = false;
+        try {
+            shared = timeoutMillis > 0 ? existing.get(timeoutMillis, TimeUnit.MILLISECONDS) : existing.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            // 自行发出请求
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (shared != null) {
+            return shared.toResponse(request);
+        }
+        networkCount.increment();
+        try {
+            return delegate.execute(request, options);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 异步等待进行中的请求，超时由{@linkplain AsyncExecutors#scheduler()}处理，超时后自行发出请求
+     */
+    private CompletableFuture<Response> awaitAsync(CompletableFuture<SharedResponse> existing, Request request,
+                                                   Options options) {
+        long timeoutMillis = maxWaitMillis(options);
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AtomicBoolean settled = new AtomicBoolean();
+        ScheduledFuture<?> timeout = timeoutMillis <= 0 ? null : AsyncExecutors.scheduler().schedule(() -> {
+            if (settled.compareAndSet(false, true)) {
+                executeAsync(request, options, result);
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        existing.whenComplete((shared, e) -> {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else if (shared == null) {
+                executeAsync(request, options, result);
+            } else {
+                result.complete(shared.toResponse(request));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 等待者自行发出请求，结果转给{@code result}
+     */
+    private void executeAsync(Request request, Options options, CompletableFuture<Response> result) {
+        networkCount.increment();
+        try {
+            delegate.executeAsync(request, options).whenComplete((response, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(response);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 等待者的最长等待时间，为0时不限制
+     */
+    private static long maxWaitMillis(Options options) {
+        Options opts = options == null ? Options.DEFAULT_OPTIONS : options;
+        if (opts.connectTimeoutMillis() <= 0 || opts.readTimeoutMillis() <= 0) {
+            return 0;
+        }
+        return (long) opts.connectTimeoutMillis() + opts.readTimeoutMillis();
+    }
+
+    /**
+     * 读取响应内容并分发给等待者，内容过大时只返回给发出请求的调用方
+     *
+     * @param key      键
+     * @param future   等待者持有的结果
+     * @param response 网络响应
+     * @return 返回给发出请求的调用方的响应
+     */
+    private Response share(Key key, CompletableFuture<SharedResponse> future, Response response) {
+        ResponseBody body = response.body();
+        Integer length = body == null ? Integer.valueOf(0) : body.length();
+        if (length != null && length > maxSharedBytes) {
+            finish(key, future, null, null);
+            return response;
+        }
+        InputStream in = body == null ? null : body.byteStream();
+        byte[] data;
+        try {
+            data = in == null ? new byte[0] : Utils.readAtMost(in, maxSharedBytes);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            IoRuntimeException ex = e instanceof IoRuntimeException ? (IoRuntimeException) e : new IoRuntimeException(e.getMessage(), e);
+            finish(key, future, null, ex);
+            throw ex;
+        }
+        if (data.length > maxSharedBytes) {
+            finish(key, future, null, null);
+            // 超过上限，已读取的内容放回流的开头
+            return Utils.unread(response, data, in);
+        }
+        response.close();
+        SharedResponse shared = new SharedResponse(response, data);
+        finish(key, future, shared, null);
+        return response.toBuilder().body(data).build();
+    }
+
+    /**
+     * 先移除再通知等待者，保证之后到达的请求不会拿到已完成的结果
+     */
+    private void finish(Key key, CompletableFuture<SharedResponse> future, SharedResponse shared, Throwable e) {
+        inFlight.remove(key, future);
+        if (e != null) {
+            future.completeExceptionally(e);
+        } else {
+            future.complete(shared);
+        }
+    }
+
+    private Key key(Request request, Options options) {
+        if ((request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) || request.body() != null) {
+            return null;
+        }
+        String requestKey = keyFunction.apply(request);
+        return requestKey == null ? null : new Key(requestKey, options);
+    }
+
+    private static RuntimeException unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new IoRuntimeException(cause.getMessage(), cause);
+    }
+
+    /**
+     * 默认的键：请求方法、URL、查询参数及按名称排序的请求头
+     *
+     * @param request 请求
+     * @return 键
+     */
+    public static String defaultKey(@NotNull Request request) {
+        StringBuilder buffer = new StringBuilder(request.method().name()).append(' ').append(request.url());
+        char separator = '?';
+        for (Map.Entry<String, List<String>> entry : request.queryParams().entrySet()) {
+            for (String value : entry.getValue()) {
+                buffer.append(separator).append(Urls.encode(entry.getKey())).append('=')
+                        .append(value == null ? "" : Urls.encode(value));
+                separator = '&';
+            }
+        }
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : request.headers().entrySet()) {
+            headers.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+        }
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            buffer.append('\n').append(entry.getKey().toLowerCase(Locale.ROOT)).append(':').append(entry.getValue());
+        }
+        return buffer.toString();
+    }
+
+    public static Builder builder(@NotNull Client delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * 合并请求的键：请求的键加上影响响应的配置项，未指定配置时与指定了配置的请求不合并
+     */
+    private static final class Key {
+
+        private final String requestKey;
+
+        /**
+         * 是否跟随重定向、代理、协议策略及解码的状态码，未指定配置时为{@code null}
+         */
+        private final List<Object> settings;
+
+        private final int hash;
+
+        Key(String requestKey, Options options) {
+            this.requestKey = requestKey;
+            this.settings = options == null ? null : Arrays.asList(options.followRedirects(), options.proxyInfo(),
+                    options.protocolPolicy(), options.decodeStatusCodes());
+            this.hash = 31 * requestKey.hashCode() + Objects.hashCode(settings);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return requestKey.equals(that.requestKey) && Objects.equals(settings, that.settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * 读取到内存中、可以分发给多个等待者的响应
+     */
+    private class SharedResponse {
+
+        final int statusCode;
+
+        final String reason;
+
+        final HttpHeaders headers;
+
+        final ProtocolVersion protocolVersion;
+
+        final byte[] data;
+
+        SharedResponse(Response response, byte[] data) {
+            this.statusCode = response.statusCode();
+            this.reason = response.reason();
+            this.headers = response.headers();
+            this.protocolVersion = response.protocolVersion();
+            this.data = data;
+        }
+
+        Response toResponse(Request request) {
+            coalescedCount.increment();
+            return Response.builder()
+                    .statusCode(statusCode)
+                    .reason(reason)
+                    .headers(headers == null ? null : new HttpHeaders(headers))
+                    .protocolVersion(protocolVersion)
+                    .request(request)
+                    .body(data)
+                    .build();
+        }
+
+    }
+
+    public static class Builder {
+
+        private final Client delegate;
+
+        private Function<Request, String> keyFunction = CoalescingClient::defaultKey;
+
+        private int maxSharedBytes = DEFAULT_MAX_SHARED_BYTES;
+
+        Builder(@NotNull Client delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate == null");
+        }
+
+        /**
+         * 设置合并请求的键，返回{@code null}的请求不合并
+         *
+         * @param keyFunction 根据请求计算键
+         * @return {@linkplain Builder}
+         */
+        public Builder keyFunction(@NotNull Function<Request, String> keyFunction) {
+            this.keyFunction = Objects.requireNonNull(keyFunction, "keyFunction == null");
+            return this;
+        }
+
+        /**
+         * 设置可以共享的响应内容的最大字节数
+         *
+         * @param maxSharedBytes 最大字节数，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxSharedBytes(int maxSharedBytes) {
+            Asserts.isTrue(maxSharedBytes > 0, "'maxSharedBytes' must than 0");
+            this.maxSharedBytes = maxSharedBytes;
+            return this;
+        }
+
+        public CoalescingClient build() {
+            return new CoalescingClient(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package cn.tmkit.http.shf4j.exceptions;
+
+/**
+ * Exception thrown when a request is rejected by a client-side concurrency limit before being sent.
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class RequestRejectedException extends HttpClientException {
+
+    private static final long serialVersionUID = 1990L;
+
+    /**
+     * The target host, as {@code host:port}
+     */
+    private final String host;
+
+    public RequestRejectedException(String host, String message) {
+        super(message);
+        this.host = host;
+    }
+
+    public RequestRejectedException(String host, String message, Throwable ex) {
+        super(message, ex);
+        this.host = host;
+    }
+
+    /**
+     * Return the target host, as {@code host:port}.
+     */
+    public String getHost() {
+        return host;
+    }
+
+}
@@ -0,0 +1,76 @@
+package cn.tmkit.http.shf4j.limit;
+
+/**
+ * 单个主机的并发限制快照，不可变
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public final class HostLimitStats {
+
+    /**
+     * 主机，格式为{@code host:port}
+     */
+    private final String host;
+
+    /**
+     * 当前的并发上限，自适应模式下会变化
+     */
+    private final int limit;
+
+    /**
+     * 正在执行的请求数
+     */
+    private final int inFlight;
+
+    /**
+     * 排队等待的请求数
+     */
+    private final int queued;
+
+    /**
+     * 累计被拒绝的请求数
+     */
+    private final long rejected;
+
+    public HostLimitStats(String host, int limit, int inFlight, int queued, long rejected) {
+        this.host = host;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.rejected = rejected;
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public int queued() {
+        return queued;
+    }
+
+    public long rejected() {
+        return rejected;
+    }
+
+    @Override
+    public String toString() {
+        return "HostLimitStats{" +
+                "host='" + host + '\'' +
+                ", limit=" + limit +
+                ", inFlight=" + inFlight +
+                ", queued=" + queued +
+                ", rejected=" + rejected +
+                '}';
+    }
+
+}
@@ -0,0 +1,215 @@
+package cn.tmkit.http.shf4j.limit;
+
+import cn.tmkit.http.shf4j.AsyncExecutors;
+import cn.tmkit.http.shf4j.exceptions.RequestRejectedException;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个主机的并发限制
+ * <p>
+ * 正在执行的请求数达到上限时排队等待，队列已满或等待超时则拒绝。新到达的请求不会越过排队中的请求，
+ * 排队本身不占用线程，同步请求只阻塞调用方线程。
+ * 自适应模式采用AIMD：请求失败或耗时超过阈值时上限乘以{@value #BACKOFF_RATIO}，
+ * 否则在并发数达到上限的一半以上时每次加{@code 1/limit}，即每轮约加1，上限在{@code [minLimit, maxLimit]}之间。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+final class HostLimiter {
+
+    /**
+     * 自适应模式下拥塞时上限的缩小比例
+     */
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final String host;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int maxQueueSize;
+
+    /**
+     * 耗时阈值，小于等于0时不自适应
+     */
+    private final long latencyThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 排队中的请求，先进先出，由{@linkplain #release}依次交给许可
+     */
+    private final Deque<CompletableFuture<Integer>> waiters = new ArrayDeque<>();
+
+    private double limit;
+
+    private int inFlight;
+
+    private long rejected;
+
+    HostLimiter(String host, int minLimit, int maxLimit, int maxQueueSize, long latencyThresholdNanos) {
+        this.host = host;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = maxQueueSize;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * 获取许可，必要时排队等待，等待期间阻塞当前线程
+     *
+     * @param maxWaitNanos 最长等待时间
+     * @return 获取后正在执行的请求数
+     * @throws RequestRejectedException 队列已满、等待超时或被中断
+     */
+    int acquire(long maxWaitNanos) {
+        CompletableFuture<Integer> waiter = acquireAsync(maxWaitNanos);
+        try {
+            return waiter.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            RequestRejectedException ex = new RequestRejectedException(host, "Interrupted while waiting for " + host, e);
+            if (!abandon(waiter, ex)) {
+                // 已经获取许可，让出给下一个等待者
+                waiter.thenAccept(permit -> giveBack());
+            }
+            throw ex;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RequestRejectedException) {
+                throw (RequestRejectedException) e.getCause();
+            }
+            throw new RequestRejectedException(host, "Failed waiting for " + host, e.getCause());
+        }
+    }
+
+    /**
+     * 获取许可，需要排队时不占用线程，由释放许可的线程按顺序完成，超时由{@linkplain AsyncExecutors#scheduler()}处理
+     *
+     * @param maxWaitNanos 最长等待时间
+     * @return 获取后正在执行的请求数，队列已满或等待超时时以{@linkplain RequestRejectedException}结束
+     */
+    CompletableFuture<Integer> acquireAsync(long maxWaitNanos) {
+        CompletableFuture<Integer> waiter = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                waiter.complete(++inFlight);
+                return waiter;
+            }
+            if (waiters.size() >= maxQueueSize || maxWaitNanos <= 0) {
+                rejected++;
+                waiter.completeExceptionally(new RequestRejectedException(host, "Too many concurrent requests to " +
+                        host + ", limit = " + (int) limit + ", queued = " + waiters.size()));
+                return waiter;
+            }
+            waiters.addLast(waiter);
+        } finally {
+            lock.unlock();
+        }
+        ScheduledFuture<?> timeout = AsyncExecutors.scheduler().schedule(() -> abandon(waiter,
+                new RequestRejectedException(host, "Timed out after " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) +
+                        "ms waiting for " + host)), maxWaitNanos, TimeUnit.NANOSECONDS);
+        waiter.whenComplete((permit, e) -> timeout.cancel(false));
+        return waiter;
+    }
+
+    /**
+     * 释放许可，自适应模式下根据本次请求调整上限
+     *
+     * @param inFlightAtStart 获取许可后正在执行的请求数
+     * @param latencyNanos    耗时
+     * @param dropped         是否失败或被服务端限流
+     */
+    void release(int inFlightAtStart, long latencyNanos, boolean dropped) {
+        List<Runnable> grants;
+        lock.lock();
+        try {
+            inFlight--;
+            if (latencyThresholdNanos > 0) {
+                if (dropped || latencyNanos > latencyThresholdNanos) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                } else if (inFlightAtStart * 2 >= limit) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            grants = grant();
+        } finally {
+            lock.unlock();
+        }
+        grants.forEach(Runnable::run);
+    }
+
+    /**
+     * 归还未使用的许可，不调整上限
+     */
+    private void giveBack() {
+        List<Runnable> grants;
+        lock.lock();
+        try {
+            inFlight--;
+            grants = grant();
+        } finally {
+            lock.unlock();
+        }
+        grants.forEach(Runnable::run);
+    }
+
+    /**
+     * 按顺序把空出的许可分给等待者，需持有锁；返回的任务在锁外执行，避免后续处理在锁内运行
+     */
+    private List<Runnable> grant() {
+        if (waiters.isEmpty() || inFlight >= (int) limit) {
+            return Collections.emptyList();
+        }
+        List<Runnable> grants = new ArrayList<>();
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            CompletableFuture<Integer> waiter = waiters.pollFirst();
+            int permit = ++inFlight;
+            grants.add(() -> {
+                if (!waiter.complete(permit)) {
+                    giveBack();
+                }
+            });
+        }
+        return grants;
+    }
+
+    /**
+     * 移除仍在排队的等待者并以异常结束
+     *
+     * @return 是否移除，已经获取许可时返回{@code false}
+     */
+    private boolean abandon(CompletableFuture<Integer> waiter, RequestRejectedException e) {
+        lock.lock();
+        try {
+            if (!waiters.remove(waiter)) {
+                return false;
+            }
+            rejected++;
+        } finally {
+            lock.unlock();
+        }
+        waiter.completeExceptionally(e);
+        return true;
+    }
+
+    HostLimitStats stats() {
+        lock.lock();
+        try {
+            return new HostLimitStats(host, (int) limit, inFlight, waiters.size(), rejected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
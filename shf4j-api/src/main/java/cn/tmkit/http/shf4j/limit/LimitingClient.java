@@ -0,0 +1,272 @@
+package cn.tmkit.http.shf4j.limit;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.http.shf4j.*;
+import cn.tmkit.http.shf4j.exceptions.RequestRejectedException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按主机限制并发请求数的{@linkplain Client}，可以包装任意实现
+ * <p>
+ * 每个主机（{@code host:port}）独立计数，正在执行的请求数达到上限时排队，队列已满或等待超过{@code maxQueueWait}时
+ * 抛出{@linkplain RequestRejectedException}，不会再占用下游的连接。许可在{@linkplain #execute(Request, Options)}
+ * 返回时释放，即只限制到收到响应头为止，响应内容的读取不计入。
+ * </p>
+ * <p>
+ * 开启自适应模式后，上限在{@code [minConcurrency, maxConcurrency]}之间按AIMD调整：请求异常、返回429/503/504
+ * 或耗时超过阈值时缩小，其余情况缓慢增加。
+ * 异步请求排队时不占用线程，由释放许可的请求按顺序发出，排队超时由{@linkplain AsyncExecutors#scheduler()}处理。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class LimitingClient implements Client, Closeable {
+
+    /**
+     * 默认每个主机的并发上限
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    /**
+     * 默认每个主机的排队上限
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 128;
+
+    /**
+     * 默认最长排队时间，单位毫秒
+     */
+    public static final long DEFAULT_MAX_QUEUE_WAIT_MILLIS = 1000;
+
+    private final Client delegate;
+
+    private final int minConcurrency;
+
+    private final int maxConcurrency;
+
+    private final int maxQueueSize;
+
+    private final long maxQueueWaitNanos;
+
+    private final long latencyThresholdNanos;
+
+    private final ConcurrentMap<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    LimitingClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.minConcurrency = builder.minConcurrency;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.maxQueueWaitNanos = builder.maxQueueWaitNanos;
+        this.latencyThresholdNanos = builder.latencyThresholdNanos;
+    }
+
+    /**
+     * 获取许可后执行HTTP请求
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     * @throws IoRuntimeException       HTTP请求异常
+     * @throws RequestRejectedException 超过并发限制
+     */
+    @Override
+    public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
+        HostLimiter limiter = limiter(request);
+        int permit = limiter.acquire(maxQueueWaitNanos);
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            Response response = delegate.execute(request, options);
+            dropped = isDropped(response);
+            return response;
+        } finally {
+            limiter.release(permit, System.nanoTime() - start, dropped);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        HostLimiter limiter;
+        try {
+            limiter = limiter(request);
+        } catch (RuntimeException e) {
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return limiter.acquireAsync(maxQueueWaitNanos).thenCompose(permit -> {
+            long start = System.nanoTime();
+            CompletableFuture<Response> future;
+            try {
+                future = delegate.executeAsync(request, options);
+            } catch (RuntimeException | Error e) {
+                limiter.release(permit, System.nanoTime() - start, true);
+                throw e;
+            }
+            return future.whenComplete((response, e) ->
+                    limiter.release(permit, System.nanoTime() - start, e != null || isDropped(response)));
+        });
+    }
+
+    /**
+     * 所有主机的并发统计
+     *
+     * @return 主机及其统计
+     */
+    public Map<String, HostLimitStats> stats() {
+        Map<String, HostLimitStats> stats = new LinkedHashMap<>();
+        limiters.forEach((host, limiter) -> stats.put(host, limiter.stats()));
+        return stats;
+    }
+
+    /**
+     * 指定主机的并发统计
+     *
+     * @param host 主机，格式为{@code host:port}
+     * @return 统计，还没有请求时返回{@code null}
+     */
+    public HostLimitStats stats(String host) {
+        HostLimiter limiter = limiters.get(host);
+        return limiter == null ? null : limiter.stats();
+    }
+
+    /**
+     * 关闭被包装的客户端
+     *
+     * @throws IOException 关闭异常
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+
+    private HostLimiter limiter(Request request) {
+        URL url;
+        try {
+            url = new URL(request.url());
+        } catch (MalformedURLException e) {
+            throw new IoRuntimeException("Invalid url: " + request.url(), e);
+        }
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return limiters.computeIfAbsent(url.getHost() + ":" + port,
+                host -> new HostLimiter(host, minConcurrency, maxConcurrency, maxQueueSize, latencyThresholdNanos));
+    }
+
+    /**
+     * 服务端限流或过载的响应视为拥塞
+     */
+    private static boolean isDropped(Response response) {
+        int statusCode = response.statusCode();
+        return statusCode == HttpStatus.TOO_MANY_REQUESTS.value() || statusCode == HttpStatus.SERVICE_UNAVAILABLE.value() ||
+                statusCode == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    public static Builder builder(@NotNull Client delegate) {
+        return new Builder(delegate);
+    }
+
+    public static class Builder {
+
+        private final Client delegate;
+
+        private int minConcurrency = 1;
+
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+        private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+        private long maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_QUEUE_WAIT_MILLIS);
+
+        private long latencyThresholdNanos;
+
+        Builder(@NotNull Client delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate == null");
+        }
+
+        /**
+         * 设置每个主机的并发上限，自适应模式下为初始值及最大值
+         *
+         * @param maxConcurrency 并发上限，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            Asserts.isTrue(maxConcurrency > 0, "'maxConcurrency' must than 0");
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * 设置每个主机的排队上限，为0时不排队
+         *
+         * @param maxQueueSize 排队上限，不能小于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxQueueSize(int maxQueueSize) {
+            Asserts.isTrue(maxQueueSize >= 0, "'maxQueueSize' must not be negative");
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * 设置最长排队时间
+         *
+         * @param timeout 时长，为0时不排队
+         * @param unit    时间单位
+         * @return {@linkplain Builder}
+         */
+        public Builder maxQueueWait(long timeout, @NotNull TimeUnit unit) {
+            Asserts.isTrue(timeout >= 0, "'timeout' must not be negative");
+            this.maxQueueWaitNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * 开启自适应模式，耗时超过阈值时视为拥塞
+         *
+         * @param latencyThreshold 耗时阈值，必须大于0
+         * @param unit             时间单位
+         * @return {@linkplain Builder}
+         */
+        public Builder adaptive(long latencyThreshold, @NotNull TimeUnit unit) {
+            Asserts.isTrue(latencyThreshold > 0, "'latencyThreshold' must than 0");
+            this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+            return this;
+        }
+
+        /**
+         * 设置自适应模式下并发上限的最小值
+         *
+         * @param minConcurrency 最小值，必须大于0
+         * @return {@linkplain Builder}
+         */
+        public Builder minConcurrency(int minConcurrency) {
+            Asserts.isTrue(minConcurrency > 0, "'minConcurrency' must than 0");
+            this.minConcurrency = minConcurrency;
+            return this;
+        }
+
+        public LimitingClient build() {
+            Asserts.isTrue(minConcurrency <= maxConcurrency, "'minConcurrency' must not be greater than 'maxConcurrency'");
+            return new LimitingClient(this);
+        }
+
+    }
+
+}
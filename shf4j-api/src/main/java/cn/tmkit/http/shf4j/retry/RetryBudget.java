@@ -0,0 +1,107 @@
+package cn.tmkit.http.shf4j.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 重试预算，令牌桶
+ * <p>
+ * 每个请求存入{@code ratio}个令牌，每次重试取出一个，桶内最多{@code maxTokens}个，初始为满。
+ * 因此任意时间段内重试次数不超过{@code ratio * 请求次数 + maxTokens}，下游故障时重试不会成倍放大流量。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public final class RetryBudget {
+
+    /**
+     * 令牌按千分之一计数
+     */
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+
+    private final long capacity;
+
+    private final AtomicLong balance;
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder retryCount = new LongAdder();
+
+    private final LongAdder exhaustedCount = new LongAdder();
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = maxTokens * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * 记录一个请求，存入令牌
+     */
+    public void onRequest() {
+        requestCount.increment();
+        if (deposit > 0) {
+            balance.getAndUpdate(b -> Math.min(capacity, b + deposit));
+        }
+    }
+
+    /**
+     * 尝试取出一个令牌
+     *
+     * @return 是否可以重试
+     */
+    public boolean tryRetry() {
+        long b;
+        do {
+            b = balance.get();
+            if (b < SCALE) {
+                exhaustedCount.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(b, b - SCALE));
+        retryCount.increment();
+        return true;
+    }
+
+    /**
+     * 请求次数，不含重试
+     *
+     * @return 请求次数
+     */
+    public long requestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * 重试次数
+     *
+     * @return 重试次数
+     */
+    public long retryCount() {
+        return retryCount.sum();
+    }
+
+    /**
+     * 因预算不足而放弃重试的次数
+     *
+     * @return 放弃次数
+     */
+    public long exhaustedCount() {
+        return exhaustedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{" +
+                "requestCount=" + requestCount() +
+                ", retryCount=" + retryCount() +
+                ", exhaustedCount=" + exhaustedCount() +
+                ", tokens=" + (double) balance.get() / SCALE +
+                '}';
+    }
+
+}
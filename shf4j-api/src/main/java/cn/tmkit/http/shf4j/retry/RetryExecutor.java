@@ -0,0 +1,185 @@
+package cn.tmkit.http.shf4j.retry;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.http.shf4j.AsyncExecutors;
+import cn.tmkit.http.shf4j.Options;
+import cn.tmkit.http.shf4j.Request;
+import cn.tmkit.http.shf4j.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 按{@linkplain RetryPolicy}执行请求，各实现的{@code Client}各持有一个，共用一份重试预算
+ * <p>
+ * 策略取自请求的{@linkplain Options#retryPolicy()}，请求未指定配置时使用客户端的默认配置。
+ * 需要重试的响应在等待前关闭；异步请求的等待由{@linkplain AsyncExecutors#scheduler()}调度，不占用调用方或实现的线程。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public final class RetryExecutor {
+
+    private final Options defaultOptions;
+
+    private final RetryBudget budget;
+
+    /**
+     * 构造
+     *
+     * @param defaultOptions 客户端的默认配置，可空，重试预算按其策略创建
+     */
+    public RetryExecutor(Options defaultOptions) {
+        this.defaultOptions = defaultOptions;
+        this.budget = policy(defaultOptions).newBudget();
+    }
+
+    /**
+     * 执行请求，失败时按策略重试
+     *
+     * @param request 请求
+     * @param options 请求的配置，可空
+     * @param attempt 发出一次请求
+     * @return 最后一次请求的响应
+     * @throws IoRuntimeException 最后一次请求的异常
+     */
+    public Response execute(@NotNull Request request, Options options, @NotNull Supplier<Response> attempt) {
+        budget.onRequest();
+        RetryPolicy policy = policy(options == null ? defaultOptions : options);
+        if (!policy.isRetryable(request)) {
+            return attempt.get();
+        }
+        for (int retry = 1; ; retry++) {
+            Response response;
+            long delay;
+            try {
+                response = attempt.get();
+            } catch (RuntimeException e) {
+                delay = delayMillis(policy, retry, null, e);
+                if (delay < 0) {
+                    throw e;
+                }
+                sleep(delay);
+                continue;
+            }
+            delay = delayMillis(policy, retry, response, null);
+            if (delay < 0) {
+                return response;
+            }
+            response.close();
+            sleep(delay);
+        }
+    }
+
+    /**
+     * 异步执行请求，失败时按策略重试
+     *
+     * @param request 请求
+     * @param options 请求的配置，可空
+     * @param attempt 发出一次请求
+     * @return 最后一次请求的结果
+     */
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options,
+                                                    @NotNull Supplier<CompletableFuture<Response>> attempt) {
+        budget.onRequest();
+        RetryPolicy policy = policy(options == null ? defaultOptions : options);
+        if (!policy.isRetryable(request)) {
+            return attempt.get();
+        }
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<Response>> current = new AtomicReference<>();
+        attemptAsync(policy, attempt, 1, result, current);
+        result.whenComplete((response, e) -> {
+            CompletableFuture<Response> future = current.get();
+            if (result.isCancelled() && future != null) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 重试预算
+     *
+     * @return {@linkplain RetryBudget}
+     */
+    public RetryBudget budget() {
+        return budget;
+    }
+
+    private void attemptAsync(RetryPolicy policy, Supplier<CompletableFuture<Response>> attempt, int retry,
+                              CompletableFuture<Response> result, AtomicReference<CompletableFuture<Response>> current) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<Response> future;
+        try {
+            future = attempt.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        current.set(future);
+        future.whenComplete((response, e) -> {
+            if (result.isDone()) {
+                // 已被取消
+                if (response != null) {
+                    response.close();
+                }
+                return;
+            }
+            Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+            long delay = delayMillis(policy, retry, response, cause);
+            if (delay < 0) {
+                if (cause != null) {
+                    result.completeExceptionally(cause);
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+            if (response != null) {
+                response.close();
+            }
+            try {
+                AsyncExecutors.scheduler().schedule(() -> attemptAsync(policy, attempt, retry + 1, result, current), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                result.completeExceptionally(cause != null ? cause : ex);
+            }
+        });
+    }
+
+    /**
+     * 计算第{@code retry}次重试前的等待时长，不重试时返回{@code -1}
+     */
+    private long delayMillis(RetryPolicy policy, int retry, Response response, Throwable e) {
+        if (retry > policy.maxRetries()) {
+            return -1;
+        }
+        long delay;
+        if (e != null) {
+            delay = policy.shouldRetry(e) ? policy.backoffMillis(retry) : -1;
+        } else {
+            delay = policy.shouldRetry(response.statusCode()) ? policy.delayMillis(retry, response) : -1;
+        }
+        return (delay >= 0 && budget.tryRetry()) ? delay : -1;
+    }
+
+    private static RetryPolicy policy(Options options) {
+        return options == null ? RetryPolicy.NONE : options.retryPolicy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IoRuntimeException("Interrupted while waiting to retry", e);
+        }
+    }
+
+}
@@ -0,0 +1,379 @@
+package cn.tmkit.http.shf4j.retry;
+
+import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.http.shf4j.HeaderName;
+import cn.tmkit.http.shf4j.HttpMethod;
+import cn.tmkit.http.shf4j.Request;
+import cn.tmkit.http.shf4j.RequestBody;
+import cn.tmkit.http.shf4j.Response;
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * 重试策略，各实现共用，不可变
+ * <p>
+ * 默认只重试幂等的请求方法（GET、HEAD、OPTIONS、PUT、DELETE、TRACE），且请求体可以重复发送；
+ * 响应状态码为408、429、502、503、504，或者发生了连接被重置等IO异常时重试。超时、中断及SSL异常不重试，
+ * 以免在下游已经过载时成倍放大请求。
+ * </p>
+ * <p>
+ * 第{@code n}次重试前等待{@code [0, min(maxBackoff, initialBackoff * multiplier^(n-1))]}之间的随机时长（full jitter）；
+ * 响应带有{@code Retry-After}时按其等待，超过{@code maxBackoff}则不再重试。
+ * 重试还受{@linkplain RetryBudget}限制，每个客户端一个，见{@linkplain #newBudget()}。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public final class RetryPolicy {
+
+    /**
+     * 默认的初始等待时长，单位毫秒
+     */
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 100;
+
+    /**
+     * 默认的最长等待时长，单位毫秒
+     */
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 10_000;
+
+    /**
+     * 默认的等待时长增长倍数
+     */
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+
+    /**
+     * 默认重试次数最多占请求次数的比例
+     */
+    public static final double DEFAULT_BUDGET_RATIO = 0.2;
+
+    /**
+     * 默认可以累积的重试次数
+     */
+    public static final int DEFAULT_BUDGET_MAX_TOKENS = 10;
+
+    /**
+     * 默认重试的请求方法，均为幂等的
+     */
+    public static final Set<HttpMethod> IDEMPOTENT_METHODS = Collections.unmodifiableSet(EnumSet.of(HttpMethod.GET,
+            HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE));
+
+    /**
+     * 默认重试的响应状态码：408、429、502、503、504
+     */
+    public static final IntPredicate DEFAULT_STATUS_PREDICATE = statusCode -> statusCode == 408 || statusCode == 429 ||
+            statusCode == 502 || statusCode == 503 || statusCode == 504;
+
+    /**
+     * 默认重试的异常：原因中有{@linkplain IOException}，且不是超时、中断或SSL异常
+     */
+    public static final Predicate<Throwable> DEFAULT_EXCEPTION_PREDICATE = RetryPolicy::isTransient;
+
+    /**
+     * 不重试
+     */
+    public static final RetryPolicy NONE = builder().maxRetries(0).build();
+
+    private final int maxRetries;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final double multiplier;
+
+    private final Set<HttpMethod> methods;
+
+    private final IntPredicate statusPredicate;
+
+    private final Predicate<Throwable> exceptionPredicate;
+
+    private final boolean honorRetryAfter;
+
+    private final double budgetRatio;
+
+    private final int budgetMaxTokens;
+
+    RetryPolicy(Builder builder) {
+        this.maxRetries = builder.maxRetries;
+        this.initialBackoffMillis = builder.initialBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.multiplier = builder.multiplier;
+        this.methods = Collections.unmodifiableSet(EnumSet.copyOf(builder.methods));
+        this.statusPredicate = builder.statusPredicate;
+        this.exceptionPredicate = builder.exceptionPredicate;
+        this.honorRetryAfter = builder.honorRetryAfter;
+        this.budgetRatio = builder.budgetRatio;
+        this.budgetMaxTokens = builder.budgetMaxTokens;
+    }
+
+    /**
+     * 使用默认配置、指定重试次数的策略
+     *
+     * @param maxRetries 最多重试次数
+     * @return {@linkplain RetryPolicy}
+     */
+    public static RetryPolicy ofMaxRetries(int maxRetries) {
+        return maxRetries == 0 ? NONE : builder().maxRetries(maxRetries).build();
+    }
+
+    public int maxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * 请求是否可以重试：请求方法允许重试，且请求体可以重复发送
+     *
+     * @param request 请求
+     * @return 是否可以重试
+     */
+    public boolean isRetryable(@NotNull Request request) {
+        if (maxRetries == 0 || !methods.contains(request.method())) {
+            return false;
+        }
+        RequestBody body = request.body();
+        return body == null || body.isRepeatable();
+    }
+
+    /**
+     * 响应状态码是否需要重试
+     *
+     * @param statusCode 状态码
+     * @return 是否需要重试
+     */
+    public boolean shouldRetry(int statusCode) {
+        return statusPredicate.test(statusCode);
+    }
+
+    /**
+     * 异常是否需要重试
+     *
+     * @param e 异常
+     * @return 是否需要重试
+     */
+    public boolean shouldRetry(@NotNull Throwable e) {
+        return exceptionPredicate.test(e);
+    }
+
+    /**
+     * 第{@code retry}次重试前的等待时长，带随机抖动
+     *
+     * @param retry 第几次重试，从1开始
+     * @return 等待时长，单位毫秒
+     */
+    public long backoffMillis(int retry) {
+        double backoff = initialBackoffMillis * Math.pow(multiplier, Math.max(0, retry - 1));
+        long cap = (long) Math.min(maxBackoffMillis, backoff);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * 根据响应计算第{@code retry}次重试前的等待时长，优先使用{@code Retry-After}
+     *
+     * @param retry    第几次重试，从1开始
+     * @param response 响应
+     * @return 等待时长，单位毫秒；{@code Retry-After}超过最长等待时长时返回{@code -1}，表示不再重试
+     */
+    public long delayMillis(int retry, @NotNull Response response) {
+        if (honorRetryAfter) {
+            long retryAfter = retryAfterMillis(response);
+            if (retryAfter >= 0) {
+                return retryAfter > maxBackoffMillis ? -1 : retryAfter;
+            }
+        }
+        return backoffMillis(retry);
+    }
+
+    /**
+     * 创建该策略对应的重试预算
+     *
+     * @return {@linkplain RetryBudget}
+     */
+    public RetryBudget newBudget() {
+        return new RetryBudget(budgetRatio, budgetMaxTokens);
+    }
+
+    /**
+     * 解析{@code Retry-After}，支持秒数及HTTP日期两种格式
+     *
+     * @param response 响应
+     * @return 等待时长，单位毫秒，没有或无法解析时返回{@code -1}
+     */
+    static long retryAfterMillis(Response response) {
+        String value = null;
+        if (response.headers() != null) {
+            for (Map.Entry<String, List<String>> entry : response.headers().entrySet()) {
+                if (HeaderName.RETRY_AFTER.matchesIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    value = entry.getValue().get(0);
+                    break;
+                }
+            }
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        value = value.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // 不是秒数，按HTTP日期解析
+        }
+        try {
+            long millis = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, millis - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException || cause instanceof SSLException) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxRetries = 2;
+
+        private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+
+        private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+
+        private double multiplier = DEFAULT_MULTIPLIER;
+
+        private Set<HttpMethod> methods = IDEMPOTENT_METHODS;
+
+        private IntPredicate statusPredicate = DEFAULT_STATUS_PREDICATE;
+
+        private Predicate<Throwable> exceptionPredicate = DEFAULT_EXCEPTION_PREDICATE;
+
+        private boolean honorRetryAfter = true;
+
+        private double budgetRatio = DEFAULT_BUDGET_RATIO;
+
+        private int budgetMaxTokens = DEFAULT_BUDGET_MAX_TOKENS;
+
+        Builder() {
+        }
+
+        /**
+         * 设置最多重试次数，0则不重试
+         *
+         * @param maxRetries 重试次数，必须不小于0
+         * @return {@linkplain Builder}
+         */
+        public Builder maxRetries(int maxRetries) {
+            Asserts.isTrue(maxRetries >= 0, "'maxRetries' must not be negative");
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * 设置等待时长：第一次重试的上限、最长等待时长及增长倍数
+         *
+         * @param initialBackoff 第一次重试的等待上限
+         * @param maxBackoff     最长等待时长，同时是{@code Retry-After}可以接受的上限
+         * @param unit           时间单位
+         * @param multiplier     增长倍数，必须不小于1
+         * @return {@linkplain Builder}
+         */
+        public Builder backoff(long initialBackoff, long maxBackoff, @NotNull TimeUnit unit, double multiplier) {
+            Asserts.isTrue(initialBackoff >= 0, "'initialBackoff' must not be negative");
+            Asserts.isTrue(maxBackoff >= initialBackoff, "'maxBackoff' must not be less than 'initialBackoff'");
+            Asserts.isTrue(multiplier >= 1, "'multiplier' must not be less than 1");
+            this.initialBackoffMillis = unit.toMillis(initialBackoff);
+            this.maxBackoffMillis = unit.toMillis(maxBackoff);
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * 设置可以重试的请求方法，非幂等的方法需要服务端自行保证重复请求的安全
+         *
+         * @param methods 请求方法
+         * @return {@linkplain Builder}
+         */
+        public Builder methods(@NotNull HttpMethod... methods) {
+            Asserts.isTrue(methods.length > 0, "'methods' must not be empty");
+            this.methods = EnumSet.copyOf(Arrays.asList(methods));
+            return this;
+        }
+
+        /**
+         * 设置需要重试的响应状态码
+         *
+         * @param statusPredicate 状态码判断
+         * @return {@linkplain Builder}
+         */
+        public Builder retryOnStatus(@NotNull IntPredicate statusPredicate) {
+            this.statusPredicate = Objects.requireNonNull(statusPredicate, "statusPredicate == null");
+            return this;
+        }
+
+        /**
+         * 设置需要重试的异常
+         *
+         * @param exceptionPredicate 异常判断
+         * @return {@linkplain Builder}
+         */
+        public Builder retryOnException(@NotNull Predicate<Throwable> exceptionPredicate) {
+            this.exceptionPredicate = Objects.requireNonNull(exceptionPredicate, "exceptionPredicate == null");
+            return this;
+        }
+
+        /**
+         * 设置是否按响应的{@code Retry-After}等待
+         *
+         * @param honorRetryAfter 是否使用{@code Retry-After}
+         * @return {@linkplain Builder}
+         */
+        public Builder honorRetryAfter(boolean honorRetryAfter) {
+            this.honorRetryAfter = honorRetryAfter;
+            return this;
+        }
+
+        /**
+         * 设置重试预算
+         *
+         * @param ratio     重试次数最多占请求次数的比例，在{@code [0, 1]}之间
+         * @param maxTokens 可以累积的重试次数，即短时间内最多的重试次数，必须不小于0
+         * @return {@linkplain Builder}
+         */
+        public Builder budget(double ratio, int maxTokens) {
+            Asserts.isTrue(ratio >= 0 && ratio <= 1, "'ratio' must between 0 and 1");
+            Asserts.isTrue(maxTokens >= 0, "'maxTokens' must not be negative");
+            this.budgetRatio = ratio;
+            this.budgetMaxTokens = maxTokens;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+
+    }
+
+}
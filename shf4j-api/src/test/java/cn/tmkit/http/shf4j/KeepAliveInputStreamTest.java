@@ -0,0 +1,225 @@
+package cn.tmkit.http.shf4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain KeepAliveInputStream}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class KeepAliveInputStreamTest {
+
+    private static final int MAX_DRAIN_BYTES = 100;
+
+    @Test
+    public void releaseAfterEof() throws IOException {
+        MockConnection connection = new MockConnection(10);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        TrackingInputStream body = new TrackingInputStream(10);
+        try (InputStream in = new KeepAliveInputStream(body, connection, stats, MAX_DRAIN_BYTES, true, 5)) {
+            assertEquals(10, in.read(new byte[32]));
+            assertEquals(-1, in.read());
+        }
+        assertFalse(connection.disconnected);
+        assertTrue(body.closed);
+        assertEquals(1, stats.released());
+        assertEquals(0, stats.abandoned());
+        assertEquals(0, stats.drainedBytes());
+    }
+
+    @Test
+    public void drainSmallRemainder() throws IOException {
+        MockConnection connection = new MockConnection(60);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        TrackingInputStream body = new TrackingInputStream(60);
+        try (InputStream in = new KeepAliveInputStream(body, connection, stats, MAX_DRAIN_BYTES, true, 5)) {
+            assertEquals(10, in.read(new byte[10]));
+        }
+        assertFalse(connection.disconnected);
+        assertTrue(body.closed);
+        assertEquals(60, body.position);
+        assertEquals(1, stats.released());
+        assertEquals(50, stats.drainedBytes());
+    }
+
+    @Test
+    public void disconnectLargeRemainder() throws IOException {
+        MockConnection connection = new MockConnection(1000);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        TrackingInputStream body = new TrackingInputStream(1000);
+        try (InputStream in = new KeepAliveInputStream(body, connection, stats, MAX_DRAIN_BYTES, true, 5)) {
+            assertEquals(10, in.read(new byte[10]));
+        }
+        // 长度已知且剩余超过上限时不读取
+        assertTrue(connection.disconnected);
+        assertEquals(10, body.position);
+        assertEquals(0, stats.released());
+        assertEquals(1, stats.abandoned());
+    }
+
+    @Test
+    public void disconnectUnknownLengthOverLimit() throws IOException {
+        MockConnection connection = new MockConnection(-1);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        TrackingInputStream body = new TrackingInputStream(1000);
+        new KeepAliveInputStream(body, connection, stats, MAX_DRAIN_BYTES, true, 5).close();
+        // 长度未知时最多读取到上限
+        assertTrue(connection.disconnected);
+        assertTrue(body.position < 1000);
+        assertEquals(1, stats.abandoned());
+        assertEquals(0, stats.drainedBytes());
+    }
+
+    @Test
+    public void drainUnknownLengthWithinLimit() throws IOException {
+        MockConnection connection = new MockConnection(-1);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        new KeepAliveInputStream(new TrackingInputStream(MAX_DRAIN_BYTES), connection, stats, MAX_DRAIN_BYTES, true, 5).close();
+        assertFalse(connection.disconnected);
+        assertEquals(1, stats.released());
+        assertEquals(MAX_DRAIN_BYTES, stats.drainedBytes());
+    }
+
+    @Test
+    public void disconnectNotReusable() throws IOException {
+        MockConnection connection = new MockConnection(10);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        TrackingInputStream body = new TrackingInputStream(10);
+        new KeepAliveInputStream(body, connection, stats, MAX_DRAIN_BYTES, false, 5).close();
+        assertTrue(connection.disconnected);
+        assertTrue(body.closed);
+        assertEquals(0, body.position);
+        assertEquals(1, stats.abandoned());
+    }
+
+    @Test
+    public void disconnectOnDrainFailure() throws IOException {
+        MockConnection connection = new MockConnection(-1);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        TrackingInputStream body = new TrackingInputStream(50);
+        body.failAt = 20;
+        new KeepAliveInputStream(body, connection, stats, MAX_DRAIN_BYTES, true, 5).close();
+        assertTrue(connection.disconnected);
+        assertTrue(body.closed);
+        assertEquals(1, stats.abandoned());
+        assertEquals(0, stats.released());
+    }
+
+    @Test
+    public void closeTwice() throws IOException {
+        MockConnection connection = new MockConnection(10);
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        InputStream in = new KeepAliveInputStream(new TrackingInputStream(10), connection, stats, MAX_DRAIN_BYTES, true, 5);
+        in.close();
+        in.close();
+        assertEquals(1, stats.released());
+        assertEquals(10, stats.drainedBytes());
+    }
+
+    @Test
+    public void reusedUpperBound() throws IOException {
+        HostConnectionStats stats = new HostConnectionStats("localhost:80");
+        stats.onRequest();
+        assertEquals(0, stats.reusedUpperBound());
+        // 空闲连接数不超过上限2
+        for (int i = 0; i < 3; i++) {
+            new KeepAliveInputStream(new TrackingInputStream(0), new MockConnection(0), stats, MAX_DRAIN_BYTES, true, 2).close();
+        }
+        for (int i = 0; i < 3; i++) {
+            stats.onRequest();
+        }
+        assertEquals(4, stats.requests());
+        assertEquals(2, stats.reusedUpperBound());
+    }
+
+    /**
+     * 只记录是否断开的连接
+     */
+    private static class MockConnection extends HttpURLConnection {
+
+        private final long contentLength;
+
+        private boolean disconnected;
+
+        MockConnection(long contentLength) throws IOException {
+            super(new URL("http://localhost/"));
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return contentLength;
+        }
+
+        @Override
+        public void disconnect() {
+            disconnected = true;
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+    }
+
+    /**
+     * 记录读取位置及是否关闭的响应体，可在指定位置抛出异常
+     */
+    private static class TrackingInputStream extends InputStream {
+
+        private final int length;
+
+        private int position;
+
+        private int failAt = -1;
+
+        private boolean closed;
+
+        TrackingInputStream(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position == failAt) {
+                throw new IOException("Connection reset");
+            }
+            if (position >= length) {
+                return -1;
+            }
+            int n = Math.min(len, length - position);
+            if (failAt > position) {
+                n = Math.min(n, failAt - position);
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+package cn.tmkit.http.shf4j.cache;
+
+import cn.tmkit.http.shf4j.HttpHeaders;
+import cn.tmkit.http.shf4j.ProtocolVersion;
+import cn.tmkit.http.shf4j.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain DiskCacheStore}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class DiskCacheStoreTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("disk-cache");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void putAndGet() {
+        DiskCacheStore store = new DiskCacheStore(directory, 1024 * 1024);
+        assertNull(store.get("GET http://localhost/a"));
+        CacheEntry entry = entry("GET http://localhost/a", "hello");
+        store.put(entry);
+        assertTrue(store.size() > 0);
+
+        CacheEntry cached = store.get("GET http://localhost/a");
+        assertNotNull(cached);
+        assertEquals(entry.key, cached.key);
+        assertEquals(200, cached.statusCode);
+        assertEquals("OK", cached.reason);
+        assertEquals(ProtocolVersion.HTTP_1_1, cached.protocolVersion);
+        assertEquals(entry.headers, cached.headers);
+        assertEquals(Arrays.asList("a=1", "b=2"), cached.headers.get("Set-Cookie"));
+        assertEquals(entry.varyHeaders, cached.varyHeaders);
+        assertEquals("\"v1\"", cached.etag());
+        assertEquals("Mon, 13 Mar 2023 08:00:00 GMT", cached.lastModified());
+        assertEquals(entry.requestTimeMillis, cached.requestTimeMillis);
+        assertEquals(entry.responseTimeMillis, cached.responseTimeMillis);
+        assertArrayEquals(entry.body, cached.body);
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put("Accept-Encoding", Collections.singletonList("gzip"));
+        Request request = Request.builder().url("http://localhost/a").headers(new HttpHeaders(headers)).build();
+        assertTrue(cached.matchesVary(request));
+        headers.put("Accept-Encoding", Collections.singletonList("br"));
+        request = Request.builder().url("http://localhost/a").headers(new HttpHeaders(headers)).build();
+        assertFalse(cached.matchesVary(request));
+
+        // 覆盖写入时总大小不重复计算
+        long size = store.size();
+        store.put(entry("GET http://localhost/a", "hello"));
+        assertEquals(size, store.size());
+        assertTrue(store.remove("GET http://localhost/a"));
+        assertEquals(0, store.size());
+        assertNull(store.get("GET http://localhost/a"));
+    }
+
+    @Test
+    public void keyMismatch() throws IOException {
+        DiskCacheStore store = new DiskCacheStore(directory, 1024 * 1024);
+        store.put(entry("GET http://localhost/b", "b"));
+        // 模拟文件名冲突：a的文件中保存的是b
+        Files.move(file("GET http://localhost/b"), file("GET http://localhost/a"));
+        store = new DiskCacheStore(directory, 1024 * 1024);
+        assertNull(store.get("GET http://localhost/a"));
+        assertFalse(Files.exists(file("GET http://localhost/a")));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void corruptFile() throws IOException {
+        DiskCacheStore store = new DiskCacheStore(directory, 1024 * 1024);
+        store.put(entry("GET http://localhost/a", "hello"));
+        Files.write(file("GET http://localhost/a"), "not a cache entry".getBytes(StandardCharsets.UTF_8));
+        assertNull(store.get("GET http://localhost/a"));
+        assertFalse(Files.exists(file("GET http://localhost/a")));
+        assertEquals(0, store.size());
+
+        // 截断的文件
+        store.put(entry("GET http://localhost/b", "hello"));
+        Path file = file("GET http://localhost/b");
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - 2));
+        assertNull(store.get("GET http://localhost/b"));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void evict() throws IOException {
+        DiskCacheStore probe = new DiskCacheStore(directory, 1024 * 1024);
+        probe.put(entry("GET http://localhost/a", "0123456789"));
+        long entrySize = probe.size();
+        probe.clear();
+
+        DiskCacheStore store = new DiskCacheStore(directory, entrySize * 5 / 2);
+        long now = System.currentTimeMillis();
+        store.put(entry("GET http://localhost/a", "0123456789"));
+        Files.setLastModifiedTime(file("GET http://localhost/a"), FileTime.fromMillis(now - 20_000));
+        store.put(entry("GET http://localhost/b", "0123456789"));
+        Files.setLastModifiedTime(file("GET http://localhost/b"), FileTime.fromMillis(now - 10_000));
+        assertEquals(entrySize * 2, store.size());
+
+        store.put(entry("GET http://localhost/c", "0123456789"));
+        assertEquals(entrySize * 2, store.size());
+        assertFalse(Files.exists(file("GET http://localhost/a")));
+        assertNull(store.get("GET http://localhost/a"));
+        assertNotNull(store.get("GET http://localhost/b"));
+        assertNotNull(store.get("GET http://localhost/c"));
+
+        // 单个缓存项超过上限时不写入
+        store.put(entry("GET http://localhost/d", new String(new char[(int) entrySize * 3]).replace('\0', 'x')));
+        assertNull(store.get("GET http://localhost/d"));
+        assertEquals(entrySize * 2, store.size());
+    }
+
+    @Test
+    public void reopen() {
+        DiskCacheStore store = new DiskCacheStore(directory, 1024 * 1024);
+        store.put(entry("GET http://localhost/a", "hello"));
+        store.put(entry("GET http://localhost/b", "world"));
+        long size = store.size();
+
+        DiskCacheStore reopened = new DiskCacheStore(directory, 1024 * 1024);
+        assertEquals(size, reopened.size());
+        assertArrayEquals("world".getBytes(StandardCharsets.UTF_8), reopened.get("GET http://localhost/b").body);
+        reopened.clear();
+        assertEquals(0, reopened.size());
+        assertEquals(0, new DiskCacheStore(directory, 1024 * 1024).size());
+    }
+
+    private Path file(String key) {
+        return directory.resolve(DiskCacheStore.fileName(key));
+    }
+
+    private static CacheEntry entry(String key, String body) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", Collections.singletonList("text/plain"));
+        headers.put("Cache-Control", Collections.singletonList("max-age=60"));
+        headers.put("ETag", Collections.singletonList("\"v1\""));
+        headers.put("Last-Modified", Collections.singletonList("Mon, 13 Mar 2023 08:00:00 GMT"));
+        headers.put("Vary", Collections.singletonList("Accept-Encoding"));
+        headers.put("Set-Cookie", Arrays.asList("a=1", "b=2"));
+        Map<String, List<String>> varyHeaders = new TreeMap<>();
+        varyHeaders.put("accept-encoding", Collections.singletonList("gzip"));
+        return new CacheEntry(key, 200, "OK", ProtocolVersion.HTTP_1_1, headers, varyHeaders,
+                body.getBytes(StandardCharsets.UTF_8), 1_678_694_400_000L, 1_678_694_400_050L);
+    }
+
+}
@@ -0,0 +1,84 @@
+package cn.tmkit.http.shf4j.coalesce;
+
+import cn.tmkit.http.shf4j.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain CoalescingClient}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class CoalescingClientTest {
+
+    @Test
+    public void coalesceSameOptions() throws Exception {
+        Options options = Options.DEFAULT_OPTIONS.newBuilder().followRedirects(false).build();
+        // 超时及重试不同的请求仍然合并
+        Options otherTimeout = options.newBuilder().readTimeout(5, TimeUnit.SECONDS).retryCount(2).build();
+        assertEquals(1, run(options, options, otherTimeout).networkCount());
+    }
+
+    @Test
+    public void separateDifferentOptions() throws Exception {
+        Options options = Options.DEFAULT_OPTIONS.newBuilder().followRedirects(false).build();
+        Options follow = options.newBuilder().followRedirects(true).build();
+        Options proxy = options.newBuilder().httpProxy("127.0.0.1", 8888).build();
+        Options h2c = options.newBuilder().protocolPolicy(ProtocolPolicy.H2C_PRIOR_KNOWLEDGE).build();
+        assertEquals(5, run(options, follow, proxy, h2c, null).networkCount());
+    }
+
+    /**
+     * 第一个请求阻塞到所有请求都已发出，之后各请求读取响应
+     */
+    private static CoalescingClient run(Options... options) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Client delegate = (request, opts) -> {
+            calls.incrementAndGet();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.builder().statusCode(200).request(request)
+                    .body("followRedirects=" + (opts == null ? null : opts.followRedirects()), StandardCharsets.UTF_8)
+                    .build();
+        };
+        CoalescingClient client = CoalescingClient.builder(delegate).build();
+        ExecutorService pool = Executors.newFixedThreadPool(options.length);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (Options opts : options) {
+                results.add(pool.submit(() -> {
+                    Request request = Request.builder().url("http://localhost/a").build();
+                    try (Response response = client.execute(request, opts)) {
+                        return response.body().string(StandardCharsets.UTF_8);
+                    }
+                }));
+                // 等待请求进入delegate或开始等待
+                Thread.sleep(50);
+            }
+            release.countDown();
+            for (int i = 0; i < options.length; i++) {
+                Options opts = options[i];
+                assertEquals("followRedirects=" + (opts == null ? null : opts.followRedirects()),
+                        results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(calls.get(), client.networkCount());
+        return client;
+    }
+
+}
@@ -0,0 +1,164 @@
+package cn.tmkit.http.shf4j.retry;
+
+import cn.tmkit.http.shf4j.HttpHeaders;
+import cn.tmkit.http.shf4j.Options;
+import cn.tmkit.http.shf4j.Request;
+import cn.tmkit.http.shf4j.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain RetryPolicy} and {@linkplain RetryBudget}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class RetryPolicyTest {
+
+    @Test
+    public void budgetExhaustAndRefill() {
+        RetryBudget budget = RetryPolicy.builder().budget(0.1, 2).build().newBudget();
+        // 初始为满
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+        assertEquals(1, budget.exhaustedCount());
+
+        // 每10个请求存入一个令牌
+        for (int i = 0; i < 9; i++) {
+            budget.onRequest();
+        }
+        assertFalse(budget.tryRetry());
+        budget.onRequest();
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+
+        // 最多累积maxTokens个
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+        assertEquals(1010, budget.requestCount());
+        assertEquals(5, budget.retryCount());
+        assertEquals(4, budget.exhaustedCount());
+    }
+
+    @Test
+    public void budgetBoundsRetries() {
+        RetryBudget budget = RetryPolicy.builder().budget(0.2, 10).build().newBudget();
+        // 所有请求都失败且每次都尝试重试
+        for (int i = 0; i < 10_000; i++) {
+            budget.onRequest();
+            while (budget.tryRetry()) {
+                if (budget.retryCount() > 0.2 * budget.requestCount() + 10) {
+                    fail("retries exceed budget: " + budget);
+                }
+            }
+        }
+        // 第一个请求时桶已满，存入的令牌被丢弃：10 + 0.2 * 9999
+        assertEquals(2009, budget.retryCount());
+
+        RetryBudget noRatio = RetryPolicy.builder().budget(0, 3).build().newBudget();
+        for (int i = 0; i < 100; i++) {
+            noRatio.onRequest();
+            noRatio.tryRetry();
+        }
+        assertEquals(3, noRatio.retryCount());
+    }
+
+    @Test
+    public void backoffWithinCap() {
+        RetryPolicy policy = RetryPolicy.builder().backoff(100, 1000, TimeUnit.MILLISECONDS, 2).build();
+        for (int retry = 1; retry <= 10; retry++) {
+            long cap = Math.min(1000, 100L << (retry - 1));
+            long max = 0;
+            for (int i = 0; i < 2000; i++) {
+                long backoff = policy.backoffMillis(retry);
+                assertTrue(backoff >= 0 && backoff <= cap, "retry=" + retry + ", backoff=" + backoff);
+                max = Math.max(max, backoff);
+            }
+            // full jitter应覆盖大部分区间
+            assertTrue(max > cap / 2, "retry=" + retry + ", max=" + max);
+        }
+        RetryPolicy zero = RetryPolicy.builder().backoff(0, 0, TimeUnit.MILLISECONDS, 1).build();
+        assertEquals(0, zero.backoffMillis(3));
+    }
+
+    @Test
+    public void retryAfterSeconds() {
+        RetryPolicy policy = RetryPolicy.builder().backoff(100, 10_000, TimeUnit.MILLISECONDS, 2).build();
+        assertEquals(2000, policy.delayMillis(1, response("2")));
+        assertEquals(0, policy.delayMillis(1, response("0")));
+        assertEquals(0, policy.delayMillis(1, response("-5")));
+        assertEquals(10_000, policy.delayMillis(1, response(" 10 ")));
+        // 超过最长等待时长时不再重试
+        assertEquals(-1, policy.delayMillis(1, response("11")));
+    }
+
+    @Test
+    public void retryAfterHttpDate() {
+        RetryPolicy policy = RetryPolicy.builder().backoff(100, 10_000, TimeUnit.MILLISECONDS, 2).build();
+        long delay = policy.delayMillis(1, response(httpDate(System.currentTimeMillis() + 5000)));
+        // HTTP日期只精确到秒
+        assertTrue(delay > 3000 && delay <= 5000, "delay=" + delay);
+        assertEquals(0, policy.delayMillis(1, response(httpDate(System.currentTimeMillis() - 60_000))));
+        assertEquals(-1, policy.delayMillis(1, response(httpDate(System.currentTimeMillis() + 60_000))));
+    }
+
+    @Test
+    public void retryAfterMalformed() {
+        RetryPolicy policy = RetryPolicy.builder().backoff(100, 10_000, TimeUnit.MILLISECONDS, 2).build();
+        for (String value : new String[]{"soon", "", "1.5", "Mon, 32 Foo 2023 00:00:00 GMT"}) {
+            // 无法解析时使用退避时长
+            long delay = policy.delayMillis(2, response(value));
+            assertTrue(delay >= 0 && delay <= 200, value + ": " + delay);
+        }
+        long delay = policy.delayMillis(1, Response.builder().statusCode(503).request(request()).build());
+        assertTrue(delay >= 0 && delay <= 100);
+
+        RetryPolicy ignoreRetryAfter = RetryPolicy.builder().backoff(100, 10_000, TimeUnit.MILLISECONDS, 2)
+                .honorRetryAfter(false).build();
+        delay = ignoreRetryAfter.delayMillis(1, response("60"));
+        assertTrue(delay >= 0 && delay <= 100);
+    }
+
+    @Test
+    public void optionsResolvesPolicyOnce() {
+        Options options = Options.DEFAULT_OPTIONS.newBuilder().retryCount(3).build();
+        RetryPolicy policy = options.retryPolicy();
+        assertEquals(3, policy.maxRetries());
+        assertSame(policy, options.retryPolicy());
+        assertSame(RetryPolicy.NONE, Options.DEFAULT_OPTIONS.newBuilder().retryCount(0).build().retryPolicy());
+
+        RetryPolicy explicit = RetryPolicy.ofMaxRetries(1);
+        Options withPolicy = options.newBuilder().retryPolicy(explicit).build();
+        assertSame(explicit, withPolicy.retryPolicy());
+        // 清除显式策略后重新按重试次数确定
+        assertEquals(5, withPolicy.newBuilder().retryPolicy(null).retryCount(5).build().retryPolicy().maxRetries());
+    }
+
+    private static Request request() {
+        return Request.builder().url("http://localhost/").build();
+    }
+
+    private static Response response(String retryAfter) {
+        Map<String, String> headers = Collections.singletonMap("Retry-After", retryAfter);
+        return Response.builder().statusCode(503).headers(new HttpHeaders(headers)).request(request()).build();
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC));
+    }
+
+}
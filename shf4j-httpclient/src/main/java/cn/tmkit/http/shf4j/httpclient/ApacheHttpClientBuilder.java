@@ -1,11 +1,33 @@
 package cn.tmkit.http.shf4j.httpclient;
 
+import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.core.lang.Objects;
+import cn.tmkit.core.lang.Strings;
 import cn.tmkit.http.shf4j.Client;
 import cn.tmkit.http.shf4j.ClientBuilder;
 import cn.tmkit.http.shf4j.Options;
+import cn.tmkit.http.shf4j.ProtocolPolicy;
+import cn.tmkit.http.shf4j.ProxyInfo;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * HttpClient构造
+ * <p>
+ * 构建的{@linkplain HttpComponentsHttpClient}持有一个长期复用的{@linkplain PoolingHttpClientConnectionManager}，
+ * 连接池的大小、空闲连接的回收以及Keep-Alive时长均可配置，请求级别的超时、跳转等配置通过{@code RequestConfig}生效。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
@@ -13,9 +35,189 @@ import cn.tmkit.http.shf4j.Options;
  */
 public class ApacheHttpClientBuilder extends ClientBuilder {
 
+    /**
+     * 连接池最大连接数
+     */
+    private int maxTotal = 200;
+
+    /**
+     * 每个路由（目标主机）的最大连接数
+     */
+    private int maxPerRoute = 50;
+
+    /**
+     * 空闲超过该时长的连接会被后台线程关闭，单位毫秒，不大于0表示不回收
+     */
+    private long maxIdleTimeMillis = 60_000;
+
+    /**
+     * 服务端未返回Keep-Alive时连接保持的时长，单位毫秒，不大于0表示一直保持
+     */
+    private long keepAliveMillis = 30_000;
+
+    /**
+     * 连接空闲超过该时长后，再次使用前校验其是否可用，单位毫秒
+     */
+    private int validateAfterInactivityMillis = 2_000;
+
+    /**
+     * 设置连接池最大连接数，默认200
+     *
+     * @param maxTotal 最大连接数
+     * @return {@linkplain ApacheHttpClientBuilder}
+     */
+    public ApacheHttpClientBuilder maxTotal(int maxTotal) {
+        Asserts.isTrue(maxTotal > 0, "'maxTotal' must than 0");
+        this.maxTotal = maxTotal;
+        return this;
+    }
+
+    /**
+     * 设置每个路由（目标主机）的最大连接数，默认50
+     *
+     * @param maxPerRoute 每个路由的最大连接数
+     * @return {@linkplain ApacheHttpClientBuilder}
+     */
+    public ApacheHttpClientBuilder maxPerRoute(int maxPerRoute) {
+        Asserts.isTrue(maxPerRoute > 0, "'maxPerRoute' must than 0");
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    /**
+     * 设置空闲连接的回收时长，默认60s，不大于0表示不回收
+     *
+     * @param maxIdleTime 空闲时长
+     * @param timeUnit    时间单位
+     * @return {@linkplain ApacheHttpClientBuilder}
+     */
+    public ApacheHttpClientBuilder maxIdleTime(long maxIdleTime, TimeUnit timeUnit) {
+        this.maxIdleTimeMillis = timeUnit.toMillis(maxIdleTime);
+        return this;
+    }
+
+    /**
+     * 设置服务端未返回Keep-Alive时连接保持的时长，默认30s，不大于0表示一直保持
+     *
+     * @param keepAlive 保持时长
+     * @param timeUnit  时间单位
+     * @return {@linkplain ApacheHttpClientBuilder}
+     */
+    public ApacheHttpClientBuilder keepAlive(long keepAlive, TimeUnit timeUnit) {
+        this.keepAliveMillis = timeUnit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * 设置连接空闲多久后再次使用前需要校验，默认2s
+     *
+     * @param validateAfterInactivityMillis 空闲时长，单位毫秒
+     * @return {@linkplain ApacheHttpClientBuilder}
+     */
+    public ApacheHttpClientBuilder validateAfterInactivityMillis(int validateAfterInactivityMillis) {
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+        return this;
+    }
+
     @Override
     public Client build(Options options) {
-        return new HttpComponentsHttpClient(options);
+        Options opts = resolveOptions(options);
+        return new HttpComponentsHttpClient(buildHttpClient(opts), opts, (ApacheHttpClientBuilder) clone());
+    }
+
+    /**
+     * 构建带连接池的{@linkplain CloseableHttpClient}，{@code options}作为默认的请求配置
+     *
+     * @param options 默认的配置项
+     * @return {@linkplain CloseableHttpClient}
+     */
+    public CloseableHttpClient buildHttpClient(Options options) {
+        Options opts = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMillis))
+                .setDefaultRequestConfig(HttpComponentsHttpClient.toRequestConfig(null, opts))
+                // 重试由HttpComponentsHttpClient按RetryPolicy执行
+                .disableAutomaticRetries();
+        if (maxIdleTimeMillis > 0) {
+            builder.evictExpiredConnections()
+                    .evictIdleConnections(maxIdleTimeMillis, TimeUnit.MILLISECONDS);
+        }
+        CredentialsProvider credentialsProvider = credentialsProvider(opts.proxyInfo());
+        if (credentialsProvider != null) {
+            builder.setDefaultCredentialsProvider(credentialsProvider);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 构建异步执行使用的{@linkplain CloseableHttpAsyncClient}，连接池大小及Keep-Alive与同步客户端一致，返回前已启动
+     * <p>需要引入{@code httpasyncclient}</p>
+     *
+     * @param options 默认的配置项
+     * @return {@linkplain CloseableHttpAsyncClient}
+     */
+    public CloseableHttpAsyncClient buildHttpAsyncClient(Options options) {
+        Options opts = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
+        HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMillis))
+                .setDefaultRequestConfig(HttpComponentsHttpClient.toRequestConfig(null, opts));
+        CredentialsProvider credentialsProvider = credentialsProvider(opts.proxyInfo());
+        if (credentialsProvider != null) {
+            builder.setDefaultCredentialsProvider(credentialsProvider);
+        }
+        CloseableHttpAsyncClient client = builder.build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * 构建HTTP/2使用的{@code httpclient5}异步客户端，连接池大小与同步客户端一致，返回前已启动
+     * <p>需要引入{@code httpclient5}，仅支持HTTP代理</p>
+     *
+     * @param options        默认的配置项
+     * @param protocolPolicy 协议策略，{@linkplain ProtocolPolicy#H2C_PRIOR_KNOWLEDGE}时明文连接直接使用HTTP/2
+     * @return {@code org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient}
+     */
+    public org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient buildHttp2AsyncClient(Options options, ProtocolPolicy protocolPolicy) {
+        // 构建逻辑放在单独的类中，未引入httpclient5时不影响本类的加载
+        return Http2AsyncClient.createHttpAsyncClient(Objects.getIfNull(options, Options.DEFAULT_OPTIONS), protocolPolicy,
+                maxTotal, maxPerRoute, maxIdleTimeMillis, validateAfterInactivityMillis);
+    }
+
+    /**
+     * 代理的认证信息
+     *
+     * @param proxyInfo 代理信息
+     * @return {@linkplain CredentialsProvider}，代理无需认证时返回{@code null}
+     */
+    static CredentialsProvider credentialsProvider(ProxyInfo proxyInfo) {
+        if (proxyInfo != null && Strings.isAllNotBlank(proxyInfo.username(), proxyInfo.password())) {
+            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(proxyInfo.username(), proxyInfo.password()));
+            return credentialsProvider;
+        }
+        return null;
+    }
+
+    /**
+     * 优先使用服务端返回的Keep-Alive时长，未返回时使用默认值
+     *
+     * @param defaultKeepAliveMillis 默认的保持时长
+     * @return {@linkplain ConnectionKeepAliveStrategy}
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveMillis) {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return (duration > 0 || defaultKeepAliveMillis <= 0) ? duration : defaultKeepAliveMillis;
+        };
     }
 
 }
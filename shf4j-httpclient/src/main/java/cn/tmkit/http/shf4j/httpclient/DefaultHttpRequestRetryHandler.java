@@ -15,13 +15,23 @@ import java.net.UnknownHostException;
 
 /**
  * 重试机制
+ * <p>
+ * 只按次数重试，不等待也不受重试预算限制，{@linkplain HttpComponentsHttpClient}已不再使用，
+ * 请通过{@linkplain cn.tmkit.http.shf4j.Options.Builder#retryPolicy(cn.tmkit.http.shf4j.retry.RetryPolicy)}配置重试。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
  * @date 2023-03-02
  */
+@Deprecated
 public class DefaultHttpRequestRetryHandler implements HttpRequestRetryHandler {
 
+    /**
+     * 请求级别的重试次数在{@linkplain HttpContext}中的属性名，优先于构造时的重试次数
+     */
+    public static final String RETRY_COUNT_ATTRIBUTE = DefaultHttpRequestRetryHandler.class.getName() + ".retryCount";
+
     private final int retryCount;
 
     public DefaultHttpRequestRetryHandler(int retryCount) {
@@ -31,7 +41,9 @@ public class DefaultHttpRequestRetryHandler implements HttpRequestRetryHandler {
     @Override
     public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
         // 如果已经重试了n次，就放弃
-        if (executionCount >= retryCount) {
+        Object attribute = context.getAttribute(RETRY_COUNT_ATTRIBUTE);
+        int maxRetryCount = (attribute instanceof Integer) ? (Integer) attribute : retryCount;
+        if (executionCount > maxRetryCount) {
             return false;
         }
         // 如果服务器丢掉了连接，那么就重试
@@ -0,0 +1,293 @@
+package cn.tmkit.http.shf4j.httpclient;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.lang.Strings;
+import cn.tmkit.http.shf4j.HeaderName;
+import cn.tmkit.http.shf4j.HttpHeaders;
+import cn.tmkit.http.shf4j.MultipartBody;
+import cn.tmkit.http.shf4j.Options;
+import cn.tmkit.http.shf4j.ProtocolPolicy;
+import cn.tmkit.http.shf4j.ProtocolVersion;
+import cn.tmkit.http.shf4j.ProxyInfo;
+import cn.tmkit.http.shf4j.Request;
+import cn.tmkit.http.shf4j.RequestBody;
+import cn.tmkit.http.shf4j.Response;
+import cn.tmkit.http.shf4j.Utils;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.net.URIBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于{@code httpclient5}的HTTP/2客户端，同一主机的请求在一个连接上多路复用
+ * <p>
+ * 协议策略为{@linkplain cn.tmkit.http.shf4j.ProtocolPolicy#HTTP_2}或
+ * {@linkplain cn.tmkit.http.shf4j.ProtocolPolicy#H2C_PRIOR_KNOWLEDGE}时由{@linkplain HttpComponentsHttpClient}使用，
+ * 请求体及响应体均读入内存后处理，连接超时及代理以构建时的配置为准。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+class Http2AsyncClient implements Closeable {
+
+    /**
+     * HTTP/2禁止携带的连接级请求头，由客户端自行维护的请求头
+     */
+    private static final Set<String> EXCLUDED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "host", "content-length"));
+
+    private final CloseableHttpAsyncClient delegate;
+
+    Http2AsyncClient(@NotNull CloseableHttpAsyncClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 构建并启动{@code httpclient5}的异步客户端
+     *
+     * @param options                       默认的配置项
+     * @param protocolPolicy                协议策略，{@linkplain ProtocolPolicy#H2C_PRIOR_KNOWLEDGE}时明文连接直接使用HTTP/2
+     * @param maxTotal                      连接池最大连接数
+     * @param maxPerRoute                   每个路由的最大连接数
+     * @param maxIdleTimeMillis             空闲连接的回收时长，不大于0表示不回收
+     * @param validateAfterInactivityMillis 连接空闲多久后再次使用前需要校验
+     * @return {@linkplain CloseableHttpAsyncClient}
+     */
+    static CloseableHttpAsyncClient createHttpAsyncClient(Options options, ProtocolPolicy protocolPolicy, int maxTotal,
+                                                          int maxPerRoute, long maxIdleTimeMillis, int validateAfterInactivityMillis) {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                        .setSocketTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+                        .setValidateAfterInactivity(validateAfterInactivityMillis, TimeUnit.MILLISECONDS)
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(protocolPolicy == ProtocolPolicy.H2C_PRIOR_KNOWLEDGE ?
+                                HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                .build();
+        HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+                        .setRedirectsEnabled(options.followRedirects())
+                        .build());
+        // 重试由HttpComponentsHttpClient按RetryPolicy执行
+        builder.disableAutomaticRetries();
+        if (maxIdleTimeMillis > 0) {
+            builder.evictExpiredConnections()
+                    .evictIdleConnections(TimeValue.ofMilliseconds(maxIdleTimeMillis));
+        }
+        ProxyInfo proxyInfo = options.proxyInfo();
+        if (proxyInfo != null && proxyInfo.type() == ProxyInfo.ProxyType.HTTP) {
+            builder.setProxy(new HttpHost("http", proxyInfo.host(), proxyInfo.port()));
+            if (Strings.isAllNotBlank(proxyInfo.username(), proxyInfo.password())) {
+                BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                credentialsProvider.setCredentials(new AuthScope(proxyInfo.host(), proxyInfo.port()),
+                        new UsernamePasswordCredentials(proxyInfo.username(), proxyInfo.password().toCharArray()));
+                builder.setDefaultCredentialsProvider(credentialsProvider);
+            }
+        }
+        CloseableHttpAsyncClient client = builder.build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * 同步执行HTTP请求
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     * @throws IoRuntimeException HTTP请求异常
+     */
+    Response execute(@NotNull Request request, @NotNull Options options) throws IoRuntimeException {
+        CompletableFuture<Response> future = executeAsync(request, options);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IoRuntimeException(new InterruptedIOException("Interrupted while waiting for the HTTP/2 response"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IoRuntimeException(String.valueOf(cause), cause);
+        }
+    }
+
+    /**
+     * 异步执行HTTP请求，取消结果时同时取消请求
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     */
+    CompletableFuture<Response> executeAsync(@NotNull Request request, @NotNull Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        SimpleHttpRequest httpRequest;
+        try {
+            httpRequest = toHttpRequest(request, options);
+        } catch (URISyntaxException e) {
+            future.completeExceptionally(new IoRuntimeException("URL '" + request.url() + "' couldn't be parsed into a URI", e));
+            return future;
+        } catch (IOException e) {
+            future.completeExceptionally(new IoRuntimeException(e));
+            return future;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        } finally {
+            // 请求体已读入内存
+            Utils.closeParts(request.body());
+        }
+        Future<SimpleHttpResponse> httpFuture = delegate.execute(httpRequest, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse httpResponse) {
+                future.complete(toApiResponse(httpResponse, request));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e instanceof IOException ? new IoRuntimeException((IOException) e) : e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                httpFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private static SimpleHttpRequest toHttpRequest(Request request, Options options) throws URISyntaxException, IOException {
+        URIBuilder uriBuilder = new URIBuilder(request.url());
+        request.queryParams().forEach((name, values) -> values.forEach(value -> uriBuilder.addParameter(name, value)));
+        SimpleHttpRequest httpRequest = new SimpleHttpRequest(request.method().name(), uriBuilder.build());
+        httpRequest.setConfig(RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofMilliseconds(options.readTimeoutMillis()))
+                .setRedirectsEnabled(options.followRedirects())
+                .build());
+
+        boolean hasAcceptHeader = false;
+        String contentTypeHeader = null;
+        for (Map.Entry<String, List<String>> entry : request.headers().entrySet()) {
+            String headerName = entry.getKey();
+            if (HeaderName.ACCEPT.matchesIgnoreCase(headerName)) {
+                hasAcceptHeader = true;
+            } else if (HeaderName.CONTENT_TYPE.matchesIgnoreCase(headerName)) {
+                // 由请求体设置
+                if (!entry.getValue().isEmpty()) {
+                    contentTypeHeader = entry.getValue().get(0);
+                }
+                continue;
+            }
+            if (EXCLUDED_HEADERS.contains(headerName.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                httpRequest.addHeader(headerName, value);
+            }
+        }
+        if (!hasAcceptHeader) {
+            httpRequest.addHeader(HeaderName.ACCEPT.toString(), "*/*");
+        }
+
+        RequestBody body = request.body();
+        if (body != null) {
+            String contentType;
+            if (body instanceof MultipartBody) {
+                // 分隔符必须与实际编码时的一致
+                contentType = body.contentType() + "; boundary=" + ((MultipartBody) body).getBoundary();
+            } else if (contentTypeHeader != null) {
+                contentType = contentTypeHeader;
+            } else if (body.contentType() != null) {
+                contentType = body.contentType().toString();
+            } else {
+                contentType = ContentType.APPLICATION_OCTET_STREAM.toString();
+            }
+            long length = body.contentLengthLong();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : 512);
+            body.writeTo(out);
+            httpRequest.setBody(out.toByteArray(), ContentType.parseLenient(contentType));
+        }
+        return httpRequest;
+    }
+
+    private static Response toApiResponse(SimpleHttpResponse httpResponse, Request request) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        for (Header header : httpResponse.getHeaders()) {
+            httpHeaders.append(header.getName(), header.getValue());
+        }
+        Response.Builder builder = Response.builder()
+                .protocolVersion(httpResponse.getVersion() != null && httpResponse.getVersion().getMajor() == 2 ?
+                        ProtocolVersion.HTTP_2 : ProtocolVersion.HTTP_1_1)
+                .statusCode(httpResponse.getCode())
+                .reason(httpResponse.getReasonPhrase())
+                .headers(httpHeaders)
+                .request(request);
+        byte[] data = httpResponse.getBodyBytes();
+        if (data != null) {
+            builder.body(data);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 关闭客户端及连接池
+     */
+    @Override
+    public void close() {
+        delegate.close(CloseMode.GRACEFUL);
+    }
+
+}
@@ -3,28 +3,33 @@ package cn.tmkit.http.shf4j.httpclient;
 import cn.tmkit.core.exception.IoRuntimeException;
 import cn.tmkit.core.io.IoUtil;
 import cn.tmkit.core.lang.Charsets;
+import cn.tmkit.core.lang.ClassLoaders;
 import cn.tmkit.core.lang.Collections;
 import cn.tmkit.core.lang.Objects;
 import cn.tmkit.core.lang.Strings;
 import cn.tmkit.http.shf4j.HttpHeaders;
+import cn.tmkit.http.shf4j.ProtocolVersion;
 import cn.tmkit.http.shf4j.*;
+import cn.tmkit.http.shf4j.retry.RetryExecutor;
 import org.apache.http.*;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.Configurable;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.jetbrains.annotations.NotNull;
@@ -34,79 +39,161 @@ import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
  * 基于{@code Apache HttpComponents}包装实现
+ * <p>
+ * 引入{@code httpasyncclient}时，{@linkplain #executeAsync(Request, Options)}使用首次调用时创建的{@linkplain CloseableHttpAsyncClient}，
+ * 响应体读入内存后结束；未引入时在{@linkplain AsyncExecutors#getDefault()}中执行同步请求。
+ * </p>
+ * <p>
+ * 同步及异步请求均按{@linkplain Options#retryPolicy()}由{@linkplain RetryExecutor}重试，
+ * {@code HttpClient}自带的重试已关闭，默认只重试幂等且请求体可重复发送的请求，每个客户端一份重试预算。
+ * </p>
+ * <p>
+ * 协议策略为{@linkplain ProtocolPolicy#HTTP_2}或{@linkplain ProtocolPolicy#H2C_PRIOR_KNOWLEDGE}且引入了{@code httpclient5}时，
+ * 请求由{@code httpclient5}的异步客户端以HTTP/2执行；未引入时{@linkplain ProtocolPolicy#HTTP_2}使用HTTP/1.1。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
  * @date 2023-03-02
  */
-public class HttpComponentsHttpClient implements Client {
+public class HttpComponentsHttpClient implements Client, Closeable {
+
+    /**
+     * 是否引入了{@code httpasyncclient}
+     */
+    private static final boolean ASYNC_PRESENT =
+            ClassLoaders.isPresent("org.apache.http.impl.nio.client.CloseableHttpAsyncClient");
+
+    /**
+     * 是否引入了{@code httpclient5}
+     */
+    private static final boolean HTTP2_PRESENT =
+            ClassLoaders.isPresent("org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient");
 
     private final CloseableHttpClient delegate;
 
+    /**
+     * 构建时的配置项，请求未指定配置时使用
+     */
+    private final Options defaultOptions;
+
+    /**
+     * {@linkplain #defaultOptions}对应的请求配置
+     */
+    private final RequestConfig defaultRequestConfig;
+
+    /**
+     * 用于创建{@linkplain #asyncDelegate}
+     */
+    private final ApacheHttpClientBuilder builder;
+
+    /**
+     * 异步请求使用的客户端，首次异步请求时创建
+     */
+    private volatile CloseableHttpAsyncClient asyncDelegate;
+
+    /**
+     * HTTP/2请求使用的客户端，按协议策略首次使用时创建
+     */
+    private final Map<ProtocolPolicy, Http2AsyncClient> http2Delegates = new ConcurrentHashMap<>(4);
+
+    private final RetryExecutor retryExecutor;
+
     public HttpComponentsHttpClient() {
-        this(HttpClientBuilder.create().build());
+        this(null, null);
     }
 
     public HttpComponentsHttpClient(@NotNull CloseableHttpClient closeableHttpClient) {
-        this.delegate = closeableHttpClient;
+        this(closeableHttpClient, null);
     }
 
     public HttpComponentsHttpClient(Options options) {
         this(null, options);
     }
 
+    /**
+     * 构造器
+     *
+     * @param closeableHttpClient 复用的{@linkplain CloseableHttpClient}，为空时使用{@linkplain ApacheHttpClientBuilder}的默认连接池配置构建
+     * @param options             默认的配置项
+     */
     public HttpComponentsHttpClient(CloseableHttpClient closeableHttpClient, Options options) {
-        this.delegate = buildHttpClient(closeableHttpClient, options);
+        this(closeableHttpClient, options, new ApacheHttpClientBuilder());
     }
 
+    HttpComponentsHttpClient(CloseableHttpClient closeableHttpClient, Options options, ApacheHttpClientBuilder builder) {
+        this.defaultOptions = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
+        this.builder = builder;
+        this.delegate = (closeableHttpClient == null) ? builder.buildHttpClient(defaultOptions) : closeableHttpClient;
+        this.defaultRequestConfig = toRequestConfig(delegate, defaultOptions);
+        this.retryExecutor = new RetryExecutor(defaultOptions);
+    }
 
-    private RequestConfig buildRequestConfig(CloseableHttpClient chc, Options options) {
-        Options opts = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
-        ProxyInfo proxyInfo = opts.proxyInfo();
+    /**
+     * 将配置项转为请求级别的{@linkplain RequestConfig}
+     *
+     * @param chc     {@linkplain CloseableHttpClient}，其默认配置作为基础，可以为空
+     * @param options 配置项
+     * @return {@linkplain RequestConfig}
+     */
+    static RequestConfig toRequestConfig(CloseableHttpClient chc, Options options) {
+        ProxyInfo proxyInfo = options.proxyInfo();
         RequestConfig requestConfig;
         if (chc instanceof Configurable) {
             requestConfig = ((Configurable) chc).getConfig();
         } else {
-            requestConfig = RequestConfig.custom().build();
+            requestConfig = RequestConfig.DEFAULT;
         }
         return RequestConfig.copy(requestConfig)
-                .setConnectTimeout(opts.connectTimeoutMillis())
-                .setSocketTimeout(opts.readTimeoutMillis())
-                .setRedirectsEnabled(opts.followRedirects())
+                .setConnectTimeout(options.connectTimeoutMillis())
+                .setSocketTimeout(options.readTimeoutMillis())
+                .setRedirectsEnabled(options.followRedirects())
                 .setProxy(proxyInfo == null ? null : new HttpHost(proxyInfo.host(), proxyInfo.port(), proxyInfo.type().name()))
                 .build();
     }
 
-    private CloseableHttpClient buildHttpClient(CloseableHttpClient chc, Options options) {
-        HttpClientBuilder builder = HttpClientBuilder.create()
-                .setDefaultRequestConfig(buildRequestConfig(chc, options));
-        Options opts = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
-        ProxyInfo proxyInfo = opts.proxyInfo();
-        if (proxyInfo != null) {
-            if (Strings.isAllNotBlank(proxyInfo.username(), proxyInfo.password())) {
-                CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-                credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(proxyInfo.username(), proxyInfo.password()));
-                builder.setDefaultCredentialsProvider(credentialsProvider);
-            }
-        }
-
-        // 重试机制
-        if (opts.retryCount() > 0) {
-            builder.setRetryHandler(new DefaultHttpRequestRetryHandler(opts.retryCount()));
+    /**
+     * 构建请求级别的上下文：代理认证
+     *
+     * @param options 配置项
+     * @return {@linkplain HttpClientContext}
+     */
+    private HttpClientContext toContext(Options options) {
+        HttpClientContext context = HttpClientContext.create();
+        CredentialsProvider credentialsProvider = ApacheHttpClientBuilder.credentialsProvider(options.proxyInfo());
+        if (credentialsProvider != null) {
+            context.setCredentialsProvider(credentialsProvider);
         }
-        return builder.build();
+        return context;
     }
 
     @Override
     public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
+        return retryExecutor.execute(request, options, () -> executeOnce(request, options));
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        return retryExecutor.executeAsync(request, options, () -> executeAsyncOnce(request, options));
+    }
+
+    private Response executeOnce(Request request, Options options) {
         try {
-            HttpUriRequest httpUriRequest = toHttpUriRequest(request);
-            CloseableHttpClient chc = buildHttpClient(delegate, options);
-            org.apache.http.HttpResponse httpResponse = chc.execute(httpUriRequest);
+            Options opts = Objects.getIfNull(options, defaultOptions);
+            Http2AsyncClient http2Client = http2Delegate(opts);
+            if (http2Client != null) {
+                return http2Client.execute(request, opts);
+            }
+            RequestConfig requestConfig = (opts == defaultOptions) ? defaultRequestConfig : toRequestConfig(delegate, opts);
+            HttpUriRequest httpUriRequest = toHttpUriRequest(request, requestConfig);
+            org.apache.http.HttpResponse httpResponse = delegate.execute(httpUriRequest, toContext(opts));
             return toApiResponse(httpResponse, request);
         } catch (URISyntaxException e) {
             throw new IoRuntimeException("URL '" + request.url() + "' couldn't be parsed into a URI", e);
@@ -117,8 +204,137 @@ public class HttpComponentsHttpClient implements Client {
         }
     }
 
-    private HttpUriRequest toHttpUriRequest(Request request) throws URISyntaxException {
-        RequestBuilder requestBuilder = RequestBuilder.create(request.method().name());
+    private CompletableFuture<Response> executeAsyncOnce(Request request, Options options) {
+        Http2AsyncClient http2Client;
+        try {
+            http2Client = http2Delegate(Objects.getIfNull(options, defaultOptions));
+        } catch (RuntimeException e) {
+            Utils.closeParts(request.body());
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (http2Client != null) {
+            return http2Client.executeAsync(request, Objects.getIfNull(options, defaultOptions));
+        }
+        if (!ASYNC_PRESENT) {
+            return AsyncExecutors.supplyAsync(() -> executeOnce(request, options), AsyncExecutors.getDefault());
+        }
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Future<org.apache.http.HttpResponse> httpFuture;
+        try {
+            Options opts = Objects.getIfNull(options, defaultOptions);
+            RequestConfig requestConfig = (opts == defaultOptions) ? defaultRequestConfig : toRequestConfig(delegate, opts);
+            HttpUriRequest httpUriRequest = toHttpUriRequest(request, requestConfig);
+            httpFuture = asyncDelegate().execute(httpUriRequest, toContext(opts), new FutureCallback<org.apache.http.HttpResponse>() {
+                @Override
+                public void completed(org.apache.http.HttpResponse httpResponse) {
+                    Utils.closeParts(request.body());
+                    if (!future.complete(toApiResponse(httpResponse, request))) {
+                        // 结果已被取消
+                        EntityUtils.consumeQuietly(httpResponse.getEntity());
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    Utils.closeParts(request.body());
+                    future.completeExceptionally(e instanceof IOException ? new IoRuntimeException((IOException) e) : e);
+                }
+
+                @Override
+                public void cancelled() {
+                    Utils.closeParts(request.body());
+                    future.cancel(false);
+                }
+            });
+        } catch (URISyntaxException e) {
+            Utils.closeParts(request.body());
+            future.completeExceptionally(new IoRuntimeException("URL '" + request.url() + "' couldn't be parsed into a URI", e));
+            return future;
+        } catch (RuntimeException e) {
+            Utils.closeParts(request.body());
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                httpFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 获取异步客户端，不存在时创建
+     *
+     * @return {@linkplain CloseableHttpAsyncClient}
+     */
+    private CloseableHttpAsyncClient asyncDelegate() {
+        CloseableHttpAsyncClient client = asyncDelegate;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncDelegate;
+                if (client == null) {
+                    client = builder.buildHttpAsyncClient(defaultOptions);
+                    asyncDelegate = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * 获取协议策略对应的HTTP/2客户端
+     *
+     * @param options 配置项，未指定协议策略时使用{@linkplain #defaultOptions}的
+     * @return {@linkplain Http2AsyncClient}，不使用HTTP/2时返回{@code null}
+     * @throws IllegalStateException 要求{@linkplain ProtocolPolicy#H2C_PRIOR_KNOWLEDGE}但未引入{@code httpclient5}
+     */
+    private Http2AsyncClient http2Delegate(Options options) {
+        ProtocolPolicy protocolPolicy = Objects.getIfNull(options.protocolPolicy(), defaultOptions.protocolPolicy());
+        if (protocolPolicy == null || !protocolPolicy.isHttp2()) {
+            return null;
+        }
+        if (!HTTP2_PRESENT) {
+            if (protocolPolicy == ProtocolPolicy.H2C_PRIOR_KNOWLEDGE) {
+                throw new IllegalStateException("HTTP/2 prior knowledge requires 'org.apache.httpcomponents.client5:httpclient5'");
+            }
+            // 协商失败时本就使用HTTP/1.1
+            return null;
+        }
+        return http2Delegates.computeIfAbsent(protocolPolicy,
+                policy -> new Http2AsyncClient(builder.buildHttp2AsyncClient(defaultOptions, policy)));
+    }
+
+    /**
+     * 关闭客户端及连接池
+     *
+     * @throws IOException 关闭异常
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            try {
+                CloseableHttpAsyncClient client = asyncDelegate;
+                if (client != null) {
+                    client.close();
+                }
+            } finally {
+                // 未使用HTTP/2时不能触发Http2AsyncClient的加载
+                for (Http2AsyncClient http2Client : http2Delegates.values()) {
+                    http2Client.close();
+                }
+                http2Delegates.clear();
+            }
+        }
+    }
+
+    private HttpUriRequest toHttpUriRequest(Request request, RequestConfig requestConfig) throws URISyntaxException {
+        RequestBuilder requestBuilder = RequestBuilder.create(request.method().name())
+                .setConfig(requestConfig);
         URIBuilder uriBuilder = new URIBuilder(request.url());
         request.queryParams().forEach((name, values) -> values.forEach(value -> uriBuilder.addParameter(name, value)));
         requestBuilder.setUri(uriBuilder.build());
@@ -168,10 +384,22 @@ public class HttpComponentsHttpClient implements Client {
                     if (formPart.getFilename() == null) {
                         multipartEntityBuilder.addTextBody(formPart.getName(), IoUtil.read(formPart.getIn(), partContentType.getCharset()), partContentType);
                     } else {
-                        multipartEntityBuilder.addBinaryBody(formPart.getName(), formPart.getIn(), partContentType, formPart.getFilename());
+                        multipartEntityBuilder.addPart(formPart.getName(), new InputStreamBody(formPart.getIn(), partContentType, formPart.getFilename()) {
+                            @Override
+                            public long getContentLength() {
+                                return formPart.getLength();
+                            }
+                        });
                     }
                 }
                 requestBuilder.setEntity(multipartEntityBuilder.build());
+            } else if (request.body() instanceof StreamingRequestBody) {
+                StreamingRequestBody body = (StreamingRequestBody) request.body();
+                if (body.getFile() != null) {
+                    requestBuilder.setEntity(new FileEntity(body.getFile(), contentType));
+                } else {
+                    requestBuilder.setEntity(new InputStreamEntity(body.getIn(), body.contentLengthLong(), contentType));
+                }
             } else {
                 ByteArrayEntity byteArrayEntity = new ByteArrayEntity(request.body().getData());
                 if (request.body().contentType() != null) {
@@ -219,6 +447,8 @@ public class HttpComponentsHttpClient implements Client {
         }
 
         return Response.builder()
+                .protocolVersion(HttpVersion.HTTP_1_0.equals(statusLine.getProtocolVersion()) ?
+                        ProtocolVersion.HTTP_1_0 : ProtocolVersion.HTTP_1_1)
                 .statusCode(statusCode)
                 .reason(reason)
                 .headers(httpHeaders)
@@ -276,7 +506,7 @@ public class HttpComponentsHttpClient implements Client {
                 try {
                     EntityUtils.consume(entity);
                 } finally {
-                    if (httpResponse instanceof Cloneable) {
+                    if (httpResponse instanceof Closeable) {
                         IoUtil.closeQuietly(((Closeable) httpResponse));
                     }
                 }
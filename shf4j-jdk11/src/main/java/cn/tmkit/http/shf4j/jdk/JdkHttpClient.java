@@ -0,0 +1,420 @@
+package cn.tmkit.http.shf4j.jdk;
+
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.io.IoUtil;
+import cn.tmkit.core.lang.Maps;
+import cn.tmkit.core.lang.Objects;
+import cn.tmkit.core.lang.Strings;
+import cn.tmkit.core.lang.Urls;
+import cn.tmkit.core.map.MultiValueMap;
+import cn.tmkit.core.support.ConcurrentLruCache;
+import cn.tmkit.http.shf4j.HttpHeaders;
+import cn.tmkit.http.shf4j.*;
+import cn.tmkit.http.shf4j.retry.RetryExecutor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 基于JDK 11提供的{@linkplain HttpClient}包装实现
+ * <p>
+ * 文件及输入流请求体通过{@linkplain HttpRequest.BodyPublishers}边读边发送，响应体以输入流返回，不会整体读入内存；
+ * {@linkplain #executeAsync(Request, Options)}使用{@linkplain HttpClient#sendAsync}原生异步执行。
+ * </p>
+ * <p>
+ * 与其他实现的差异：读超时对应{@linkplain HttpRequest.Builder#timeout(Duration)}，即等待响应头的时长；
+ * 不支持写超时及SOCKS代理；{@code HttpClient}不支持h2c prior knowledge，
+ * {@linkplain ProtocolPolicy#H2C_PRIOR_KNOWLEDGE}通过{@code Upgrade}协商HTTP/2。
+ * </p>
+ * <p>
+ * 同步及异步请求均按{@linkplain Options#retryPolicy()}重试，与其他实现共用{@linkplain RetryExecutor}的逻辑，
+ * 默认只重试幂等且请求体可重复发送的请求，每个客户端一份重试预算。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class JdkHttpClient implements Client, Closeable {
+
+    /**
+     * 按配置项缓存的客户端个数上限
+     */
+    private static final int MAX_SCOPED_CLIENTS = 64;
+
+    /**
+     * {@linkplain HttpClient}自行管理、不允许设置的请求头
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.add("Connection");
+        RESTRICTED_HEADERS.add("Content-Length");
+        RESTRICTED_HEADERS.add("Expect");
+        RESTRICTED_HEADERS.add("Host");
+        RESTRICTED_HEADERS.add("Upgrade");
+    }
+
+    /**
+     * 执行请求的线程池，为{@code null}时使用{@linkplain HttpClient}自带的线程池
+     */
+    private final Executor executor;
+
+    /**
+     * {@linkplain #executor}是否由本对象创建，创建的在{@linkplain #close()}时关闭
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * 构建{@linkplain #delegate}时使用的配置项
+     */
+    private final Options defaultOptions;
+
+    private final HttpClient delegate;
+
+    /**
+     * 按配置项派生的客户端，{@linkplain HttpClient}不可修改，连接相关的配置不同时需要单独的客户端，键见{@linkplain #clientSettings(Options)}
+     */
+    private final ConcurrentLruCache<Options, HttpClient> scopedClients =
+            new ConcurrentLruCache<>(MAX_SCOPED_CLIENTS, ConcurrentLruCache.ValueStrength.STRONG);
+
+    private final RetryExecutor retryExecutor;
+
+    public JdkHttpClient() {
+        this(Options.DEFAULT_OPTIONS);
+    }
+
+    public JdkHttpClient(Options options) {
+        this(options, null, false);
+    }
+
+    public JdkHttpClient(Options options, Executor executor) {
+        this(options, executor, false);
+    }
+
+    JdkHttpClient(Options options, Executor executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.defaultOptions = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
+        this.delegate = build(this.defaultOptions);
+        this.retryExecutor = new RetryExecutor(this.defaultOptions);
+    }
+
+    /**
+     * 执行HTTP请求
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     * @throws IoRuntimeException HTTP请求异常
+     */
+    @Override
+    public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
+        return retryExecutor.execute(request, options, () -> send(request, options));
+    }
+
+    /**
+     * 通过{@linkplain HttpClient#sendAsync}异步执行，取消结果时同时取消请求（JDK 16及以上会中断连接）
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        return retryExecutor.executeAsync(request, options, () -> sendAsync(request, options));
+    }
+
+    private Response send(Request request, Options options) {
+        try {
+            HttpResponse<InputStream> response = scoped(options)
+                    .send(toHttpRequest(request, options), HttpResponse.BodyHandlers.ofInputStream());
+            return toHttpResponse(response, request);
+        } catch (IOException e) {
+            throw new IoRuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IoRuntimeException(Strings.format("Interrupted executing {} {}", request.method(), request.url()), e);
+        } finally {
+            Utils.closeParts(request.body());
+        }
+    }
+
+    private CompletableFuture<Response> sendAsync(Request request, Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<InputStream>> call;
+        try {
+            call = scoped(options).sendAsync(toHttpRequest(request, options), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException | RuntimeException e) {
+            Utils.closeParts(request.body());
+            future.completeExceptionally(e instanceof IOException ? new IoRuntimeException((IOException) e) : e);
+            return future;
+        }
+        call.whenComplete((response, e) -> {
+            Utils.closeParts(request.body());
+            if (e != null) {
+                future.completeExceptionally(unwrap(e));
+            } else if (!future.complete(toHttpResponse(response, request))) {
+                // 结果已被取消
+                IoUtil.closeQuietly(response.body());
+            }
+        });
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 关闭由构建器创建的线程池，{@linkplain HttpClient}本身在不再引用后回收
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * 获取配置项对应的客户端，连接相关的配置与{@linkplain #defaultOptions}相同时直接使用{@linkplain #delegate}
+     *
+     * @param options 选项配置
+     * @return {@code HttpClient}对象
+     */
+    private HttpClient scoped(Options options) {
+        if (options == null || sameClientSettings(options, this.defaultOptions)) {
+            return this.delegate;
+        }
+        return this.scopedClients.computeIfAbsent(clientSettings(options), this::build);
+    }
+
+    /**
+     * 只保留影响{@linkplain HttpClient}构建的配置项作为缓存的键，读写超时、重试等按请求处理的配置项不会派生新的客户端
+     *
+     * @param options 选项配置
+     * @return 影响客户端构建的配置项
+     */
+    private static Options clientSettings(Options options) {
+        return options.newBuilder()
+                .readTimeoutMillis(0)
+                .writeTimeoutMillis(0)
+                .retryCount(0)
+                .retryPolicy(null)
+                .decodeStatusCodes(null)
+                .build();
+    }
+
+    private static boolean sameClientSettings(Options options, Options other) {
+        return options.connectTimeoutMillis() == other.connectTimeoutMillis() &&
+                options.followRedirects() == other.followRedirects() &&
+                options.protocolPolicy() == other.protocolPolicy() &&
+                java.util.Objects.equals(options.proxyInfo(), other.proxyInfo());
+    }
+
+    /**
+     * 构建{@linkplain HttpClient}对象
+     *
+     * @param options 选项配置
+     * @return {@code HttpClient}对象
+     */
+    private HttpClient build(Options options) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .followRedirects(options.followRedirects() ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER);
+        if (options.connectTimeoutMillis() > 0) {
+            builder.connectTimeout(Duration.ofMillis(options.connectTimeoutMillis()));
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        if (options.protocolPolicy() != null) {
+            builder.version(options.protocolPolicy().isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+        }
+        ProxyInfo proxyInfo = options.proxyInfo();
+        if (proxyInfo != null) {
+            switch (proxyInfo.type()) {
+                case HTTP:
+                    builder.proxy(ProxySelector.of(new InetSocketAddress(proxyInfo.host(), proxyInfo.port())));
+                    if (Strings.isAllNotBlank(proxyInfo.username(), proxyInfo.password())) {
+                        builder.authenticator(new ProxyAuthenticator(proxyInfo.username(), proxyInfo.password()));
+                    }
+                    break;
+                case SOCKS:
+                    throw new IllegalArgumentException("SOCKS proxy is not supported by java.net.http.HttpClient");
+                default:
+                    builder.proxy(HttpClient.Builder.NO_PROXY);
+            }
+        }
+        return builder.build();
+    }
+
+    private static HttpRequest toHttpRequest(Request input, Options options) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(encodeUrl(input.url(), input.queryParams())));
+        if (options != null && options.readTimeoutMillis() > 0) {
+            builder.timeout(Duration.ofMillis(options.readTimeoutMillis()));
+        }
+
+        // header
+        boolean hasAcceptHeader = false;
+        boolean hasContentTypeHeader = false;
+        for (Map.Entry<String, List<String>> entry : input.headers().entrySet()) {
+            String name = entry.getKey();
+            if (RESTRICTED_HEADERS.contains(name)) {
+                continue;
+            }
+            if (HeaderName.ACCEPT.matchesIgnoreCase(name)) {
+                hasAcceptHeader = true;
+            } else if (HeaderName.CONTENT_TYPE.matchesIgnoreCase(name)) {
+                hasContentTypeHeader = true;
+            }
+            for (String value : entry.getValue()) {
+                builder.header(name, value);
+            }
+        }
+        // Some servers choke on the default accept string.
+        if (!hasAcceptHeader) {
+            builder.header(HeaderName.ACCEPT.getValue(), "*/*");
+        }
+
+        RequestBody body = input.body();
+        if (body instanceof MultipartBody) {
+            // 分隔符必须与实际编码时的一致
+            builder.setHeader(HeaderName.CONTENT_TYPE.getValue(),
+                    body.contentType() + "; boundary=" + ((MultipartBody) body).getBoundary());
+        } else if (body != null && !hasContentTypeHeader && body.contentType() != null) {
+            builder.header(HeaderName.CONTENT_TYPE.getValue(), body.contentType().toString());
+        }
+        builder.method(input.method().name(), toBodyPublisher(body));
+        return builder.build();
+    }
+
+    /**
+     * 请求体对应的{@linkplain HttpRequest.BodyPublisher}，文件、输入流及含文件的表单在发送时才读取
+     *
+     * @param body 请求体
+     * @return {@code BodyPublisher}
+     * @throws IOException 文件不存在
+     */
+    private static HttpRequest.BodyPublisher toBodyPublisher(RequestBody body) throws IOException {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (body instanceof StreamingRequestBody) {
+            StreamingRequestBody streamingBody = (StreamingRequestBody) body;
+            if (streamingBody.getFile() != null) {
+                return HttpRequest.BodyPublishers.ofFile(streamingBody.getFile().toPath());
+            }
+            InputStream in = streamingBody.getIn();
+            return withLength(HttpRequest.BodyPublishers.ofInputStream(() -> in), streamingBody.contentLengthLong());
+        }
+        if (body instanceof MultipartBody) {
+            MultipartBody multipartBody = (MultipartBody) body;
+            return withLength(HttpRequest.BodyPublishers.ofInputStream(multipartBody::openStream),
+                    multipartBody.contentLengthLong());
+        }
+        byte[] data = body.getData();
+        return data == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(data);
+    }
+
+    /**
+     * 长度已知时使用{@code Content-Length}发送，否则使用分块传输
+     *
+     * @param publisher 请求体
+     * @param length    内容长度，未知时为-1
+     * @return {@code BodyPublisher}
+     */
+    private static HttpRequest.BodyPublisher withLength(HttpRequest.BodyPublisher publisher, long length) {
+        if (length == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return length > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, length) : publisher;
+    }
+
+    private static String encodeUrl(String url, MultiValueMap<String, String> queryParamMap) {
+        if (Maps.isEmpty(queryParamMap)) {
+            return url;
+        }
+        StringBuilder buffer = new StringBuilder(url);
+        buffer.append(url.indexOf('?') < 0 ? "?" : Strings.AMP);
+        queryParamMap.forEach((name, values) ->
+                values.forEach(value ->
+                        buffer.append(name).append(Strings.EQUALS).append(Urls.encode(value)).append(Strings.AMP)
+                )
+        );
+        buffer.deleteCharAt(buffer.length() - 1);
+        return buffer.toString();
+    }
+
+    private static Response toHttpResponse(HttpResponse<InputStream> response, Request input) {
+        long contentLength = response.headers().firstValueAsLong(HeaderName.CONTENT_LENGTH.getValue()).orElse(-1);
+        return Response.builder()
+                .protocolVersion(response.version() == HttpClient.Version.HTTP_2 ? ProtocolVersion.HTTP_2 : ProtocolVersion.HTTP_1_1)
+                .statusCode(response.statusCode())
+                .reason(reasonPhrase(response.statusCode()))
+                .request(input)
+                .headers(new HttpHeaders(response.headers().map()))
+                .body(response.body(), contentLength > Integer.MAX_VALUE ? -1 : (int) contentLength)
+                .build();
+    }
+
+    /**
+     * {@linkplain HttpClient}不返回状态描述，使用标准的描述
+     *
+     * @param statusCode 状态码
+     * @return 状态描述，未知的状态码返回{@code null}
+     */
+    private static String reasonPhrase(int statusCode) {
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.value() == statusCode) {
+                return status.getReasonPhrase();
+            }
+        }
+        return null;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+        return cause instanceof IOException ? new IoRuntimeException((IOException) cause) : cause;
+    }
+
+    /**
+     * 只响应代理服务器认证的{@linkplain Authenticator}
+     */
+    private static class ProxyAuthenticator extends Authenticator {
+
+        private final String username;
+
+        private final String password;
+
+        ProxyAuthenticator(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        @Override
+        protected PasswordAuthentication getPasswordAuthentication() {
+            if (getRequestorType() == RequestorType.PROXY) {
+                return new PasswordAuthentication(username, password.toCharArray());
+            }
+            return null;
+        }
+
+    }
+
+}
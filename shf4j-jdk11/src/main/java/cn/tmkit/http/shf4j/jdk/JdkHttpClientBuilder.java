@@ -0,0 +1,80 @@
+package cn.tmkit.http.shf4j.jdk;
+
+import cn.tmkit.http.shf4j.Client;
+import cn.tmkit.http.shf4j.ClientBuilder;
+import cn.tmkit.http.shf4j.Options;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于{@code java.net.http.HttpClient}的Client构建
+ * <p>
+ * 未指定线程池时使用{@code HttpClient}自带的线程池；{@linkplain #virtualThreads(boolean)}在JDK 21及以上
+ * 为每个请求使用一个虚拟线程，低版本JDK上不生效。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class JdkHttpClientBuilder extends ClientBuilder {
+
+    /**
+     * 执行异步请求及回调的线程池
+     */
+    protected Executor executor;
+
+    /**
+     * 是否使用虚拟线程
+     */
+    protected boolean virtualThreads;
+
+    @Override
+    public Client build(Options options) {
+        if (executor != null) {
+            return new JdkHttpClient(resolveOptions(options), executor, false);
+        }
+        ExecutorService virtualThreadExecutor = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+        return new JdkHttpClient(resolveOptions(options), virtualThreadExecutor, virtualThreadExecutor != null);
+    }
+
+    /**
+     * 设置执行请求及回调的线程池，由调用方负责关闭
+     *
+     * @param executor 线程池
+     * @return {@linkplain JdkHttpClientBuilder}
+     */
+    public JdkHttpClientBuilder executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 设置是否使用虚拟线程，需要JDK 21及以上，指定了{@linkplain #executor(Executor)}时不生效
+     *
+     * @param virtualThreads 是否使用虚拟线程
+     * @return {@linkplain JdkHttpClientBuilder}
+     */
+    public JdkHttpClientBuilder virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * 通过反射调用{@code Executors.newVirtualThreadPerTaskExecutor()}，低版本JDK返回{@code null}
+     *
+     * @return 虚拟线程的线程池
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
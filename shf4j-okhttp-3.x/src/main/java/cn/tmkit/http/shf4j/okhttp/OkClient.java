@@ -3,22 +3,29 @@ package cn.tmkit.http.shf4j.okhttp;
 import cn.tmkit.core.exception.IoRuntimeException;
 import cn.tmkit.core.io.IoUtil;
 import cn.tmkit.core.lang.*;
+import cn.tmkit.core.support.ConcurrentLruCache;
 import cn.tmkit.http.shf4j.FormBody;
 import cn.tmkit.http.shf4j.MultipartBody;
 import cn.tmkit.http.shf4j.Request;
 import cn.tmkit.http.shf4j.Response;
 import cn.tmkit.http.shf4j.ResponseBody;
 import cn.tmkit.http.shf4j.*;
+import cn.tmkit.http.shf4j.retry.RetryExecutor;
 import okhttp3.RequestBody;
 import okhttp3.*;
+import okio.BufferedSink;
+import okio.Okio;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,18 +35,47 @@ import java.util.concurrent.TimeUnit;
  */
 public class OkClient implements Client {
 
+    /**
+     * 按配置项缓存的客户端个数上限
+     */
+    private static final int MAX_SCOPED_CLIENTS = 64;
+
     private final OkHttpClient delegate;
 
+    /**
+     * 构建{@linkplain #delegate}时使用的配置项，请求配置与其相同时直接使用{@linkplain #delegate}
+     */
+    private final Options defaultOptions;
+
+    /**
+     * {@linkplain #defaultOptions}中影响客户端构建的部分，见{@linkplain #clientSettings(Options)}
+     */
+    private final Options defaultClientSettings;
+
+    /**
+     * 按配置项派生的客户端，与{@linkplain #delegate}共享连接池及调度器，键只包含影响客户端构建的配置项
+     */
+    private final ConcurrentLruCache<Options, OkHttpClient> scopedClients =
+            new ConcurrentLruCache<>(MAX_SCOPED_CLIENTS, ConcurrentLruCache.ValueStrength.STRONG);
+
+    private final RetryExecutor retryExecutor;
+
     public OkClient() {
         this(new OkHttpClient());
     }
 
     public OkClient(@NotNull OkHttpClient delegate) {
         this.delegate = delegate;
+        this.defaultOptions = null;
+        this.defaultClientSettings = null;
+        this.retryExecutor = new RetryExecutor(null);
     }
 
     public OkClient(Options options) {
-        this.delegate = build(new OkHttpClient(), Objects.getIfNull(options, Options.DEFAULT_OPTIONS));
+        this.defaultOptions = Objects.getIfNull(options, Options.DEFAULT_OPTIONS);
+        this.defaultClientSettings = clientSettings(this.defaultOptions);
+        this.delegate = build(new OkHttpClient(), this.defaultOptions);
+        this.retryExecutor = new RetryExecutor(this.defaultOptions);
     }
 
     /**
@@ -52,16 +88,96 @@ public class OkClient implements Client {
      */
     @Override
     public Response execute(@NotNull Request request, Options options) throws IoRuntimeException {
-        OkHttpClient okHttpClientScoped = this.build(this.delegate, options);
-        okhttp3.Request okRequest = toOkHttpRequest(request);
+        return retryExecutor.execute(request, options, () -> {
+            OkHttpClient okHttpClientScoped = this.scoped(options);
+            okhttp3.Request okRequest = toOkHttpRequest(request);
+            try {
+                okhttp3.Response okResponse = okHttpClientScoped.newCall(okRequest).execute();
+                return toHttpResponse(okResponse, request).toBuilder().request(request).build();
+            } catch (IOException e) {
+                throw new IoRuntimeException(e);
+            } finally {
+                Utils.closeParts(request.body());
+            }
+        });
+    }
+
+    /**
+     * 通过{@linkplain Call#enqueue(Callback)}异步执行，由{@code okhttp}的调度器控制并发，取消结果时同时取消请求
+     *
+     * @param request 请求对象
+     * @param options 请求选项
+     * @return 执行结果
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(@NotNull Request request, Options options) {
+        return retryExecutor.executeAsync(request, options, () -> enqueue(request, options));
+    }
+
+    private CompletableFuture<Response> enqueue(Request request, Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Call call;
         try {
-            okhttp3.Response okResponse = okHttpClientScoped.newCall(okRequest).execute();
-            return toHttpResponse(okResponse, request).toBuilder().request(request).build();
-        } catch (IOException e) {
-            throw new IoRuntimeException(e);
-        } finally {
+            call = this.scoped(options).newCall(toOkHttpRequest(request));
+        } catch (RuntimeException e) {
             Utils.closeParts(request.body());
+            future.completeExceptionally(e);
+            return future;
         }
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                Utils.closeParts(request.body());
+                future.completeExceptionally(new IoRuntimeException(e));
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull okhttp3.Response okResponse) {
+                Utils.closeParts(request.body());
+                if (!future.complete(toHttpResponse(okResponse, request).toBuilder().request(request).build())) {
+                    // 结果已被取消
+                    okResponse.close();
+                }
+            }
+        });
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 获取配置项对应的客户端，影响客户端构建的配置项相同时共用一个客户端
+     *
+     * @param options 选项配置
+     * @return {@code OkHttpClient}对象
+     */
+    private OkHttpClient scoped(Options options) {
+        if (options == null) {
+            return this.delegate;
+        }
+        Options settings = clientSettings(options);
+        if (settings.equals(this.defaultClientSettings)) {
+            return this.delegate;
+        }
+        return this.scopedClients.computeIfAbsent(settings, opts -> this.build(this.delegate, opts));
+    }
+
+    /**
+     * 去掉重试、响应解码等按请求处理的配置项，只保留影响{@linkplain OkHttpClient}构建的部分，
+     * 避免每个请求新建的{@linkplain cn.tmkit.http.shf4j.retry.RetryPolicy}都派生一个客户端
+     *
+     * @param options 选项配置
+     * @return 影响客户端构建的配置项
+     */
+    private static Options clientSettings(Options options) {
+        return options.newBuilder()
+                .retryCount(0)
+                .retryPolicy(null)
+                .decodeStatusCodes(null)
+                .build();
     }
 
     /**
@@ -80,7 +196,7 @@ public class OkClient implements Client {
                     okHttpClient.followRedirects() != options.followRedirects()) {
                 builder.connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
                         .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
-                        .writeTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                        .writeTimeout(options.writeTimeoutMillis(), TimeUnit.MILLISECONDS)
                         .followRedirects(options.followRedirects())
                         .build();
             }
@@ -93,8 +209,8 @@ public class OkClient implements Client {
                             .build());
                 }
             }
-            if (options.retryCount() > 0) {
-                builder.addNetworkInterceptor(new Retry(options.retryCount()));
+            if (options.protocolPolicy() != null) {
+                builder.protocols(toProtocols(options.protocolPolicy()));
             }
             return builder.build();
         }
@@ -169,18 +285,52 @@ public class OkClient implements Client {
                 for (FormPart formPart : multipartBody.getParts()) {
                     MediaType partMediaType = MediaType.parse(formPart.getContentType().toString());
                     builder.addFormDataPart(formPart.getName(), formPart.getFilename(),
-                            okhttp3.RequestBody.create(partMediaType, IoUtil.readBytes(formPart.getIn())));
+                            new StreamRequestBody(partMediaType, formPart.getLength(), true, formPart::writeTo));
                 }
             }
             requestBuilder.method(input.method().name(), builder.build());
+        } else if (input.body() instanceof StreamingRequestBody) {
+            StreamingRequestBody body = (StreamingRequestBody) input.body();
+            requestBuilder.method(input.method().name(),
+                    new StreamRequestBody(okhttp3MediaType, body.contentLengthLong(), !body.isRepeatable(), body::writeTo));
         } else {
             requestBuilder.method(input.method().name(), RequestBody.create(okhttp3MediaType, input.body().getData()));
         }
         return requestBuilder.build();
     }
 
+    /**
+     * 协议策略对应的{@code okhttp}协议列表
+     *
+     * @param protocolPolicy 协议策略
+     * @return 协议列表
+     */
+    private static List<okhttp3.Protocol> toProtocols(ProtocolPolicy protocolPolicy) {
+        switch (protocolPolicy) {
+            case HTTP_1_1:
+                return Collections.singletonList(okhttp3.Protocol.HTTP_1_1);
+            case H2C_PRIOR_KNOWLEDGE:
+                return Collections.singletonList(okhttp3.Protocol.H2_PRIOR_KNOWLEDGE);
+            default:
+                return Collections.of(okhttp3.Protocol.HTTP_2, okhttp3.Protocol.HTTP_1_1);
+        }
+    }
+
+    private static ProtocolVersion toProtocolVersion(okhttp3.Protocol protocol) {
+        switch (protocol) {
+            case HTTP_1_0:
+                return ProtocolVersion.HTTP_1_0;
+            case HTTP_2:
+            case H2_PRIOR_KNOWLEDGE:
+                return ProtocolVersion.HTTP_2;
+            default:
+                return ProtocolVersion.HTTP_1_1;
+        }
+    }
+
     private static Response toHttpResponse(okhttp3.Response okResponse, Request input) {
         return Response.builder()
+                .protocolVersion(toProtocolVersion(okResponse.protocol()))
                 .statusCode(okResponse.code())
                 .reason(okResponse.message())
                 .request(input)
@@ -246,6 +396,27 @@ public class OkClient implements Client {
                 }
             }
 
+            /**
+             * 直接在{@code okio}的缓冲段之间复制，不经过额外的字节数组
+             */
+            @Override
+            public long transferTo(OutputStream out) throws IoRuntimeException {
+                try {
+                    return okBody.source().readAll(Okio.sink(out));
+                } catch (IOException e) {
+                    throw new IoRuntimeException(e);
+                }
+            }
+
+            @Override
+            public long transferTo(Path target) throws IoRuntimeException {
+                try (BufferedSink sink = Okio.buffer(Okio.sink(target))) {
+                    return sink.writeAll(okBody.source());
+                } catch (IOException e) {
+                    throw new IoRuntimeException(e);
+                }
+            }
+
             @Override
             public void close() {
                 okBody.close();
@@ -15,7 +15,7 @@ public class OkHttpClientBuilder extends ClientBuilder {
 
     @Override
     public Client build(Options options) {
-        return new OkClient(options);
+        return new OkClient(resolveOptions(options));
     }
 
 }
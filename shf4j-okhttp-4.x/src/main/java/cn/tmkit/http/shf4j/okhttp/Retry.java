@@ -9,11 +9,16 @@ import java.io.IOException;
 
 /**
  * 重试
+ * <p>
+ * 不区分请求方法及状态码、也不等待地立即重试，会在下游故障时放大请求，{@linkplain OkClient}已不再使用，
+ * 请通过{@linkplain cn.tmkit.http.shf4j.Options.Builder#retryPolicy(cn.tmkit.http.shf4j.retry.RetryPolicy)}配置重试。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
  * @date 2023-03-02
  */
+@Deprecated
 public class Retry implements Interceptor {
 
     /**
@@ -0,0 +1,78 @@
+package cn.tmkit.http.shf4j.okhttp;
+
+import okhttp3.MediaType;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 发送时才从源头读取内容的{@code okhttp3.RequestBody}，内容直接写到连接上，不会整体读入内存
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-17
+ */
+final class StreamRequestBody extends okhttp3.RequestBody {
+
+    private final MediaType mediaType;
+
+    /**
+     * 内容长度，未知时为-1
+     */
+    private final long contentLength;
+
+    /**
+     * 是否只能发送一次
+     */
+    private final boolean oneShot;
+
+    private final Writer writer;
+
+    StreamRequestBody(@Nullable MediaType mediaType, long contentLength, boolean oneShot, @NotNull Writer writer) {
+        this.mediaType = mediaType;
+        this.contentLength = contentLength;
+        this.oneShot = oneShot;
+        this.writer = writer;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        writer.writeTo(sink.outputStream());
+    }
+
+    /**
+     * 内容的写出方式
+     */
+    @FunctionalInterface
+    interface Writer {
+
+        /**
+         * 将内容写到输出流
+         *
+         * @param out 输出流
+         * @throws IOException 读取或写出异常
+         */
+        void writeTo(OutputStream out) throws IOException;
+
+    }
+
+}
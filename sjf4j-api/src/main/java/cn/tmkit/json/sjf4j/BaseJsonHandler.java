@@ -1,9 +1,16 @@
 package cn.tmkit.json.sjf4j;
 
+import cn.tmkit.core.exception.IoRuntimeException;
+import cn.tmkit.core.io.IoUtil;
+import cn.tmkit.core.lang.Charsets;
+import cn.tmkit.core.lang.Objects;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
@@ -87,6 +94,7 @@ public abstract class BaseJsonHandler implements JsonHandler {
 
     /**
      * 将{@linkplain Reader}内容转为Java对象
+     * <p>默认读取为字符串后再转换，支持流式解析的实现应覆盖该方法</p>
      *
      * @param reader  内容
      * @param typeOfT Java类型
@@ -95,7 +103,26 @@ public abstract class BaseJsonHandler implements JsonHandler {
      */
     @Override
     public <T> T deserialize(@NotNull Reader reader, @NotNull Type typeOfT) throws JsonRuntimeException {
-        throw new UnsupportedOperationException();
+        try {
+            return doDeserialize(IoUtil.read(reader), typeOfT);
+        } catch (IoRuntimeException e) {
+            throw new JsonRuntimeException(e);
+        }
+    }
+
+    /**
+     * 将字节流内容转为Java对象
+     * <p>默认按字符集解码后交给{@linkplain #deserialize(Reader, Type)}，可以直接解析字节的实现应覆盖该方法</p>
+     *
+     * @param in      字节流
+     * @param charset 字节流的字符集，为空时按{@code UTF-8}处理
+     * @param typeOfT Java类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    @Override
+    public <T> T deserialize(@NotNull InputStream in, Charset charset, @NotNull Type typeOfT) throws JsonRuntimeException {
+        return deserialize(new InputStreamReader(in, Objects.getIfNull(charset, Charsets.UTF_8)), typeOfT);
     }
 
     /**
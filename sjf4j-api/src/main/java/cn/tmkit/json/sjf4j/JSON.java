@@ -4,7 +4,10 @@ import cn.tmkit.core.lang.Collections;
 import cn.tmkit.core.lang.Maps;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
@@ -68,6 +71,31 @@ public class JSON {
         return (json == null) ? null : jsonHandler.deserialize(json, typeRef.getType());
     }
 
+    /**
+     * 将{@linkplain Reader}内容转为Java对象
+     *
+     * @param reader  内容，可以为空
+     * @param typeOfT 类型
+     * @param <T>     泛型
+     * @return 对象
+     */
+    public <T> T fromJson(Reader reader, Type typeOfT) {
+        return (reader == null) ? null : jsonHandler.deserialize(reader, typeOfT);
+    }
+
+    /**
+     * 将字节流内容转为Java对象
+     *
+     * @param in      字节流，可以为空
+     * @param charset 字符集，为空时按{@code UTF-8}处理
+     * @param typeOfT 类型
+     * @param <T>     泛型
+     * @return 对象
+     */
+    public <T> T fromJson(InputStream in, Charset charset, Type typeOfT) {
+        return (in == null) ? null : jsonHandler.deserialize(in, charset, typeOfT);
+    }
+
     /**
      * 设置{@linkplain JsonHandler}
      *
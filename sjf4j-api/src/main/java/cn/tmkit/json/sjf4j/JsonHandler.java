@@ -2,8 +2,10 @@ package cn.tmkit.json.sjf4j;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.io.InputStream;
 import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
@@ -58,6 +60,18 @@ public interface JsonHandler {
      */
     <T> T deserialize(@NotNull Reader reader, @NotNull Type typeOfT) throws JsonRuntimeException;
 
+    /**
+     * 将字节流内容转为Java对象，不需要先解码为字符串
+     *
+     * @param in      字节流
+     * @param charset 字节流的字符集，为空时按{@code UTF-8}处理
+     * @param typeOfT Java类型
+     * @param <T>     泛型类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    <T> T deserialize(@NotNull InputStream in, Charset charset, @NotNull Type typeOfT) throws JsonRuntimeException;
+
     /**
      * 将JSON字符串转为集合
      *
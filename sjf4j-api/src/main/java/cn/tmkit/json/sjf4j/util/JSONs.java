@@ -5,7 +5,10 @@ import cn.tmkit.json.sjf4j.JSON;
 import cn.tmkit.json.sjf4j.JsonFactory;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -104,6 +107,31 @@ public class JSONs {
         return DEFAULT_JSON.fromJson(json, Objects.requireNonNull(typeRef).getType());
     }
 
+    /**
+     * 将{@linkplain Reader}内容反序列化为Java对象
+     *
+     * @param reader  内容，可以为空
+     * @param typeOfT 类型
+     * @param <T>     泛型
+     * @return 对象
+     */
+    public static <T> T fromJson(Reader reader, Type typeOfT) {
+        return DEFAULT_JSON.fromJson(reader, typeOfT);
+    }
+
+    /**
+     * 将字节流内容反序列化为Java对象，无需先读取为字符串
+     *
+     * @param in      字节流，可以为空
+     * @param charset 字符集，为空时按{@code UTF-8}处理
+     * @param typeOfT 类型
+     * @param <T>     泛型
+     * @return 对象
+     */
+    public static <T> T fromJson(InputStream in, Charset charset, Type typeOfT) {
+        return DEFAULT_JSON.fromJson(in, charset, typeOfT);
+    }
+
     /**
      * 将JSON字符串反序列化为{@linkplain List}对象
      *
@@ -5,10 +5,16 @@ import cn.tmkit.json.sjf4j.BaseJsonHandler;
 import cn.tmkit.json.sjf4j.JsonRuntimeException;
 import cn.tmkit.json.sjf4j.annotation.JsonProviderName;
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONReader;
 import com.alibaba.fastjson.serializer.SimplePropertyPreFilter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 
 /**
  * 基于{@code Fastjson}的JSON处理器
@@ -65,4 +71,39 @@ public class FastJsonHandler extends BaseJsonHandler {
         return JSON.parseObject(json, typeOfT);
     }
 
+    /**
+     * 将{@linkplain Reader}内容转为Java对象，边读取边解析
+     *
+     * @param reader  内容
+     * @param typeOfT Java类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    @Override
+    public <T> T deserialize(@NotNull Reader reader, @NotNull Type typeOfT) throws JsonRuntimeException {
+        try (JSONReader jsonReader = new JSONReader(reader)) {
+            return jsonReader.readObject(typeOfT);
+        } catch (JSONException e) {
+            throw new JsonRuntimeException(e);
+        }
+    }
+
+    /**
+     * 将字节流内容转为Java对象，直接从字节解码，不生成中间字符串
+     *
+     * @param in      字节流
+     * @param charset 字节流的字符集，为空时按{@code UTF-8}处理
+     * @param typeOfT Java类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    @Override
+    public <T> T deserialize(@NotNull InputStream in, Charset charset, @NotNull Type typeOfT) throws JsonRuntimeException {
+        try {
+            return JSON.parseObject(in, charset, typeOfT);
+        } catch (IOException | JSONException e) {
+            throw new JsonRuntimeException(e);
+        }
+    }
+
 }
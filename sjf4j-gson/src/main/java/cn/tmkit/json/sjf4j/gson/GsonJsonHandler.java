@@ -11,8 +11,10 @@ import com.google.gson.ExclusionStrategy;
 import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.time.*;
 
@@ -92,6 +94,23 @@ public class GsonJsonHandler extends BaseJsonHandler {
         return gson.fromJson(json, typeOfT);
     }
 
+    /**
+     * 将{@linkplain Reader}内容转为Java对象，边读取边解析
+     *
+     * @param reader  内容
+     * @param typeOfT Java类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    @Override
+    public <T> T deserialize(@NotNull Reader reader, @NotNull Type typeOfT) throws JsonRuntimeException {
+        try {
+            return gson.fromJson(reader, typeOfT);
+        } catch (JsonParseException e) {
+            throw new JsonRuntimeException(e);
+        }
+    }
+
     /**
      * 创建支持JSR310的gson处理
      *
@@ -1,18 +1,23 @@
 package cn.tmkit.json.sjf4j.jackson;
 
 import cn.tmkit.core.lang.Arrays;
+import cn.tmkit.core.lang.Charsets;
 import cn.tmkit.json.sjf4j.BaseJsonHandler;
 import cn.tmkit.json.sjf4j.JsonRuntimeException;
 import cn.tmkit.json.sjf4j.annotation.JsonProviderName;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -113,6 +118,44 @@ public class JacksonHandler extends BaseJsonHandler {
         }
     }
 
+    /**
+     * 将{@linkplain Reader}内容转为Java对象，边读取边解析
+     *
+     * @param reader  内容
+     * @param typeOfT Java类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    @Override
+    public <T> T deserialize(@NotNull Reader reader, @NotNull Type typeOfT) throws JsonRuntimeException {
+        try {
+            return objectMapper.readValue(reader, toJavaType(typeOfT));
+        } catch (IOException e) {
+            throw new JsonRuntimeException(e);
+        }
+    }
+
+    /**
+     * 将字节流内容转为Java对象，{@code UTF-8}编码时直接解析字节，不经过字符解码
+     *
+     * @param in      字节流
+     * @param charset 字节流的字符集，为空时按{@code UTF-8}处理
+     * @param typeOfT Java类型
+     * @return Java对象
+     * @throws JsonRuntimeException 反序列化异常
+     */
+    @Override
+    public <T> T deserialize(@NotNull InputStream in, Charset charset, @NotNull Type typeOfT) throws JsonRuntimeException {
+        if (charset != null && !Charsets.UTF_8.equals(charset)) {
+            return super.deserialize(in, charset, typeOfT);
+        }
+        try {
+            return objectMapper.readValue(in, toJavaType(typeOfT));
+        } catch (IOException e) {
+            throw new JsonRuntimeException(e);
+        }
+    }
+
     /**
      * 将JSON字符串转为集合
      *
@@ -139,4 +182,11 @@ public class JacksonHandler extends BaseJsonHandler {
         return doDeserialize(json, objectMapper.getTypeFactory().constructMapType(Map.class, kClass, vClass));
     }
 
+    private JavaType toJavaType(Type typeOfT) {
+        if (JacksonUtil.isJacksonJavaType(typeOfT)) {
+            return JacksonUtil.toJavaType(typeOfT);
+        }
+        return objectMapper.getTypeFactory().constructType(typeOfT);
+    }
+
 }
@@ -4,6 +4,10 @@ import cn.tmkit.json.sjf4j.JsonHandler;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -81,6 +85,27 @@ public class JacksonHandlerTest {
         System.out.println("cost3 = " + (end3 - end2));
     }
 
+    @Test
+    public void deserializeStream() {
+        String jsonArray = "[{\"id\":1,\"name\":\"张三\"},{\"id\":2,\"name\":\"李四\"}]";
+        JsonHandler jsonHandler = new JacksonHandler();
+        List<Person> list = jsonHandler.deserialize(new StringReader(jsonArray), new TypeReference<List<Person>>() {
+        }.getType());
+        assertEquals(2, list.size());
+        assertEquals("张三", list.get(0).getName());
+
+        list = jsonHandler.deserialize(new ByteArrayInputStream(jsonArray.getBytes(StandardCharsets.UTF_8)), null,
+                new TypeReference<List<Person>>() {
+                }.getType());
+        assertEquals("李四", list.get(1).getName());
+
+        Charset gbk = Charset.forName("GBK");
+        Person person = jsonHandler.deserialize(new ByteArrayInputStream("{\"id\":3,\"name\":\"王五\"}".getBytes(gbk)),
+                gbk, Person.class);
+        assertEquals(3L, person.getId());
+        assertEquals("王五", person.getName());
+    }
+
     public static class Person {
 
         private Long id;
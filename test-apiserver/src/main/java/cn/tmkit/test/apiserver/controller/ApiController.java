@@ -13,21 +13,33 @@ import cn.tmkit.test.apiserver.vo.*;
 import cn.tmkit.web.servlet3.request.IPUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author miles.tang
@@ -44,6 +56,26 @@ public class ApiController {
 
     private final AppConfigProperties appConfigProperties;
 
+    /**
+     * 缓存接口实际处理的次数，客户端命中缓存时不会增加
+     */
+    private final AtomicLong cacheCounter = new AtomicLong();
+
+    /**
+     * 缓存接口的最后修改时间
+     */
+    private final long cacheLastModified = System.currentTimeMillis() / 1000 * 1000;
+
+    /**
+     * 慢接口实际处理的次数
+     */
+    private final AtomicLong slowCounter = new AtomicLong();
+
+    /**
+     * 不稳定接口按key统计的请求次数
+     */
+    private final Map<String, AtomicInteger> flakyCounters = new ConcurrentHashMap<>();
+
     /**
      * 接收IP信息分析请求
      *
@@ -184,6 +216,136 @@ public class ApiController {
         return apiResult;
     }
 
+    /**
+     * 读取原始请求体，返回请求头中的长度、{@code Transfer-Encoding}及实际读取的字节数，用于验证流式上传
+     *
+     * @param request HTTP请求对象
+     * @return 处理结果
+     * @throws IOException 读取异常
+     */
+    @PostMapping("/post/body/stream")
+    public ApiResult<Map<String, Object>> streamBodyPost(HttpServletRequest request) throws IOException {
+        long size = 0;
+        byte[] buffer = new byte[8192];
+        int n;
+        try (InputStream in = request.getInputStream()) {
+            while ((n = in.read(buffer)) != -1) {
+                size += n;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("contentLength", request.getContentLengthLong());
+        result.put("transferEncoding", request.getHeader("Transfer-Encoding"));
+        result.put("size", size);
+        log.info(" <=== 接收流式请求体 {}", result);
+        return ApiResult.success(result);
+    }
+
+    /**
+     * 返回本次请求使用的HTTP协议，用于验证h2c（明文HTTP/2）
+     *
+     * @param request HTTP请求对象
+     * @return 协议，如{@code HTTP/1.1}、{@code HTTP/2.0}
+     */
+    @GetMapping("/protocol")
+    public ApiResult<String> protocol(HttpServletRequest request) {
+        log.info(" <=== 接收协议查询请求，protocol = {}", request.getProtocol());
+        return ApiResult.success(request.getProtocol());
+    }
+
+    /**
+     * 返回{@code Cache-Control: max-age}，用于验证客户端缓存
+     *
+     * @param seconds 缓存时长，单位秒
+     * @return 本次处理的序号
+     */
+    @GetMapping("/cache/max-age")
+    public ResponseEntity<ApiResult<Long>> cacheMaxAge(@RequestParam(defaultValue = "60") long seconds) {
+        long count = cacheCounter.incrementAndGet();
+        log.info(" <=== 接收max-age缓存请求，seconds = {}, count = {}", seconds, count);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(seconds, TimeUnit.SECONDS))
+                .body(ApiResult.success(count));
+    }
+
+    /**
+     * 返回{@code ETag}并要求每次校验，{@code If-None-Match}匹配时返回304
+     *
+     * @param webRequest 请求
+     * @return 本次处理的序号
+     */
+    @GetMapping("/cache/etag")
+    public ResponseEntity<ApiResult<Long>> cacheEtag(WebRequest webRequest) {
+        if (webRequest.checkNotModified("\"v1\"")) {
+            log.info(" <=== 接收ETag缓存请求，未修改");
+            return null;
+        }
+        long count = cacheCounter.incrementAndGet();
+        log.info(" <=== 接收ETag缓存请求，count = {}", count);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag("\"v1\"")
+                .body(ApiResult.success(count));
+    }
+
+    /**
+     * 只返回{@code Last-Modified}，{@code If-Modified-Since}不早于最后修改时间时返回304
+     *
+     * @param webRequest 请求
+     * @return 本次处理的序号
+     */
+    @GetMapping("/cache/last-modified")
+    public ResponseEntity<ApiResult<Long>> cacheLastModified(WebRequest webRequest) {
+        if (webRequest.checkNotModified(cacheLastModified)) {
+            log.info(" <=== 接收Last-Modified缓存请求，未修改");
+            return null;
+        }
+        long count = cacheCounter.incrementAndGet();
+        log.info(" <=== 接收Last-Modified缓存请求，count = {}", count);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .lastModified(cacheLastModified)
+                .body(ApiResult.success(count));
+    }
+
+    /**
+     * 延迟返回的接口，用于验证并发请求的合并
+     *
+     * @param millis 延迟的毫秒数
+     * @return 本次处理的序号
+     * @throws InterruptedException 等待被中断
+     */
+    @GetMapping("/slow")
+    public ApiResult<Long> slow(@RequestParam(defaultValue = "500") long millis) throws InterruptedException {
+        long count = slowCounter.incrementAndGet();
+        log.info(" <=== 接收慢请求，millis = {}, count = {}", millis, count);
+        TimeUnit.MILLISECONDS.sleep(millis);
+        return ApiResult.success(count);
+    }
+
+    /**
+     * 前{@code failures}次请求返回503，之后返回成功，用于验证客户端重试
+     *
+     * @param key        区分不同测试的key
+     * @param failures   失败次数
+     * @param retryAfter 失败时返回的{@code Retry-After}秒数，小于0时不返回
+     * @return 本次是第几次请求
+     */
+    @RequestMapping(value = "/flaky", method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<ApiResult<Integer>> flaky(@RequestParam String key, @RequestParam(defaultValue = "1") int failures,
+                                                    @RequestParam(defaultValue = "-1") int retryAfter) {
+        int count = flakyCounters.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        log.info(" <=== 接收不稳定请求，key = {}, count = {}", key, count);
+        if (count <= failures) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+            if (retryAfter >= 0) {
+                builder.header(HeaderName.RETRY_AFTER.getValue(), String.valueOf(retryAfter));
+            }
+            return builder.body(ApiResult.success(count));
+        }
+        return ResponseEntity.ok(ApiResult.success(count));
+    }
+
     private Map<String, List<String>> handleRequestParams(HttpServletRequest request) {
         Map<String, List<String>> result = new LinkedHashMap<>();
         for (Map.Entry<String, String[]> entry : request.getParameterMap().entrySet()) {
@@ -7,7 +7,26 @@ import cn.tmkit.core.lang.MapUtil;
 import cn.tmkit.core.map.MultiValueMap;
 import cn.tmkit.core.support.Console;
 import cn.tmkit.http.HttpClient;
+import cn.tmkit.http.shf4j.AsyncExecutors;
+import cn.tmkit.http.shf4j.Client;
+import cn.tmkit.http.shf4j.ContentType;
+import cn.tmkit.http.shf4j.Factory;
+import cn.tmkit.http.shf4j.Options;
+import cn.tmkit.http.shf4j.HttpMethod;
+import cn.tmkit.http.shf4j.ProtocolPolicy;
+import cn.tmkit.http.shf4j.Request;
+import cn.tmkit.http.shf4j.RequestBody;
+import cn.tmkit.http.shf4j.Response;
+import cn.tmkit.http.shf4j.cache.CachingClient;
+import cn.tmkit.http.shf4j.cache.HttpCacheStats;
+import cn.tmkit.http.shf4j.coalesce.CoalescingClient;
+import cn.tmkit.http.shf4j.exceptions.HttpClientException;
+import cn.tmkit.http.shf4j.exceptions.RequestRejectedException;
+import cn.tmkit.http.shf4j.limit.HostLimitStats;
+import cn.tmkit.http.shf4j.limit.LimitingClient;
+import cn.tmkit.http.shf4j.retry.RetryPolicy;
 import cn.tmkit.json.sjf4j.BaseTypeRef;
+import cn.tmkit.json.sjf4j.util.JSONs;
 import cn.tmkit.test.apiserver.req.QueryReq;
 import cn.tmkit.test.apiserver.req.UserReq;
 import cn.tmkit.test.apiserver.vo.ApiResult;
@@ -16,7 +35,15 @@ import cn.tmkit.test.apiserver.vo.IpApiInfo;
 import cn.tmkit.test.apiserver.vo.SimplePostVO;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,4 +157,265 @@ public class ApiControllerAutoTest {
 
     }
 
+    @Test
+    public void formPostSizes() {
+        String url = serviceUrl + "/post/form";
+        File avatar = ClassLoaderUtil.getFile("mm1.png");
+        ApiResult<FormPostVO> apiResult = HttpClient.post(url)
+                .param("hobbies", "睡觉")
+                .param("hobbies", "写代码")
+                .param("avatarFile", avatar)
+                .bean(new BaseTypeRef<ApiResult<FormPostVO>>() {
+                });
+        FormPostVO formPostVO = apiResult.getData();
+        Console.log(formPostVO);
+        assertEquals(2, formPostVO.getParameterMap().get("hobbies").size());
+        assertEquals(avatar.length(), formPostVO.getFiles().get("avatarFile").get(0).getFileSize());
+    }
+
+    @Test
+    public void streamFixedLength() {
+        Map<String, Object> result = postStream(RequestBody.create(ContentType.APPLICATION_OCTET_STREAM,
+                new ByteArrayInputStream(new byte[100_000]), 100_000));
+        assertEquals(100_000, ((Number) result.get("contentLength")).longValue());
+        assertEquals(100_000, ((Number) result.get("size")).longValue());
+        assertNull(result.get("transferEncoding"));
+    }
+
+    @Test
+    public void streamChunked() {
+        Map<String, Object> result = postStream(RequestBody.create(ContentType.APPLICATION_OCTET_STREAM,
+                new ByteArrayInputStream(new byte[100_000])));
+        assertEquals(-1, ((Number) result.get("contentLength")).longValue());
+        assertEquals(100_000, ((Number) result.get("size")).longValue());
+        assertEquals("chunked", result.get("transferEncoding"));
+    }
+
+    @Test
+    public void streamAfterGetData() {
+        RequestBody body = RequestBody.create(ContentType.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(new byte[1000]));
+        // 输入流已读入内存，按内存中的内容发送
+        assertEquals(1000, body.getData().length);
+        assertTrue(body.isRepeatable());
+        Map<String, Object> result = postStream(body);
+        assertEquals(1000, ((Number) result.get("size")).longValue());
+    }
+
+    private Map<String, Object> postStream(RequestBody body) {
+        Request request = Request.builder().method(HttpMethod.POST, body).url(serviceUrl + "/post/body/stream").build();
+        try (Response response = Factory.get().build(null).execute(request, null)) {
+            ApiResult<Map<String, Object>> apiResult = JSONs.fromJson(response.body().string(StandardCharsets.UTF_8),
+                    new BaseTypeRef<ApiResult<Map<String, Object>>>() {
+                    });
+            Console.log(apiResult);
+            return apiResult.getData();
+        }
+    }
+
+    @Test
+    public void protocolH2c() {
+        String url = serviceUrl + "/protocol";
+        ApiResult<String> apiResult = HttpClient.get(url)
+                .options(Options.DEFAULT_OPTIONS.newBuilder().protocolPolicy(ProtocolPolicy.H2C_PRIOR_KNOWLEDGE))
+                .bean(new BaseTypeRef<ApiResult<String>>() {
+                });
+        assertNotNull(apiResult);
+        assertEquals(ApiResult.SUCCESS_CODE, apiResult.getCode());
+        assertEquals("HTTP/2.0", apiResult.getData());
+    }
+
+    @Test
+    public void cacheMaxAge() {
+        CachingClient client = CachingClient.builder(Factory.get().build(null)).build();
+        HttpClient.setClient("cache-max-age", client);
+        String url = serviceUrl + "/cache/max-age";
+        Long first = HttpClient.get(url, "cache-max-age").queryParam("seconds", 60)
+                .bean(new BaseTypeRef<ApiResult<Long>>() {
+                }).getData();
+        Long second = HttpClient.get(url, "cache-max-age").queryParam("seconds", 60)
+                .bean(new BaseTypeRef<ApiResult<Long>>() {
+                }).getData();
+        assertEquals(first, second);
+        HttpCacheStats stats = client.stats();
+        Console.log(stats);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    public void cacheHead() throws Exception {
+        CachingClient client = CachingClient.builder(Factory.get().build(null)).build();
+        HttpClient.setClient("cache-head", client);
+        String url = serviceUrl + "/cache/max-age";
+        HttpClient.get(url, "cache-head").queryParam("seconds", 60).string();
+        // HEAD使用GET的缓存，不访问网络
+        try (Response response = HttpClient.head(url, "cache-head").queryParam("seconds", 60).execute()) {
+            assertEquals(200, response.statusCode());
+        }
+        HttpCacheStats stats = client.stats();
+        Console.log(stats);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    public void cacheEtag() {
+        CachingClient client = CachingClient.builder(Factory.get().build(null)).build();
+        HttpClient.setClient("cache-etag", client);
+        String url = serviceUrl + "/cache/etag";
+        Long first = HttpClient.get(url, "cache-etag").bean(new BaseTypeRef<ApiResult<Long>>() {
+        }).getData();
+        Long second = HttpClient.get(url, "cache-etag").bean(new BaseTypeRef<ApiResult<Long>>() {
+        }).getData();
+        assertEquals(first, second);
+        HttpCacheStats stats = client.stats();
+        Console.log(stats);
+        assertEquals(1, stats.revalidationCount());
+        assertEquals(1, stats.notModifiedCount());
+    }
+
+    @Test
+    public void cacheLastModified() {
+        CachingClient client = CachingClient.builder(Factory.get().build(null)).build();
+        HttpClient.setClient("cache-last-modified", client);
+        String url = serviceUrl + "/cache/last-modified";
+        Long first = HttpClient.get(url, "cache-last-modified").bean(new BaseTypeRef<ApiResult<Long>>() {
+        }).getData();
+        Long second = HttpClient.get(url, "cache-last-modified").bean(new BaseTypeRef<ApiResult<Long>>() {
+        }).getData();
+        assertEquals(first, second);
+        assertEquals(1, client.stats().notModifiedCount());
+    }
+
+    @Test
+    public void coalesceSlow() throws Exception {
+        CoalescingClient client = CoalescingClient.builder(Factory.get().build(null)).build();
+        HttpClient.setClient("coalesce", client);
+        String url = serviceUrl + "/slow";
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> HttpClient.get(url, "coalesce").queryParam("millis", 1000)
+                        .bean(new BaseTypeRef<ApiResult<Long>>() {
+                        }).getData()));
+            }
+            Set<Long> results = new HashSet<>();
+            for (Future<Long> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            Console.log("network = {}, coalesced = {}", client.networkCount(), client.coalescedCount());
+            assertEquals(1, results.size());
+            assertEquals(20, client.networkCount() + client.coalescedCount());
+            assertTrue(client.coalescedCount() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void limitSlow() throws Exception {
+        LimitingClient client = LimitingClient.builder(Factory.get().build(null))
+                .maxConcurrency(2)
+                .maxQueueSize(2)
+                .maxQueueWait(100, TimeUnit.MILLISECONDS)
+                .build();
+        HttpClient.setClient("limited", client);
+        String url = serviceUrl + "/slow";
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        HttpClient.get(url, "limited").queryParam("millis", 1000).string();
+                        return true;
+                    } catch (RequestRejectedException e) {
+                        return false;
+                    }
+                }));
+            }
+            int succeeded = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(10, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            Map<String, HostLimitStats> stats = client.stats();
+            Console.log(stats);
+            assertEquals(2, succeeded);
+            assertEquals(8, stats.values().iterator().next().rejected());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void limitAsyncQueued() throws Exception {
+        LimitingClient client = LimitingClient.builder(new Client.DefaultClient())
+                .maxConcurrency(2)
+                .maxQueueSize(1024)
+                .maxQueueWait(60, TimeUnit.SECONDS)
+                .build();
+        // 排队的异步请求多于线程池的线程数，排队不能占用线程，否则正在执行的请求无法完成
+        int count = AsyncExecutors.DEFAULT_MAX_THREADS * 2;
+        List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Request request = Request.builder().method(HttpMethod.GET).url(serviceUrl + "/slow?millis=20").build();
+            futures.add(client.executeAsync(request, null));
+        }
+        for (CompletableFuture<Response> future : futures) {
+            try (Response response = future.get(60, TimeUnit.SECONDS)) {
+                assertEquals(200, response.statusCode());
+            }
+        }
+        HostLimitStats stats = client.stats().values().iterator().next();
+        Console.log(stats);
+        assertEquals(0, stats.rejected());
+        assertEquals(0, stats.queued());
+    }
+
+    @Test
+    public void retryFlaky() {
+        String url = serviceUrl + "/flaky";
+        Options.Builder options = Options.DEFAULT_OPTIONS.newBuilder()
+                .retryPolicy(RetryPolicy.builder().maxRetries(2).build());
+        ApiResult<Integer> apiResult = HttpClient.get(url).queryParam("key", Ids.uuidNoDash())
+                .queryParam("failures", 2)
+                .options(options)
+                .bean(new BaseTypeRef<ApiResult<Integer>>() {
+                });
+        Console.log(apiResult);
+        assertEquals(3, apiResult.getData());
+    }
+
+    @Test
+    public void retryFlakyPostNotRetried() {
+        String url = serviceUrl + "/flaky";
+        String key = Ids.uuidNoDash();
+        Options.Builder options = Options.DEFAULT_OPTIONS.newBuilder()
+                .retryPolicy(RetryPolicy.builder().maxRetries(2).build());
+        assertThrows(HttpClientException.class, () -> HttpClient.post(url).queryParam("key", key).options(options).string());
+        // POST只发出了一次
+        ApiResult<Integer> apiResult = HttpClient.get(url).queryParam("key", key)
+                .bean(new BaseTypeRef<ApiResult<Integer>>() {
+                });
+        assertEquals(2, apiResult.getData());
+    }
+
+    @Test
+    public void retryFlakyRetryAfter() {
+        String url = serviceUrl + "/flaky";
+        Options.Builder options = Options.DEFAULT_OPTIONS.newBuilder()
+                .retryPolicy(RetryPolicy.builder().maxRetries(1).build());
+        long start = System.currentTimeMillis();
+        ApiResult<Integer> apiResult = HttpClient.get(url).queryParam("key", Ids.uuidNoDash())
+                .queryParam("retryAfter", 1)
+                .options(options)
+                .bean(new BaseTypeRef<ApiResult<Integer>>() {
+                });
+        assertEquals(2, apiResult.getData());
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+    }
+
 }
@@ -0,0 +1,205 @@
+package cn.tmkit.core.bean;
+
+import cn.tmkit.core.exception.ReflectiveOperationRuntimeException;
+import cn.tmkit.core.lang.reflect.Reflects;
+import cn.tmkit.core.support.SimpleCache;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 类的属性访问表，每个类只构建一次并缓存
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-08
+ */
+final class BeanAccessor {
+
+    /**
+     * 缓存已经构建的访问表
+     */
+    private static final SimpleCache<Class<?>, BeanAccessor> CACHE = new SimpleCache<>(1024);
+
+    /**
+     * 类
+     */
+    private final Class<?> beanClass;
+
+    /**
+     * 属性访问器列表，顺序与{@linkplain BeanIntrospectCache}中的属性描述一致
+     */
+    private final PropertyAccessor[] properties;
+
+    /**
+     * 属性名与访问器的索引
+     */
+    private final Map<String, PropertyAccessor> propertyMap;
+
+    /**
+     * 可读的属性访问器列表
+     */
+    private final PropertyAccessor[] readableProperties;
+
+    /**
+     * 可读的属性名列表，与{@linkplain #readableProperties}一一对应
+     */
+    private final String[] readableNames;
+
+    /**
+     * 可读的属性名与下标的索引
+     */
+    private final Map<String, Integer> readableIndex;
+
+    /**
+     * 可写的属性访问器列表
+     */
+    private final PropertyAccessor[] writableProperties;
+
+    /**
+     * 无参构造器的调用，首次使用时编译
+     */
+    private volatile Supplier<Object> instantiator;
+
+    private BeanAccessor(Class<?> beanClass) {
+        this.beanClass = beanClass;
+        List<PropertyDescriptor> propertyDescriptors = BeanIntrospectCache.getInstance().getPropertyDescriptors(beanClass);
+        this.properties = new PropertyAccessor[propertyDescriptors.size()];
+        this.propertyMap = new HashMap<>((int) (propertyDescriptors.size() / 0.75F) + 1);
+        for (int i = 0; i < properties.length; i++) {
+            PropertyAccessor accessor = new PropertyAccessor(propertyDescriptors.get(i));
+            properties[i] = accessor;
+            propertyMap.put(accessor.getName(), accessor);
+        }
+        this.readableProperties = Arrays.stream(properties).filter(PropertyAccessor::isReadable)
+                .toArray(PropertyAccessor[]::new);
+        this.readableNames = new String[readableProperties.length];
+        this.readableIndex = new HashMap<>((int) (readableProperties.length / 0.75F) + 1);
+        for (int i = 0; i < readableProperties.length; i++) {
+            readableNames[i] = readableProperties[i].getName();
+            readableIndex.put(readableNames[i], i);
+        }
+        this.writableProperties = Arrays.stream(properties).filter(PropertyAccessor::isWritable)
+                .toArray(PropertyAccessor[]::new);
+    }
+
+    /**
+     * 属性访问器列表
+     *
+     * @return 访问器数组，不可修改
+     */
+    PropertyAccessor[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * 可读的属性访问器列表
+     *
+     * @return 访问器数组，不可修改
+     */
+    PropertyAccessor[] getReadableProperties() {
+        return readableProperties;
+    }
+
+    /**
+     * 可读的属性名列表
+     *
+     * @return 属性名数组，不可修改
+     */
+    String[] getReadableNames() {
+        return readableNames;
+    }
+
+    /**
+     * 可读属性的下标
+     *
+     * @param name 属性名
+     * @return 下标，不存在时返回-1
+     */
+    int indexOfReadable(Object name) {
+        Integer index = readableIndex.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 可写的属性访问器列表
+     *
+     * @return 访问器数组，不可修改
+     */
+    PropertyAccessor[] getWritableProperties() {
+        return writableProperties;
+    }
+
+    /**
+     * 根据属性名获取访问器
+     *
+     * @param name 属性名
+     * @return 访问器，不存在时返回{@code null}
+     */
+    PropertyAccessor getProperty(String name) {
+        return propertyMap.get(name);
+    }
+
+    /**
+     * 通过无参构造器创建对象，构造器只解析一次
+     *
+     * @return 新的对象
+     */
+    Object newInstance() {
+        Supplier<Object> supplier = instantiator;
+        if (supplier == null) {
+            supplier = compileInstantiator(beanClass);
+            instantiator = supplier;
+        }
+        return supplier.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> compileInstantiator(Class<?> beanClass) {
+        final Constructor<?> constructor = Reflects.getConstructor(beanClass);
+        if (constructor == null) {
+            throw new ReflectiveOperationRuntimeException("No default constructor found : " + beanClass);
+        }
+        if (!Modifier.isAbstract(beanClass.getModifiers()) && PropertyAccessor.canCompile(constructor)) {
+            try {
+                MethodHandle handle = PropertyAccessor.LOOKUP.unreflectConstructor(constructor);
+                CallSite site = LambdaMetafactory.metafactory(PropertyAccessor.LOOKUP, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle,
+                        MethodType.methodType(beanClass));
+                return (Supplier<Object>) site.getTarget().invokeExact();
+            } catch (Throwable ignored) {
+                // 退化为反射调用
+            }
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new ReflectiveOperationRuntimeException("The Class[" + beanClass + "] newing instance occur exception", e);
+            }
+        };
+    }
+
+    /**
+     * 获取类的属性访问表
+     *
+     * @param beanClass 类
+     * @return 属性访问表
+     */
+    static BeanAccessor of(Class<?> beanClass) {
+        return CACHE.computeIfAbsent(beanClass, BeanAccessor::new);
+    }
+
+}
@@ -0,0 +1,194 @@
+package cn.tmkit.core.bean;
+
+import cn.tmkit.core.convert.ConverterRegistry;
+import cn.tmkit.core.lang.Asserts;
+import cn.tmkit.core.lang.Classes;
+import cn.tmkit.core.support.SimpleCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 编译后的Bean属性复制器。
+ * <p>按(源类型, 目标类型)构建一次属性映射计划并缓存，复制时直接调用编译后的getter/setter，
+ * 无需查找属性描述，也不经过{@linkplain java.lang.reflect.Method#invoke(Object, Object...)}。</p>
+ * <p>复制语义与{@linkplain Beans#copyProperties(Object, Object, CopyOption)}一致，
+ * 支持忽略属性、忽略{@code null}值、忽略空字符串以及{@linkplain ValueConverter}。</p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-08
+ */
+public final class BeanCopier {
+
+    /**
+     * 缓存已经构建的复制器
+     */
+    private static final SimpleCache<CopierKey, BeanCopier> CACHE = new SimpleCache<>(1024);
+
+    /**
+     * 默认的复制配置，只读
+     */
+    private static final CopyOption DEFAULT_COPY_OPTION = new CopyOption();
+
+    /**
+     * 属性映射计划
+     */
+    private final Mapping[] mappings;
+
+    private BeanCopier(Class<?> sourceClass, Class<?> targetClass) {
+        BeanAccessor sourceAccessor = BeanAccessor.of(sourceClass);
+        List<Mapping> list = new ArrayList<>();
+        for (PropertyAccessor writer : BeanAccessor.of(targetClass).getProperties()) {
+            if (!writer.isWritable()) {
+                continue;
+            }
+            PropertyAccessor reader = sourceAccessor.getProperty(writer.getName());
+            if (reader == null || !reader.isReadable()) {
+                continue;
+            }
+            list.add(new Mapping(reader, writer));
+        }
+        this.mappings = list.toArray(new Mapping[0]);
+    }
+
+    /**
+     * 获取复制器，相同的源类型与目标类型共享同一个复制器
+     *
+     * @param sourceClass 源类型
+     * @param targetClass 目标类型
+     * @return 复制器
+     */
+    public static BeanCopier create(Class<?> sourceClass, Class<?> targetClass) {
+        Asserts.notNull(sourceClass, "sourceClass == null");
+        Asserts.notNull(targetClass, "targetClass == null");
+        return CACHE.computeIfAbsent(new CopierKey(sourceClass, targetClass),
+                key -> new BeanCopier(key.sourceClass, key.targetClass));
+    }
+
+    /**
+     * 对象复制，源对象与目标对象的类型必须与创建复制器时的类型一致
+     *
+     * @param source     源对象
+     * @param target     目标对象
+     * @param copyOption 复制配置，为空时使用默认配置
+     */
+    public void copy(Object source, Object target, CopyOption copyOption) {
+        if (source == null || target == null) {
+            return;
+        }
+        final CopyOption co = (copyOption == null) ? DEFAULT_COPY_OPTION : copyOption;
+        final List<String> ignoreProperties = (co.getIgnoreProperties() == null) ?
+                Collections.emptyList() : co.getIgnoreProperties();
+        final List<ValueConverter> valueConverters = co.getValueConverters();
+        final boolean ignoreNullValue = co.isIgnoreNullValue();
+        final boolean ignoreEmptyString = co.isIgnoreEmptyString();
+
+        for (Mapping mapping : mappings) {
+            String key = mapping.name;
+            if (!ignoreProperties.isEmpty() && ignoreProperties.contains(key)) {
+                continue;
+            }
+            Object value = mapping.reader.get(source);
+            if (value == null) {
+                if (ignoreNullValue) {
+                    continue;
+                }
+            } else if (ignoreEmptyString && value instanceof String && ((String) value).isEmpty()) {
+                continue;
+            }
+            ValueConverter valueConverter = valueConverters.isEmpty() ? null : findValueConverter(valueConverters, source, key);
+            Object param;
+            if (valueConverter != null) {
+                param = valueConverter.convert(source, value, mapping.writeType);
+            } else if (value == null) {
+                param = Classes.getDefaultValue(mapping.writeType);
+            } else if (mapping.assignable) {
+                param = value;
+            } else {
+                param = ConverterRegistry.getInstance().convert(value, mapping.writeType);
+            }
+            mapping.writer.set(target, param);
+        }
+    }
+
+    /**
+     * 查找第一个匹配的值转换器
+     *
+     * @param valueConverters 值转换器列表
+     * @param source          源对象
+     * @param key             属性名或键名
+     * @return 值转换器，没有匹配时返回{@code null}
+     */
+    static ValueConverter findValueConverter(List<ValueConverter> valueConverters, Object source, String key) {
+        for (ValueConverter valueConverter : valueConverters) {
+            if (valueConverter.matches(source, key)) {
+                return valueConverter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 单个属性的映射
+     */
+    private static final class Mapping {
+
+        private final String name;
+
+        private final PropertyAccessor reader;
+
+        private final PropertyAccessor writer;
+
+        private final Class<?> writeType;
+
+        /**
+         * 源属性类型可以直接赋值给目标属性，无需类型转换
+         */
+        private final boolean assignable;
+
+        private Mapping(PropertyAccessor reader, PropertyAccessor writer) {
+            this.name = writer.getName();
+            this.reader = reader;
+            this.writer = writer;
+            this.writeType = writer.getWriteType();
+            this.assignable = Classes.isAssignable(writeType, reader.getReadType());
+        }
+
+    }
+
+    /**
+     * 复制器缓存的键
+     */
+    private static final class CopierKey {
+
+        private final Class<?> sourceClass;
+
+        private final Class<?> targetClass;
+
+        private CopierKey(Class<?> sourceClass, Class<?> targetClass) {
+            this.sourceClass = sourceClass;
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CopierKey that = (CopierKey) o;
+            return sourceClass == that.sourceClass && targetClass == that.targetClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sourceClass.hashCode() + targetClass.hashCode();
+        }
+
+    }
+
+}
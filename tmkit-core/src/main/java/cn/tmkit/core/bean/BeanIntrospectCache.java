@@ -2,6 +2,7 @@ package cn.tmkit.core.bean;
 
 import cn.tmkit.core.exception.BeanException;
 import cn.tmkit.core.lang.reflect.Singletons;
+import cn.tmkit.core.support.CacheStats;
 import cn.tmkit.core.support.SimpleCache;
 
 import java.beans.BeanInfo;
@@ -38,28 +39,29 @@ public class BeanIntrospectCache {
      */
     public List<PropertyDescriptor> getPropertyDescriptors(Class<?> beanClass) {
         Objects.requireNonNull(beanClass, "BeanClass == null");
-        List<PropertyDescriptor> propertyDescriptorList;
-        synchronized (descriptorsCache) {
-            propertyDescriptorList = descriptorsCache.get(beanClass);
-        }
-        if (propertyDescriptorList == null) {
-            try {
-                BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
-                PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-                propertyDescriptorList = new ArrayList<>(propertyDescriptors.length);
-                for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                    if (!"class".equals(propertyDescriptor.getName())) {
-                        propertyDescriptorList.add(propertyDescriptor);
-                    }
-                }
-                synchronized (descriptorsCache) {
-                    descriptorsCache.put(beanClass, propertyDescriptorList);
+        return descriptorsCache.computeIfAbsent(beanClass, BeanIntrospectCache::introspect);
+    }
+
+    /**
+     * 内省Javabean的属性描述列表
+     *
+     * @param beanClass 对象内容
+     * @return {@code PropertyDescriptor}列表
+     */
+    private static List<PropertyDescriptor> introspect(Class<?> beanClass) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
+            PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+            List<PropertyDescriptor> propertyDescriptorList = new ArrayList<>(propertyDescriptors.length);
+            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+                if (!"class".equals(propertyDescriptor.getName())) {
+                    propertyDescriptorList.add(propertyDescriptor);
                 }
-            } catch (IntrospectionException e) {
-                throw new BeanException(String.format("Failed to obtain BeanInfo for class [%s]", beanClass.getName()), e);
             }
+            return propertyDescriptorList;
+        } catch (IntrospectionException e) {
+            throw new BeanException(String.format("Failed to obtain BeanInfo for class [%s]", beanClass.getName()), e);
         }
-        return propertyDescriptorList;
     }
 
     /**
@@ -86,6 +88,15 @@ public class BeanIntrospectCache {
         descriptorsCache.clear();
     }
 
+    /**
+     * 返回缓存的统计快照
+     *
+     * @return 统计快照
+     */
+    public CacheStats stats() {
+        return descriptorsCache.stats();
+    }
+
     /**
      * 返回{@linkplain BeanIntrospectCache}单例
      *
@@ -0,0 +1,135 @@
+package cn.tmkit.core.bean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 集合对象的批量复制。
+ * <p>目标类型的构造器及属性映射计划只解析一次，所有元素复用；数量达到阈值时按下标切分到{@linkplain ForkJoinPool}中并行复制，
+ * 结果按下标写回，顺序与源集合一致。</p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-09
+ */
+final class BeanListCopier {
+
+    /**
+     * 并行复制时每个子任务最少处理的元素数
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private BeanListCopier() {
+    }
+
+    /**
+     * 批量复制
+     *
+     * @param src               源集合
+     * @param targetClass       目标类型
+     * @param copyOption        复制配置
+     * @param parallelThreshold 并行复制的阈值，元素数不小于该值时并行复制，小于等于0表示不并行
+     * @param <E>               目标类型
+     * @return 目标集合，可修改
+     */
+    @SuppressWarnings("unchecked")
+    static <E> List<E> copy(Collection<?> src, Class<E> targetClass, CopyOption copyOption, int parallelThreshold) {
+        final Object[] sources = src.toArray();
+        final int size = sources.length;
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+        final CopyOption co = (copyOption == null) ? new CopyOption() : copyOption;
+        final BeanAccessor targetAccessor = BeanAccessor.of(targetClass);
+        final Object[] results = new Object[size];
+        if (parallelThreshold > 0 && size >= parallelThreshold) {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (ForkJoinPool.getCommonPoolParallelism() * 4));
+            ForkJoinPool.commonPool().invoke(new CopyTask(sources, results, 0, size, chunkSize, targetClass,
+                    targetAccessor, co));
+        } else {
+            copyRange(sources, results, 0, size, targetClass, targetAccessor, co);
+        }
+        return new ArrayList<>((List<E>) Arrays.asList(results));
+    }
+
+    /**
+     * 复制下标区间[from, to)的元素
+     */
+    private static void copyRange(Object[] sources, Object[] results, int from, int to, Class<?> targetClass,
+                                  BeanAccessor targetAccessor, CopyOption copyOption) {
+        Class<?> lastSourceClass = null;
+        BeanCopier copier = null;
+        for (int i = from; i < to; i++) {
+            Object source = sources[i];
+            if (source == null) {
+                continue;
+            }
+            Object target = targetAccessor.newInstance();
+            if (source instanceof Map || target instanceof Map) {
+                Beans.copyProperties(source, target, copyOption);
+            } else {
+                // 源集合通常是同一类型，只在类型变化时重新查找复制器
+                if (source.getClass() != lastSourceClass) {
+                    lastSourceClass = source.getClass();
+                    copier = BeanCopier.create(lastSourceClass, targetClass);
+                }
+                copier.copy(source, target, copyOption);
+            }
+            results[i] = target;
+        }
+    }
+
+    /**
+     * 按下标二分的并行复制任务
+     */
+    private static final class CopyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Object[] sources;
+
+        private final transient Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        private final Class<?> targetClass;
+
+        private final transient BeanAccessor targetAccessor;
+
+        private final CopyOption copyOption;
+
+        private CopyTask(Object[] sources, Object[] results, int from, int to, int chunkSize, Class<?> targetClass,
+                         BeanAccessor targetAccessor, CopyOption copyOption) {
+            this.sources = sources;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.targetClass = targetClass;
+            this.targetAccessor = targetAccessor;
+            this.copyOption = copyOption;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                copyRange(sources, results, from, to, targetClass, targetAccessor, copyOption);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CopyTask(sources, results, from, mid, chunkSize, targetClass, targetAccessor, copyOption),
+                    new CopyTask(sources, results, mid, to, chunkSize, targetClass, targetAccessor, copyOption));
+        }
+
+    }
+
+}
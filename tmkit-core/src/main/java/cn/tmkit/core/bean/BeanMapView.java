@@ -0,0 +1,145 @@
+package cn.tmkit.core.bean;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 固定布局的Bean属性Map。
+ * <p>键为类的可读属性名（同一个类共享），值在创建时一次性读取到数组中，按下标存取，不涉及哈希表的扩容；
+ * 只能修改已有键的值，不能新增或删除键。</p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-10
+ */
+final class BeanMapView extends AbstractMap<String, Object> {
+
+    private final BeanAccessor accessor;
+
+    private final Object[] values;
+
+    BeanMapView(BeanAccessor accessor, Object bean) {
+        this.accessor = accessor;
+        PropertyAccessor[] properties = accessor.getReadableProperties();
+        this.values = new Object[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            values[i] = properties[i].get(bean);
+        }
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return accessor.indexOfReadable(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = accessor.indexOfReadable(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = accessor.indexOfReadable(key);
+        if (index < 0) {
+            throw new UnsupportedOperationException("Unknown property: " + key);
+        }
+        Object old = values[index];
+        values[index] = value;
+        return old;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (index >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        return new IndexedEntry(index++);
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+        };
+    }
+
+    /**
+     * 按下标读写的条目
+     */
+    private final class IndexedEntry implements Map.Entry<String, Object> {
+
+        private final int index;
+
+        private IndexedEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return accessor.getReadableNames()[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+    }
+
+}
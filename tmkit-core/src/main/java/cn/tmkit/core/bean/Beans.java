@@ -3,7 +3,6 @@ package cn.tmkit.core.bean;
 import cn.tmkit.core.convert.ConverterRegistry;
 import cn.tmkit.core.exception.BeanException;
 import cn.tmkit.core.lang.Arrays;
-import cn.tmkit.core.lang.Collections;
 import cn.tmkit.core.lang.Objects;
 import cn.tmkit.core.lang.*;
 import cn.tmkit.core.lang.reflect.Reflects;
@@ -142,7 +141,11 @@ public class Beans {
      * @return Map
      */
     public static Map<String, Object> beanToMap(Object bean, boolean ignoreNullValue) {
-        Map<String, Object> targetMap = new LinkedHashMap<>();
+        if (bean == null) {
+            return new LinkedHashMap<>();
+        }
+        int size = BeanAccessor.of(bean.getClass()).getReadableProperties().length;
+        Map<String, Object> targetMap = new LinkedHashMap<>((int) (size / 0.75F) + 1);
         beanToMap(bean, targetMap, ignoreNullValue);
         return targetMap;
     }
@@ -158,24 +161,27 @@ public class Beans {
         if (bean == null || targetMap == null) {
             return;
         }
-        Method readMethod;
         Object value;
-        for (PropertyDescriptor propertyDescriptor : getPropertyDescriptorList(bean.getClass())) {
-            readMethod = propertyDescriptor.getReadMethod();
-            if (readMethod != null) {
-                try {
-                    value = readMethod.invoke(bean);
-                    if (ignoreNullValue && value != null) {
-                        targetMap.put(propertyDescriptor.getName(), value);
-                    } else {
-                        targetMap.put(propertyDescriptor.getName(), value);
-                    }
-                } catch (ReflectiveOperationException e) {
-                    throw new BeanException(e);
-                }
+        for (PropertyAccessor accessor : BeanAccessor.of(bean.getClass()).getReadableProperties()) {
+            value = accessor.get(bean);
+            if (value != null || !ignoreNullValue) {
+                targetMap.put(accessor.getName(), value);
             }
         }
+    }
 
+    /**
+     * 对象转为固定布局的Map，键为对象的可读属性名，值在调用时一次性读取。
+     * 同一个类的所有Map共享键的布局，按下标存取，不会发生哈希表扩容；只能修改已有键的值，不能新增或删除键。
+     *
+     * @param bean bean对象
+     * @return 固定布局的Map，{@code bean}为{@code null}时返回空Map
+     */
+    public static Map<String, Object> beanToMapView(Object bean) {
+        if (bean == null) {
+            return java.util.Collections.emptyMap();
+        }
+        return new BeanMapView(BeanAccessor.of(bean.getClass()), bean);
     }
 
     /**
@@ -192,12 +198,9 @@ public class Beans {
         if (copyOption == null) {
             copyOption = new CopyOption();
         }
-        final CopyOption finalCo = copyOption;
-        final Map<String, PropertyDescriptor> propertyDescriptorMap = getPropertyDescriptorMap(bean.getClass());
-        propertyDescriptorMap.forEach((key, pd) -> {
-            Object value = Reflects.invoke(bean, pd.getReadMethod());
-            copyToMap(bean, key, value, targetMap, finalCo);
-        });
+        for (PropertyAccessor accessor : BeanAccessor.of(bean.getClass()).getReadableProperties()) {
+            copyToMap(bean, accessor.getName(), accessor.get(bean), targetMap, copyOption);
+        }
     }
 
     /**
@@ -232,49 +235,49 @@ public class Beans {
         if (copyOption == null) {
             copyOption = new CopyOption();
         }
-        final CopyOption finalCo = copyOption;
-        getPropertyDescriptorList(target.getClass()).stream().filter(Objects::nonNull)
-                .filter(pd -> Objects.nonNull(pd.getWriteMethod()))
-                .forEach(pd -> {
-                    Method writeMethod = pd.getWriteMethod();
-                    if (writeMethod == null) {
-                        return;
-                    }
-                    String key = pd.getName();
-                    if (finalCo.getIgnoreProperties().contains(key)) {
-                        return;
-                    }
-                    Object value = source.get(key);
-                    Class<?> parameterType = writeMethod.getParameterTypes()[0];
-                    if (value == null) {
-                        if (finalCo.isIgnoreNullValue()) {
-                            return;
-                        }
-                        setMethodValue(source, key, finalCo, target, writeMethod, null, parameterType);
-                    } else {
-                        if (value instanceof String) {
-                            String str = (String) value;
-                            if (StringUtil.isEmpty(str) && finalCo.isIgnoreEmptyString()) {
-                                return;
-                            }
-
-                        }
-                        setMethodValue(source, key, finalCo, target, writeMethod, value, parameterType);
-                    }
-                });
+        final List<String> ignoreProperties = copyOption.getIgnoreProperties();
+        for (PropertyAccessor accessor : BeanAccessor.of(target.getClass()).getWritableProperties()) {
+            String key = accessor.getName();
+            if (ignoreProperties.contains(key)) {
+                continue;
+            }
+            Object value = source.get(key);
+            if (value == null) {
+                if (copyOption.isIgnoreNullValue()) {
+                    continue;
+                }
+            } else if (value instanceof String && ((String) value).isEmpty() && copyOption.isIgnoreEmptyString()) {
+                continue;
+            }
+            setPropertyValue(source, key, copyOption, target, accessor, value);
+        }
     }
 
-    private static void setMethodValue(Object source, String key, CopyOption copyOption, Object target,
-                                       Method writeMethod, Object param, Class<?> parameterType) {
-        Optional<ValueConverter> optional = copyOption.getValueConverters().stream()
-                .filter(valueConverter -> valueConverter.matches(source, key))
-                .findFirst();
-        if (optional.isPresent()) {
-            Reflects.invoke(target, writeMethod, optional.get().convert(source, param, parameterType));
+    /**
+     * 设置属性值，优先使用匹配的{@linkplain ValueConverter}，其次在类型不兼容时使用{@linkplain ConverterRegistry}转换
+     *
+     * @param source     源对象
+     * @param key        属性名
+     * @param copyOption 复制配置
+     * @param target     目标对象
+     * @param accessor   目标属性访问器
+     * @param value      属性值
+     */
+    private static void setPropertyValue(Object source, String key, CopyOption copyOption, Object target,
+                                         PropertyAccessor accessor, Object value) {
+        Class<?> parameterType = accessor.getWriteType();
+        ValueConverter valueConverter = BeanCopier.findValueConverter(copyOption.getValueConverters(), source, key);
+        Object param;
+        if (valueConverter != null) {
+            param = valueConverter.convert(source, value, parameterType);
+        } else if (value == null) {
+            param = ClassUtil.getDefaultValue(parameterType);
+        } else if (accessor.isAssignableValue(value)) {
+            param = value;
         } else {
-            Object defaultValue = (param == null) ? ClassUtil.getDefaultValue(parameterType) : ConverterRegistry.getInstance().convert(param, parameterType);
-            Reflects.invoke(target, writeMethod, defaultValue);
+            param = ConverterRegistry.getInstance().convert(value, parameterType);
         }
+        accessor.set(target, param);
     }
 
     /**
@@ -389,37 +392,7 @@ public class Beans {
             if (target instanceof Map) {
                 beanToMap(source, (Map<String, Object>) target, copyOption);
             } else {
-                final CopyOption finalCo = copyOption;
-                final Map<String, PropertyDescriptor> sourcePdMap = getPropertyDescriptorMap(source.getClass());
-                getPropertyDescriptorList(target.getClass()).stream().filter(Objects::nonNull)
-                        .filter(pd -> Objects.nonNull(pd.getWriteMethod()))
-                        .forEach(pd -> {
-                            String key = pd.getName();
-                            if (finalCo.getIgnoreProperties().contains(key)) {
-                                return;
-                            }
-                            PropertyDescriptor sourcePd = sourcePdMap.get(key);
-                            if (sourcePd == null || sourcePd.getReadMethod() == null) {
-                                return;
-                            }
-                            Class<?> parameterType = pd.getWriteMethod().getParameterTypes()[0];
-                            Object value = Reflects.invoke(source, sourcePd.getReadMethod());
-                            if (value == null) {
-                                if (finalCo.isIgnoreNullValue()) {
-                                    return;
-                                }
-                                setMethodValue(source, key, finalCo, target, pd.getWriteMethod(), null, parameterType);
-
-                            } else {
-                                if (value instanceof String) {
-                                    String str = (String) value;
-                                    if (StringUtil.isEmpty(str) && finalCo.isIgnoreEmptyString()) {
-                                        return;
-                                    }
-                                }
-                                setMethodValue(source, key, finalCo, target, pd.getWriteMethod(), value, parameterType);
-                            }
-                        });
+                BeanCopier.create(source.getClass(), target.getClass()).copy(source, target, copyOption);
             }
         }
     }
@@ -444,16 +417,53 @@ public class Beans {
      * @param <E>泛型标记
      * @return 目标集合
      */
-    @SuppressWarnings("all")
     public static <E> List<E> copyProperties(Collection<?> src, Class<E> targetClass, String... ignoreProperties) {
+        return copyToList(src, targetClass, new CopyOption(ignoreProperties));
+    }
+
+    /**
+     * 批量拷贝集合中的对象，目标类型的构造器和属性映射只解析一次
+     *
+     * @param src         源集合
+     * @param targetClass 目标bean类型
+     * @param <E>         泛型标记
+     * @return 目标集合，顺序与源集合一致
+     */
+    public static <E> List<E> copyToList(Collection<?> src, Class<E> targetClass) {
+        return copyToList(src, targetClass, null);
+    }
+
+    /**
+     * 批量拷贝集合中的对象，目标类型的构造器和属性映射只解析一次
+     *
+     * @param src         源集合
+     * @param targetClass 目标bean类型
+     * @param copyOption  复制配置
+     * @param <E>         泛型标记
+     * @return 目标集合，顺序与源集合一致
+     */
+    public static <E> List<E> copyToList(Collection<?> src, Class<E> targetClass, CopyOption copyOption) {
+        return copyToList(src, targetClass, copyOption, 0);
+    }
+
+    /**
+     * 批量拷贝集合中的对象，目标类型的构造器和属性映射只解析一次。
+     * 元素数量不小于{@code parallelThreshold}时切分到{@linkplain java.util.concurrent.ForkJoinPool#commonPool()}并行复制，
+     * 此时{@linkplain ValueConverter}需要是线程安全的。
+     *
+     * @param src               源集合
+     * @param targetClass       目标bean类型
+     * @param copyOption        复制配置
+     * @param parallelThreshold 并行复制的阈值，小于等于0表示不并行
+     * @param <E>               泛型标记
+     * @return 目标集合，顺序与源集合一致
+     */
+    public static <E> List<E> copyToList(Collection<?> src, Class<E> targetClass, CopyOption copyOption,
+                                         int parallelThreshold) {
         if (Objects.isAnyNull(src, targetClass)) {
             return null;
         }
-        List<E> list = Collections.arrayList();
-        for (Object obj : src) {
-            list.add(copyProperties(obj, targetClass, ignoreProperties));
-        }
-        return list;
+        return BeanListCopier.copy(src, targetClass, copyOption, parallelThreshold);
     }
 
     /**
@@ -520,11 +530,9 @@ public class Beans {
             if (copyOption.isIgnoreNullValue()) {
                 return;
             }
-            Optional<ValueConverter> optional = copyOption.getValueConverters().stream()
-                    .filter(valueConverter -> valueConverter.matches(source, key))
-                    .findFirst();
-            if (optional.isPresent()) {
-                targetMap.put(key, optional.get().convert(source, null, Void.class));
+            ValueConverter valueConverter = BeanCopier.findValueConverter(copyOption.getValueConverters(), source, key);
+            if (valueConverter != null) {
+                targetMap.put(key, valueConverter.convert(source, null, Void.class));
             } else {
                 targetMap.put(key, null);
             }
@@ -535,11 +543,9 @@ public class Beans {
                     return;
                 }
             }
-            Optional<ValueConverter> optional = copyOption.getValueConverters().stream()
-                    .filter(valueConverter -> valueConverter.matches(source, key))
-                    .findFirst();
-            if (optional.isPresent()) {
-                targetMap.put(key, optional.get().convert(source, value, value.getClass()));
+            ValueConverter valueConverter = BeanCopier.findValueConverter(copyOption.getValueConverters(), source, key);
+            if (valueConverter != null) {
+                targetMap.put(key, valueConverter.convert(source, value, value.getClass()));
             } else {
                 targetMap.put(key, value);
             }
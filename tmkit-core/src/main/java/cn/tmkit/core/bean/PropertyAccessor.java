@@ -0,0 +1,206 @@
+package cn.tmkit.core.bean;
+
+import cn.tmkit.core.lang.reflect.Reflects;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 编译后的属性访问器。
+ * <p>getter/setter优先通过{@linkplain LambdaMetafactory}生成直接调用的函数，稳定后与手写调用性能相当；
+ * 当方法或类不是public、或者类对当前类加载器不可见时，退化为反射调用。</p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-08
+ */
+final class PropertyAccessor {
+
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 属性名
+     */
+    private final String name;
+
+    /**
+     * getter的返回类型，不可读时为{@code null}
+     */
+    private final Class<?> readType;
+
+    /**
+     * setter的参数类型，不可写时为{@code null}
+     */
+    private final Class<?> writeType;
+
+    /**
+     * setter参数类型的包装类型，用于判断值能否直接赋值
+     */
+    private final Class<?> wrappedWriteType;
+
+    /**
+     * getter，不可读时为{@code null}
+     */
+    private final Function<Object, Object> getter;
+
+    /**
+     * setter，不可写时为{@code null}
+     */
+    private final BiConsumer<Object, Object> setter;
+
+    PropertyAccessor(PropertyDescriptor propertyDescriptor) {
+        this.name = propertyDescriptor.getName();
+        Method readMethod = propertyDescriptor.getReadMethod();
+        Method writeMethod = propertyDescriptor.getWriteMethod();
+        this.readType = (readMethod == null) ? null : readMethod.getReturnType();
+        this.writeType = (writeMethod == null) ? null : writeMethod.getParameterTypes()[0];
+        this.wrappedWriteType = (writeType == null) ? null : wrap(writeType);
+        this.getter = (readMethod == null) ? null : compileGetter(readMethod);
+        this.setter = (writeMethod == null) ? null : compileSetter(writeMethod);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Class<?> getReadType() {
+        return readType;
+    }
+
+    Class<?> getWriteType() {
+        return writeType;
+    }
+
+    /**
+     * 判断值是否可以不经类型转换直接赋值给属性
+     *
+     * @param value 值，非{@code null}
+     * @return 是否可以直接赋值
+     */
+    boolean isAssignableValue(Object value) {
+        return wrappedWriteType.isInstance(value);
+    }
+
+    boolean isReadable() {
+        return getter != null;
+    }
+
+    boolean isWritable() {
+        return setter != null;
+    }
+
+    /**
+     * 读取属性值
+     *
+     * @param bean 对象
+     * @return 属性值
+     */
+    Object get(Object bean) {
+        return getter.apply(bean);
+    }
+
+    /**
+     * 设置属性值
+     *
+     * @param bean  对象
+     * @param value 属性值
+     */
+    void set(Object bean, Object value) {
+        setter.accept(bean, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(Method method) {
+        if (canCompile(method)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(wrap(method.getReturnType()), method.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable ignored) {
+                // 退化为反射调用
+            }
+        }
+        return bean -> Reflects.invoke(bean, method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> compileSetter(Method method) {
+        if (canCompile(method)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), wrap(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable ignored) {
+                // 退化为反射调用
+            }
+        }
+        return (bean, value) -> Reflects.invoke(bean, method, value);
+    }
+
+    /**
+     * 判断方法或构造器能否编译为直接调用：其本身及所在类必须是public，且涉及的类型对当前类加载器可见
+     *
+     * @param executable 方法或构造器
+     * @return 是否可以编译
+     */
+    static boolean canCompile(Executable executable) {
+        Class<?> declaringClass = executable.getDeclaringClass();
+        if (!Modifier.isPublic(executable.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers())) {
+            return false;
+        }
+        if (!isVisible(declaringClass)) {
+            return false;
+        }
+        if (executable instanceof Method && !isVisible(((Method) executable).getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameterType : executable.getParameterTypes()) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断类型对当前类加载器是否可见，生成的函数类定义在当前类加载器中
+     *
+     * @param type 类型
+     * @return 是否可见
+     */
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, PropertyAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+}
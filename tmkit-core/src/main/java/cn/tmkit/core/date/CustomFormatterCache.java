@@ -29,14 +29,7 @@ public class CustomFormatterCache {
      * @return 返回Formatter
      */
     public static DateTimeFormatter ofPattern(String pattern) {
-        DateTimeFormatter formatter = CACHE.get(pattern);
-        if (formatter == null) {
-            synchronized (CACHE) {
-                formatter = DateTimeFormatter.ofPattern(pattern);
-                CACHE.put(pattern, formatter);
-            }
-        }
-        return formatter;
+        return CACHE.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
     }
 
 }
@@ -1,5 +1,7 @@
 package cn.tmkit.core.id;
 
+import cn.tmkit.core.lang.Arrays;
+import cn.tmkit.core.lang.Asserts;
 import cn.tmkit.core.lang.Strings;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -11,7 +13,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @version 0.0.1
  * @date 2023-02-27
  */
-public class AutoIncrementIdGenerator implements IdGenerator<Long> {
+public class AutoIncrementIdGenerator implements LongIdGenerator {
 
     private final AtomicLong val;
 
@@ -29,10 +31,30 @@ public class AutoIncrementIdGenerator implements IdGenerator<Long> {
      * @return ID
      */
     @Override
-    public Long get() {
+    public long nextId() {
         return val.getAndIncrement();
     }
 
+    /**
+     * 一次性预留{@code count}个连续的ID
+     *
+     * @param count ID个数，不能小于0
+     * @return ID数组
+     */
+    @Override
+    public long[] nextIds(int count) {
+        Asserts.isTrue(count >= 0, "count must not be negative");
+        if (count == 0) {
+            return Arrays.EMPTY_LONG_ARRAY;
+        }
+        long first = val.getAndAdd(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + i;
+        }
+        return ids;
+    }
+
     /**
      * 返回指定位数的ID，如果不够则左补零
      * 生成ID长度超出给定的长度，则返回{@code null}
@@ -41,7 +63,7 @@ public class AutoIncrementIdGenerator implements IdGenerator<Long> {
      * @return 固定长度的ID
      */
     public String get(int formatSize) {
-        long next = get();
+        long next = nextId();
         String id = Long.toString(next);
         if (formatSize == id.length()) {
             return id;
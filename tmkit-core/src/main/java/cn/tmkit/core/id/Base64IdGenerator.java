@@ -1,9 +1,9 @@
 package cn.tmkit.core.id;
 
 import cn.tmkit.core.codec.Base64s;
+import cn.tmkit.core.lang.Asserts;
 import cn.tmkit.core.lang.reflect.Singletons;
 
-import java.security.SecureRandom;
 import java.util.Random;
 
 /**
@@ -15,6 +15,19 @@ import java.util.Random;
  */
 public class Base64IdGenerator implements IdGenerator<String> {
 
+    /**
+     * 随机字节来源
+     */
+    private final EntropySource entropySource;
+
+    public Base64IdGenerator() {
+        this(PooledSecureRandom.getDefault());
+    }
+
+    public Base64IdGenerator(EntropySource entropySource) {
+        this.entropySource = Asserts.notNull(entropySource, "entropySource == null");
+    }
+
     /**
      * 返回ID
      *
@@ -22,7 +35,9 @@ public class Base64IdGenerator implements IdGenerator<String> {
      */
     @Override
     public String get() {
-        return getBase64Uuid(Singletons.get(SecureRandom.class));
+        final byte[] randomBytes = new byte[16];
+        entropySource.nextBytes(randomBytes);
+        return Base64s.encode(toUuidBytes(randomBytes), true);
     }
 
     /**
@@ -37,6 +52,10 @@ public class Base64IdGenerator implements IdGenerator<String> {
     private byte[] getUuidBytes(Random random) {
         final byte[] randomBytes = new byte[16];
         random.nextBytes(randomBytes);
+        return toUuidBytes(randomBytes);
+    }
+
+    private byte[] toUuidBytes(byte[] randomBytes) {
         /* Set the version to version 4 (see http://www.ietf.org/rfc/rfc4122.txt)
          * The randomly or pseudo-randomly generated version.
          * The version number is in the most significant 4 bits of the time
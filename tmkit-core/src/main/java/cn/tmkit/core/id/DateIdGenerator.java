@@ -1,10 +1,12 @@
 package cn.tmkit.core.id;
 
-import cn.tmkit.core.date.DefaultCustomFormatter;
-import cn.tmkit.core.date.LocalDateTimeUtil;
-import cn.tmkit.core.lang.Strings;
 import cn.tmkit.core.lang.reflect.Singletons;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -12,6 +14,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * yyyyMMddHHmmssSSS组成的17为日期字符串
  * 用一个中划线分割
  * 剩余14个字符串随机字符串
+ * <p>
+ * 日期前缀按秒缓存，毫秒及序号通过数字表直接写入字符数组，随机字符取自{@linkplain ThreadLocalRandom}，
+ * 每次生成只创建结果字符串本身。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
@@ -19,6 +25,25 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class DateIdGenerator implements IdGenerator<String> {
 
+    /**
+     * ID长度
+     */
+    private static final int ID_LENGTH = 32;
+
+    /**
+     * yyyyMMddHHmmss的长度
+     */
+    private static final int SECOND_PREFIX_LENGTH = 14;
+
+    private static final int maxId = 999999;
+
+    private static final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * 最近一秒的日期前缀
+     */
+    private static volatile SecondPrefix secondPrefix = new SecondPrefix(Long.MIN_VALUE, new char[SECOND_PREFIX_LENGTH]);
+
     /**
      * 返回ID
      *
@@ -26,52 +51,47 @@ public class DateIdGenerator implements IdGenerator<String> {
      */
     @Override
     public String get() {
-        String datetimePrefix = LocalDateTimeUtil.format(DefaultCustomFormatter.PURE_DATETIME_MS);
-        return datetimePrefix + Strings.DASH + getSeqId() + getRandomString(8);
-    }
+        final long millis = System.currentTimeMillis();
+        final long epochSecond = Math.floorDiv(millis, 1000L);
+        SecondPrefix prefix = secondPrefix;
+        if (prefix.epochSecond != epochSecond) {
+            prefix = new SecondPrefix(epochSecond, formatSecond(epochSecond));
+            secondPrefix = prefix;
+        }
 
-    private static final int maxId = 999999;
-    //    private static int curId = 0;
-    private static final AtomicInteger cursor = new AtomicInteger();
-    private static final Object lock = new Object();
-
-//    private String getShortId() { //25
-//        return datetimePrefix() + getSeqId("#000000") + getRandomString(2);
-//    }
-
-    private String getSeqId() {
-        int id = cursor.incrementAndGet();
-        if (id > maxId) {
-            synchronized (lock) {
-                cursor.set(0);
-                id = cursor.incrementAndGet();
-            }
+        final char[] buf = new char[ID_LENGTH];
+        System.arraycopy(prefix.chars, 0, buf, 0, SECOND_PREFIX_LENGTH);
+        IdChars.formatDigits((int) Math.floorMod(millis, 1000L), buf, 14, 3);
+        buf[17] = '-';
+        IdChars.formatDigits(getSeqId(), buf, 18, 6);
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 24; i < ID_LENGTH; i++) {
+            buf[i] = IdChars.ALPHANUMERIC[random.nextInt(IdChars.ALPHANUMERIC.length)];
         }
-//        synchronized (lock) {
-//            if (curId >= maxId) {
-//                curId = 0;
-//            }
-////            NumberFormat format = new DecimalFormat(type);
-////            return format.format(value);
-//        }
-        return String.format("%06d", id);
+        return new String(buf);
     }
 
-    private String getRandomString(int count) {
-        StringBuilder sb = new StringBuilder(count);
-        for (int i = 0; i < count; i++) {
-            int psd = (int) (Math.random() * (26 * 2 + 10));
-            if (psd >= 26 + 10) { //a~z
-                char a = (char) (psd + 97 - 10 - 26);
-                sb.append(a);
-            } else if (psd >= 10) { //A~Z
-                char a = (char) (psd + 65 - 10);
-                sb.append(a);
-            } else { //0~9
-                sb.append(psd);
-            }
-        }
-        return sb.toString();
+    private int getSeqId() {
+        return cursor.updateAndGet(id -> id >= maxId ? 1 : id + 1);
+    }
+
+    /**
+     * 按系统默认时区格式化为yyyyMMddHHmmss
+     *
+     * @param epochSecond 秒级时间戳
+     * @return 日期字符
+     */
+    private static char[] formatSecond(long epochSecond) {
+        ZoneOffset offset = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+        char[] chars = new char[SECOND_PREFIX_LENGTH];
+        IdChars.formatDigits(dateTime.getYear(), chars, 0, 4);
+        IdChars.formatDigits(dateTime.getMonthValue(), chars, 4, 2);
+        IdChars.formatDigits(dateTime.getDayOfMonth(), chars, 6, 2);
+        IdChars.formatDigits(dateTime.getHour(), chars, 8, 2);
+        IdChars.formatDigits(dateTime.getMinute(), chars, 10, 2);
+        IdChars.formatDigits(dateTime.getSecond(), chars, 12, 2);
+        return chars;
     }
 
     /**
@@ -82,4 +102,21 @@ public class DateIdGenerator implements IdGenerator<String> {
     public static DateIdGenerator getInstance() {
         return Singletons.get(DateIdGenerator.class);
     }
+
+    /**
+     * 某一秒的日期前缀，不可变
+     */
+    private static final class SecondPrefix {
+
+        private final long epochSecond;
+
+        private final char[] chars;
+
+        private SecondPrefix(long epochSecond, char[] chars) {
+            this.epochSecond = epochSecond;
+            this.chars = chars;
+        }
+
+    }
+
 }
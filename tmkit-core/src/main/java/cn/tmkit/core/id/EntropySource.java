@@ -0,0 +1,20 @@
+package cn.tmkit.core.id;
+
+/**
+ * 随机字节来源，供需要安全随机数的ID生成器使用
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-14
+ */
+@FunctionalInterface
+public interface EntropySource {
+
+    /**
+     * 用随机字节填充数组
+     *
+     * @param bytes 待填充的数组
+     */
+    void nextBytes(byte[] bytes);
+
+}
@@ -0,0 +1,106 @@
+package cn.tmkit.core.id;
+
+/**
+ * ID编码用的字符表，直接写入字符数组，不经过格式化及中间字符串
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-13
+ */
+final class IdChars {
+
+    /**
+     * 小写的十六进制字符
+     */
+    static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * 数字及大小写字母
+     */
+    static final char[] ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    /**
+     * 0-99的十位数字
+     */
+    private static final char[] DIGIT_TENS = new char[100];
+
+    /**
+     * 0-99的个位数字
+     */
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private IdChars() {
+    }
+
+    /**
+     * 写入固定宽度、左补零的十进制数字，超出宽度的高位被截断
+     *
+     * @param value  非负整数
+     * @param buf    目标数组
+     * @param offset 起始位置
+     * @param width  宽度
+     */
+    static void formatDigits(int value, char[] buf, int offset, int width) {
+        int pos = offset + width;
+        while (pos - offset >= 2) {
+            int r = value % 100;
+            value /= 100;
+            buf[--pos] = DIGIT_ONES[r];
+            buf[--pos] = DIGIT_TENS[r];
+        }
+        if (pos > offset) {
+            buf[--pos] = DIGIT_ONES[value % 10];
+        }
+    }
+
+    /**
+     * 写入{@code value}低位的{@code digits}个十六进制字符
+     *
+     * @param value  值
+     * @param buf    目标数组
+     * @param offset 起始位置
+     * @param digits 字符个数
+     */
+    static void formatHex(long value, char[] buf, int offset, int digits) {
+        for (int pos = offset + digits - 1; pos >= offset; pos--) {
+            buf[pos] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * UUID的字符串形式，与{@linkplain java.util.UUID#toString()}一致
+     *
+     * @param mostSigBits  高64位
+     * @param leastSigBits 低64位
+     * @param ignoreDash   是否忽略中划线
+     * @return UUID
+     */
+    static String uuid(long mostSigBits, long leastSigBits, boolean ignoreDash) {
+        if (ignoreDash) {
+            char[] buf = new char[32];
+            formatHex(mostSigBits, buf, 0, 16);
+            formatHex(leastSigBits, buf, 16, 16);
+            return new String(buf);
+        }
+        char[] buf = new char[36];
+        formatHex(mostSigBits >>> 32, buf, 0, 8);
+        buf[8] = '-';
+        formatHex(mostSigBits >>> 16, buf, 9, 4);
+        buf[13] = '-';
+        formatHex(mostSigBits, buf, 14, 4);
+        buf[18] = '-';
+        formatHex(leastSigBits >>> 48, buf, 19, 4);
+        buf[23] = '-';
+        formatHex(leastSigBits, buf, 24, 12);
+        return new String(buf);
+    }
+
+}
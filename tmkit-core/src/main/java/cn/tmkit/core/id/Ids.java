@@ -1,6 +1,6 @@
 package cn.tmkit.core.id;
 
-import cn.tmkit.core.id.snowflake.FastSnowflake;
+import cn.tmkit.core.id.snowflake.LockFreeSnowflake;
 import cn.tmkit.core.lang.reflect.Singletons;
 
 /**
@@ -72,7 +72,17 @@ public  class Ids {
      * @return id with snowflake
      */
     public static long snowflakeId() {
-        return Singletons.get(FastSnowflake.class).nextId();
+        return Singletons.get(LockFreeSnowflake.class).nextId();
+    }
+
+    /**
+     * 一次性返回多个雪花算法生成的ID，适用于批量插入等场景
+     *
+     * @param count ID个数，不能小于0
+     * @return ids with snowflake
+     */
+    public static long[] snowflakeIds(int count) {
+        return Singletons.get(LockFreeSnowflake.class).nextIds(count);
     }
 
     /**
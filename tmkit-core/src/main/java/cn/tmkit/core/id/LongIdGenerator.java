@@ -0,0 +1,51 @@
+package cn.tmkit.core.id;
+
+import cn.tmkit.core.lang.Arrays;
+import cn.tmkit.core.lang.Asserts;
+
+/**
+ * 生成{@code long}类型ID的生成器，支持批量预留ID
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-12
+ */
+public interface LongIdGenerator extends IdGenerator<Long> {
+
+    /**
+     * 返回ID
+     *
+     * @return ID
+     */
+    long nextId();
+
+    /**
+     * 一次性预留{@code count}个ID，返回的ID按生成顺序排列
+     * <p>默认逐个调用{@linkplain #nextId()}，实现类应尽量在一次同步操作中按段领取</p>
+     *
+     * @param count ID个数，不能小于0
+     * @return ID数组
+     */
+    default long[] nextIds(int count) {
+        Asserts.isTrue(count >= 0, "count must not be negative");
+        if (count == 0) {
+            return Arrays.EMPTY_LONG_ARRAY;
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+
+    /**
+     * 返回ID
+     *
+     * @return ID
+     */
+    @Override
+    default Long get() {
+        return nextId();
+    }
+
+}
@@ -0,0 +1,180 @@
+package cn.tmkit.core.id;
+
+import cn.tmkit.core.lang.Asserts;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * 分段的{@linkplain SecureRandom}池
+ * <p>
+ * {@linkplain SecureRandom}内部是同步的，部分实现还会因熵不足而阻塞，所有线程共用一个实例时会成为全局的竞争点。
+ * 这里按线程把请求分散到多个独立的实例上，每个实例一次预取{@code chunkSize}个字节，后续请求直接从缓冲区复制。
+ * </p>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-14
+ */
+public class PooledSecureRandom implements EntropySource {
+
+    /**
+     * 默认每次预取的字节数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    /**
+     * 分段
+     */
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    /**
+     * 默认的伪随机算法，每个实例的状态相互独立
+     */
+    private static final String DEFAULT_ALGORITHM = "SHA1PRNG";
+
+    /**
+     * 种子长度
+     */
+    private static final int SEED_LENGTH = 32;
+
+    public PooledSecureRandom() {
+        this(Runtime.getRuntime().availableProcessors() * 2, DEFAULT_CHUNK_SIZE, PooledSecureRandom::newSecureRandom);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param stripeCount 分段数，向上取整为2的幂
+     * @param chunkSize   每次预取的字节数，不大于0表示不预取，每次直接从{@linkplain SecureRandom}读取
+     * @param factory     {@linkplain SecureRandom}的创建方式，每个分段首次使用时调用一次
+     */
+    public PooledSecureRandom(int stripeCount, int chunkSize, Supplier<SecureRandom> factory) {
+        Asserts.isTrue(stripeCount > 0, "stripeCount must be positive");
+        Asserts.notNull(factory, "factory == null");
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe(Math.max(chunkSize, 0), factory);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 用随机字节填充数组
+     *
+     * @param bytes 待填充的数组
+     */
+    @Override
+    public void nextBytes(byte[] bytes) {
+        long id = Thread.currentThread().getId();
+        // 打散线程ID，避免连续的ID落在相邻的分段上
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        stripes[(hash ^ (hash >>> 16)) & mask].nextBytes(bytes);
+    }
+
+    /**
+     * 分段数
+     *
+     * @return 分段数
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 创建分段使用的{@linkplain SecureRandom}
+     * <p>Linux下默认的NativePRNG各实例共享同一个读取/dev/urandom的全局锁，分段后仍会竞争，
+     * 所以每个分段使用独立的{@value #DEFAULT_ALGORITHM}，种子取自平台默认的{@linkplain SecureRandom}（非阻塞）</p>
+     *
+     * @return SecureRandom
+     */
+    private static SecureRandom newSecureRandom() {
+        SecureRandom seedSource = SeedHolder.SEED_SOURCE;
+        try {
+            SecureRandom random = SecureRandom.getInstance(DEFAULT_ALGORITHM);
+            byte[] seed = new byte[SEED_LENGTH];
+            seedSource.nextBytes(seed);
+            random.setSeed(seed);
+            return random;
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * 返回默认的实例
+     *
+     * @return 默认的实例
+     */
+    public static PooledSecureRandom getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+
+        private static final PooledSecureRandom INSTANCE = new PooledSecureRandom();
+
+    }
+
+    private static final class SeedHolder {
+
+        private static final SecureRandom SEED_SOURCE = new SecureRandom();
+
+    }
+
+    /**
+     * 单个分段，持有独立的{@linkplain SecureRandom}及预取缓冲区
+     */
+    private static final class Stripe {
+
+        private final Supplier<SecureRandom> factory;
+
+        private final byte[] buffer;
+
+        private SecureRandom random;
+
+        /**
+         * 缓冲区中下一个未使用的字节位置
+         */
+        private int position;
+
+        private Stripe(int chunkSize, Supplier<SecureRandom> factory) {
+            this.factory = factory;
+            this.buffer = new byte[chunkSize];
+            this.position = chunkSize;
+        }
+
+        private synchronized void nextBytes(byte[] bytes) {
+            if (random == null) {
+                random = factory.get();
+            }
+            if (bytes.length > buffer.length) {
+                random.nextBytes(bytes);
+                return;
+            }
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (position == buffer.length) {
+                    random.nextBytes(buffer);
+                    position = 0;
+                }
+                int n = Math.min(bytes.length - offset, buffer.length - position);
+                System.arraycopy(buffer, position, bytes, offset, n);
+                // 用过的字节清零，不在内存中保留已发出的随机数
+                Arrays.fill(buffer, position, position + n, (byte) 0);
+                position += n;
+                offset += n;
+            }
+        }
+
+    }
+
+}
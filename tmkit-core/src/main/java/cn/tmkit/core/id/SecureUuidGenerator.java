@@ -1,6 +1,6 @@
 package cn.tmkit.core.id;
 
-import cn.tmkit.core.lang.Strings;
+import cn.tmkit.core.lang.Asserts;
 import cn.tmkit.core.lang.reflect.Singletons;
 
 import java.security.SecureRandom;
@@ -8,6 +8,7 @@ import java.util.UUID;
 
 /**
  * 较为安全的UUID，采用{@linkplain SecureRandom}获取更加安全的随机码，当然其性能相对慢一些。
+ * 默认从{@linkplain PooledSecureRandom}读取随机字节，多线程时不再争用同一个{@linkplain SecureRandom}。
  *
  * @author miles.tang
  * @version 0.0.1
@@ -15,12 +16,22 @@ import java.util.UUID;
  */
 public class SecureUuidGenerator extends UuidGenerator {
 
+    /**
+     * 随机字节来源
+     */
+    private final EntropySource entropySource;
+
     public SecureUuidGenerator() {
-        super();
+        this(false);
     }
 
     public SecureUuidGenerator(boolean ignoreDash) {
+        this(ignoreDash, PooledSecureRandom.getDefault());
+    }
+
+    public SecureUuidGenerator(boolean ignoreDash, EntropySource entropySource) {
         super(ignoreDash);
+        this.entropySource = Asserts.notNull(entropySource, "entropySource == null");
     }
 
     /**
@@ -31,9 +42,8 @@ public class SecureUuidGenerator extends UuidGenerator {
     @Override
     public String get() {
         final byte[] randomBytes = new byte[16];
-        Singletons.get(SecureRandom.class).nextBytes(randomBytes);
-        String id = UUID.nameUUIDFromBytes(randomBytes).toString();
-        return ignoreDash ? Strings.replace(id, Strings.DASH, Strings.EMPTY_STRING) : id;
+        entropySource.nextBytes(randomBytes);
+        return format(UUID.nameUUIDFromBytes(randomBytes));
     }
 
     /**
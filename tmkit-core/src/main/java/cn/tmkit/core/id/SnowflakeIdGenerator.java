@@ -1,6 +1,6 @@
 package cn.tmkit.core.id;
 
-import cn.tmkit.core.id.snowflake.FastSnowflake;
+import cn.tmkit.core.id.snowflake.LockFreeSnowflake;
 import cn.tmkit.core.lang.reflect.Singletons;
 
 /**
@@ -15,7 +15,7 @@ import cn.tmkit.core.lang.reflect.Singletons;
  * @version 0.0.1
  * @date 2023-02-27
  */
-public class SnowflakeIdGenerator implements IdGenerator<Long> {
+public class SnowflakeIdGenerator implements LongIdGenerator {
 
     /**
      * 返回ID
@@ -23,8 +23,19 @@ public class SnowflakeIdGenerator implements IdGenerator<Long> {
      * @return ID
      */
     @Override
-    public Long get() {
-        return Singletons.get(FastSnowflake.class).nextId();
+    public long nextId() {
+        return Singletons.get(LockFreeSnowflake.class).nextId();
+    }
+
+    /**
+     * 一次性预留{@code count}个ID
+     *
+     * @param count ID个数，不能小于0
+     * @return ID数组
+     */
+    @Override
+    public long[] nextIds(int count) {
+        return Singletons.get(LockFreeSnowflake.class).nextIds(count);
     }
 
 }
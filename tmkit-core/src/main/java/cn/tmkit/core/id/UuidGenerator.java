@@ -1,6 +1,5 @@
 package cn.tmkit.core.id;
 
-import cn.tmkit.core.lang.Strings;
 import cn.tmkit.core.lang.reflect.Singletons;
 
 import java.util.UUID;
@@ -34,8 +33,17 @@ public class UuidGenerator implements IdGenerator<String> {
      */
     @Override
     public String get() {
-        String id = UUID.randomUUID().toString();
-        return ignoreDash ? Strings.replace(id, Strings.DASH, Strings.EMPTY_STRING) : id;
+        return format(UUID.randomUUID());
+    }
+
+    /**
+     * 将UUID格式化为字符串，忽略中划线时直接输出32位十六进制字符
+     *
+     * @param uuid UUID
+     * @return ID
+     */
+    protected String format(UUID uuid) {
+        return IdChars.uuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), ignoreDash);
     }
 
     /**
@@ -1,6 +1,9 @@
 package cn.tmkit.core.id.snowflake;
 
 import cn.tmkit.core.exception.IdGeneratorException;
+import cn.tmkit.core.id.LongIdGenerator;
+import cn.tmkit.core.lang.Arrays;
+import cn.tmkit.core.lang.Asserts;
 
 /**
  * 优化的雪花算法（雪花漂移），性能一般，但是长度较短，前端不会出现JavaScript Number溢出的问题
@@ -13,7 +16,7 @@ import cn.tmkit.core.exception.IdGeneratorException;
  * @version 0.0.1
  * @date 2023-02-27
  */
-public class FastSnowflake {
+public class FastSnowflake implements LongIdGenerator {
 
     /**
      * 基础时间(基点时间、原点时间、纪元时间)
@@ -233,10 +236,43 @@ public class FastSnowflake {
      *
      * @return id
      */
+    @Override
     public long nextId() {
         synchronized (SYNC_LOCK) {
             return this.isOverCost ? this.nextOverCostId() : this.nextNormalId();
         }
     }
 
+    /**
+     * 一次性预留{@code count}个ID，只获取一次锁
+     * <p>每个时间戳先按正常规则生成一个ID，再直接领取该时间戳剩余的序列数，时间回拨时逐个生成</p>
+     *
+     * @param count ID个数，不能小于0
+     * @return ID数组
+     */
+    @Override
+    public long[] nextIds(int count) {
+        Asserts.isTrue(count >= 0, "count must not be negative");
+        if (count == 0) {
+            return Arrays.EMPTY_LONG_ARRAY;
+        }
+        long[] ids = new long[count];
+        synchronized (SYNC_LOCK) {
+            int index = 0;
+            while (index < count) {
+                ids[index++] = this.isOverCost ? this.nextOverCostId() : this.nextNormalId();
+                if (this.turnBackTimeTick > 0) {
+                    continue;
+                }
+                while (index < count && this.currentSeqNumber <= this.maxSeqNumber) {
+                    if (this.isOverCost) {
+                        this.genCountInOneTerm++;
+                    }
+                    ids[index++] = this.calcId(this.lastTimeTick);
+                }
+            }
+        }
+        return ids;
+    }
+
 }
@@ -0,0 +1,213 @@
+package cn.tmkit.core.id.snowflake;
+
+import cn.tmkit.core.lang.Arrays;
+import cn.tmkit.core.lang.Asserts;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁的雪花算法，ID的位布局与{@linkplain FastSnowflake}一致
+ * <p>
+ * 时间戳差值与序列数打包在一个{@linkplain AtomicLong}中（高位为时间戳差值，低{@code seqBitLength}位为序列数），
+ * 每次生成ID只需一次CAS，多线程并发时不再竞争同一把锁。
+ * </p>
+ * <ul>
+ *     <li>当前毫秒的序列数用完时，借用下一毫秒（漂移），最多领先系统时间{@code topOverCostCount}毫秒，超出后等待系统时间追上</li>
+ *     <li>时间回拨不超过{@code topOverCostCount}毫秒时，继续在已发出的最大时间戳上递增，不会产生重复ID</li>
+ *     <li>时间回拨超过{@code topOverCostCount}毫秒且序列数用完时，与{@linkplain FastSnowflake}一样使用每毫秒保留的序列数1-4生成ID</li>
+ * </ul>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-11
+ */
+public class LockFreeSnowflake extends FastSnowflake {
+
+    /**
+     * 回拨次序占用的位数，次序取值范围[1, 4]
+     */
+    private static final int TURN_BACK_INDEX_BITS = 3;
+
+    private static final long TURN_BACK_INDEX_MASK = (1L << TURN_BACK_INDEX_BITS) - 1;
+
+    /**
+     * {@linkplain #nextState(long, long)}的返回值：需要使用回拨次序生成ID
+     */
+    private static final long TURN_BACK = -1;
+
+    /**
+     * {@linkplain #nextState(long, long)}的返回值：需要等待系统时间追上
+     */
+    private static final long WAIT = -2;
+
+    /**
+     * 机器码左移后的值，每次生成ID时直接相加
+     */
+    private final long workerIdPart;
+
+    /**
+     * 序列数的掩码
+     */
+    private final long seqMask;
+
+    /**
+     * 真实的最大序列数（含），不超过2^SeqBitLength-1
+     */
+    private final long maxSequence;
+
+    /**
+     * 最近发出的时间戳差值与序列数，{@code (timeTick << seqBitLength) | seq}
+     */
+    private final AtomicLong state;
+
+    /**
+     * 时间回拨时的状态，{@code (timeTick << 3) | turnBackIndex}，timeTick为0表示当前不处于回拨中
+     */
+    private final AtomicLong turnBackState = new AtomicLong();
+
+    public LockFreeSnowflake() {
+        this(SnowFlakeOptions.builder().build());
+    }
+
+    public LockFreeSnowflake(SnowFlakeOptions options) {
+        super(options);
+        this.workerIdPart = (long) this.workerId << this.seqBitLength;
+        this.seqMask = (1L << this.seqBitLength) - 1;
+        this.maxSequence = (options.getMaxSeqNumber() == 0) ? this.seqMask : Math.min(options.getMaxSeqNumber(), this.seqMask);
+        // 初始状态的序列数已用完，首次调用时会切换到当前时间
+        this.state = new AtomicLong(this.maxSequence);
+    }
+
+    /**
+     * 生成ID
+     *
+     * @return id
+     */
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            final long current = this.state.get();
+            final long currentTimeTick = this.getCurrentTimeTick();
+            final long next = this.nextState(current, currentTimeTick);
+            if (next == TURN_BACK) {
+                return this.nextTurnBackId(current >>> this.seqBitLength);
+            }
+            if (next == WAIT) {
+                Thread.yield();
+                continue;
+            }
+            if (this.state.compareAndSet(current, next)) {
+                if (currentTimeTick >= (current >>> this.seqBitLength)) {
+                    this.endTurnBack();
+                }
+                return this.toId(next);
+            }
+        }
+    }
+
+    /**
+     * 一次性预留{@code count}个ID，每次CAS领取一个时间戳内尽可能多的序列数
+     *
+     * @param count ID个数，不能小于0
+     * @return ID数组
+     */
+    @Override
+    public long[] nextIds(int count) {
+        Asserts.isTrue(count >= 0, "count must not be negative");
+        if (count == 0) {
+            return Arrays.EMPTY_LONG_ARRAY;
+        }
+        long[] ids = new long[count];
+        int index = 0;
+        while (index < count) {
+            final long current = this.state.get();
+            final long currentTimeTick = this.getCurrentTimeTick();
+            final long first = this.nextState(current, currentTimeTick);
+            if (first == TURN_BACK) {
+                ids[index++] = this.nextTurnBackId(current >>> this.seqBitLength);
+                continue;
+            }
+            if (first == WAIT) {
+                Thread.yield();
+                continue;
+            }
+            final long size = Math.min(this.maxSequence - (first & this.seqMask) + 1, count - index);
+            final long last = first + size - 1;
+            if (this.state.compareAndSet(current, last)) {
+                if (currentTimeTick >= (current >>> this.seqBitLength)) {
+                    this.endTurnBack();
+                }
+                for (long value = first; value <= last; value++) {
+                    ids[index++] = this.toId(value);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 计算下一个状态
+     *
+     * @param current         当前状态
+     * @param currentTimeTick 当前时间戳差值
+     * @return 下一个状态，或者{@linkplain #TURN_BACK}、{@linkplain #WAIT}
+     */
+    private long nextState(long current, long currentTimeTick) {
+        final long lastTick = current >>> this.seqBitLength;
+        if (currentTimeTick > lastTick) {
+            return (currentTimeTick << this.seqBitLength) | this.minSeqNumber;
+        }
+        if ((current & this.seqMask) < this.maxSequence) {
+            return current + 1;
+        }
+        if (lastTick - currentTimeTick < this.topOverCostCount) {
+            return ((lastTick + 1) << this.seqBitLength) | this.minSeqNumber;
+        }
+        // 超过漂移上限仍落后只能是时间回拨，否则说明漂移次数用完，等待系统时间追上
+        return (lastTick - currentTimeTick > this.topOverCostCount) ? TURN_BACK : WAIT;
+    }
+
+    private long toId(long state) {
+        return ((state >>> this.seqBitLength) << this.timestampShift) + this.workerIdPart + (state & this.seqMask);
+    }
+
+    /**
+     * 时间回拨时生成ID：从最大时间戳的前一毫秒开始倒序，序列数使用保留的回拨次序
+     *
+     * @param lastTick 已发出的最大时间戳差值
+     * @return id
+     */
+    private long nextTurnBackId(long lastTick) {
+        for (; ; ) {
+            final long current = this.turnBackState.get();
+            final long tick = current >>> TURN_BACK_INDEX_BITS;
+            final long index = current & TURN_BACK_INDEX_MASK;
+            final long next;
+            final long useTick;
+            final long useIndex;
+            if (tick == 0) {
+                // 开始新的一次回拨，次序在1-4之间循环使用
+                useTick = lastTick - 1;
+                useIndex = (index >= 4) ? 1 : index + 1;
+            } else {
+                useTick = tick;
+                useIndex = index;
+            }
+            next = ((useTick - 1) << TURN_BACK_INDEX_BITS) | useIndex;
+            if (this.turnBackState.compareAndSet(current, next)) {
+                return (useTick << this.timestampShift) + this.workerIdPart + useIndex;
+            }
+        }
+    }
+
+    /**
+     * 时间追平后结束回拨，保留回拨次序供下次使用
+     */
+    private void endTurnBack() {
+        final long current = this.turnBackState.get();
+        if ((current >>> TURN_BACK_INDEX_BITS) != 0) {
+            this.turnBackState.compareAndSet(current, current & TURN_BACK_INDEX_MASK);
+        }
+    }
+
+}
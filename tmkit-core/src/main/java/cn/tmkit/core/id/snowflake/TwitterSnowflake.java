@@ -1,6 +1,8 @@
 package cn.tmkit.core.id.snowflake;
 
 import cn.tmkit.core.exception.IdGeneratorException;
+import cn.tmkit.core.lang.Arrays;
+import cn.tmkit.core.lang.Asserts;
 import cn.tmkit.core.lang.Strings;
 
 /**
@@ -29,24 +31,59 @@ public class TwitterSnowflake extends FastSnowflake {
     @Override
     public long nextId() {
         synchronized (SYNC_LOCK) {
-            long currentTimeTick = this.getCurrentTimeTick();
+            return this.nextTradId();
+        }
+    }
 
-            if (this.lastTimeTick == currentTimeTick) {
-                if (this.currentSeqNumber++ > this.maxSeqNumber) {
-                    this.currentSeqNumber = this.minSeqNumber;
-                    currentTimeTick = this.getNextTimeTick();
+    /**
+     * 一次性预留{@code count}个ID，只获取一次锁，每个时间戳直接领取剩余的序列数
+     *
+     * @param count ID个数，不能小于0
+     * @return ID数组
+     */
+    @Override
+    public long[] nextIds(int count) {
+        Asserts.isTrue(count >= 0, "count must not be negative");
+        if (count == 0) {
+            return Arrays.EMPTY_LONG_ARRAY;
+        }
+        long[] ids = new long[count];
+        synchronized (SYNC_LOCK) {
+            int index = 0;
+            while (index < count) {
+                ids[index++] = this.nextTradId();
+                while (index < count && this.currentSeqNumber < this.maxSeqNumber) {
+                    this.currentSeqNumber++;
+                    ids[index++] = this.calcTradId(this.lastTimeTick);
                 }
-            } else {
-                this.currentSeqNumber = this.minSeqNumber;
             }
+        }
+        return ids;
+    }
 
-            if (currentTimeTick < this.lastTimeTick) {
-                throw new IdGeneratorException(Strings.format("Time error for {} milliseconds", this.lastTimeTick - currentTimeTick));
-            }
+    private long nextTradId() {
+        long currentTimeTick = this.getCurrentTimeTick();
 
-            this.lastTimeTick = currentTimeTick;
+        if (this.lastTimeTick == currentTimeTick) {
+            if (this.currentSeqNumber++ > this.maxSeqNumber) {
+                this.currentSeqNumber = this.minSeqNumber;
+                currentTimeTick = this.getNextTimeTick();
+            }
+        } else {
+            this.currentSeqNumber = this.minSeqNumber;
+        }
 
-            return ((currentTimeTick << this.timestampShift) + ((long) this.workerId << this.seqBitLength) + (int) this.currentSeqNumber);
+        if (currentTimeTick < this.lastTimeTick) {
+            throw new IdGeneratorException(Strings.format("Time error for {} milliseconds", this.lastTimeTick - currentTimeTick));
         }
+
+        this.lastTimeTick = currentTimeTick;
+
+        return this.calcTradId(currentTimeTick);
     }
+
+    private long calcTradId(long timeTick) {
+        return ((timeTick << this.timestampShift) + ((long) this.workerId << this.seqBitLength) + (int) this.currentSeqNumber);
+    }
+
 }
@@ -3,16 +3,19 @@ package cn.tmkit.core.lang.reflect;
 import cn.tmkit.core.lang.Arrays;
 import cn.tmkit.core.lang.Asserts;
 import cn.tmkit.core.lang.Classes;
-import cn.tmkit.core.support.SimpleCache;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
  * 单例类的对象统一管理
+ * <p>
+ * 对象强引用保存在{@linkplain ConcurrentHashMap}中，不会被GC回收后重新创建；读取无锁，
+ * 同一个key并发创建时只有一个线程调用构造，其他线程等待其结果。
+ * 无参数时key即为{@linkplain Class#getName()}，不会额外拼接字符串。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
@@ -21,11 +24,9 @@ import java.util.function.Supplier;
 public class Singletons {
 
     /**
-     * 对象池
+     * 对象池，值为单例对象或者创建中的{@linkplain Creation}
      */
-    private static final SimpleCache<String, Object> OBJECT_POOLS = new SimpleCache<>(256);
-
-    private static final Map<String, Lock> KEY_LOCK_MAP = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Object> OBJECT_POOLS = new ConcurrentHashMap<>(64);
 
     private Singletons() {
     }
@@ -67,22 +68,67 @@ public class Singletons {
      */
     @SuppressWarnings("unchecked")
     public static <T> T get(String key, Supplier<T> supplier) {
-        T instance = (T) OBJECT_POOLS.get(key);
-        if (instance == null) {
-            Lock lock = KEY_LOCK_MAP.computeIfAbsent(key, k -> new ReentrantLock());
-            lock.lock();
-            try {
-                // double check
-                instance = (T) OBJECT_POOLS.get(key);
-                if (instance == null && supplier != null) {
-                    instance = (T) OBJECT_POOLS.put(key, supplier.get());
+        Object value = OBJECT_POOLS.get(key);
+        if (value != null && !(value instanceof Creation)) {
+            return (T) value;
+        }
+        return (T) create(key, supplier, value);
+    }
+
+    /**
+     * 创建单例对象，同一个key同时只有一个线程执行{@code supplier}
+     *
+     * @param key      自定义名
+     * @param supplier 单例对象的提供者
+     * @param value    当前池中的值，{@code null}或者创建中的{@linkplain Creation}
+     * @return 对象
+     */
+    private static Object create(String key, Supplier<?> supplier, Object value) {
+        for (; ; ) {
+            if (value instanceof Creation) {
+                Creation creation = (Creation) value;
+                if (creation.owner == Thread.currentThread()) {
+                    throw new IllegalStateException("Circular singleton creation: " + key);
+                }
+                Object instance = await(creation);
+                if (instance != null) {
+                    return instance;
                 }
-            } finally {
-                lock.unlock();
-                KEY_LOCK_MAP.remove(key);
+            } else if (value != null) {
+                return value;
+            } else if (supplier == null) {
+                return null;
+            } else {
+                Creation creation = new Creation();
+                value = OBJECT_POOLS.putIfAbsent(key, creation);
+                if (value == null) {
+                    return creation.run(key, supplier);
+                }
+                continue;
             }
+            value = OBJECT_POOLS.get(key);
+        }
+    }
+
+    /**
+     * 等待其他线程的创建结果
+     *
+     * @param creation 创建中的对象
+     * @return 对象，创建结果为{@code null}时返回{@code null}
+     */
+    private static Object await(Creation creation) {
+        try {
+            return creation.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
         }
-        return instance;
     }
 
     /**
@@ -105,6 +151,7 @@ public class Singletons {
      * @return 原对象
      */
     public static <T> T put(String key, T obj) {
+        Asserts.notNull(obj, "obj == null");
         OBJECT_POOLS.put(key, obj);
         return obj;
     }
@@ -118,7 +165,8 @@ public class Singletons {
      */
     @SuppressWarnings("unchecked")
     public static <T> T remove(String key) {
-        return (T) OBJECT_POOLS.remove(key);
+        Object value = OBJECT_POOLS.remove(key);
+        return (value instanceof Creation) ? null : (T) value;
     }
 
     /**
@@ -128,12 +176,11 @@ public class Singletons {
      * @param <T>   泛型限定类型
      * @return 移除的对象
      */
-    @SuppressWarnings("unchecked")
     public static <T> T remove(Class<T> clazz) {
         if (clazz == null) {
             return null;
         }
-        return (T) OBJECT_POOLS.remove(clazz.getName());
+        return remove(clazz.getName());
     }
 
     /**
@@ -157,4 +204,41 @@ public class Singletons {
         return className + "(" + Arrays.join(params) + ")";
     }
 
+    /**
+     * 创建中的单例对象
+     */
+    private static final class Creation extends CompletableFuture<Object> {
+
+        /**
+         * 执行创建的线程
+         */
+        private final Thread owner = Thread.currentThread();
+
+        /**
+         * 执行创建并放入对象池，失败或结果为{@code null}时移除占位
+         *
+         * @param key      自定义名
+         * @param supplier 单例对象的提供者
+         * @return 对象
+         */
+        private Object run(String key, Supplier<?> supplier) {
+            Object instance;
+            try {
+                instance = supplier.get();
+            } catch (Throwable e) {
+                OBJECT_POOLS.remove(key, this);
+                completeExceptionally(e);
+                throw e;
+            }
+            if (instance == null) {
+                OBJECT_POOLS.remove(key, this);
+            } else {
+                OBJECT_POOLS.replace(key, this, instance);
+            }
+            complete(instance);
+            return instance;
+        }
+
+    }
+
 }
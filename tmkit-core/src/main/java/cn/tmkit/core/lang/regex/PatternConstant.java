@@ -1,5 +1,6 @@
 package cn.tmkit.core.lang.regex;
 
+import cn.tmkit.core.support.CacheStats;
 import cn.tmkit.core.support.SimpleCache;
 
 import java.util.Objects;
@@ -241,6 +242,15 @@ public class PatternConstant {
         POOL.clear();
     }
 
+    /**
+     * 返回Pattern池的统计快照
+     *
+     * @return 统计快照
+     */
+    public static CacheStats stats() {
+        return POOL.stats();
+    }
+
     /**
      * regex with flags
      */
@@ -0,0 +1,173 @@
+package cn.tmkit.core.support;
+
+/**
+ * 缓存的统计快照，不可变
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-07
+ */
+public final class CacheStats {
+
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+
+    /**
+     * 未命中次数
+     */
+    private final long missCount;
+
+    /**
+     * 加载成功次数
+     */
+    private final long loadSuccessCount;
+
+    /**
+     * 加载失败次数（抛出异常或者返回{@code null}）
+     */
+    private final long loadFailureCount;
+
+    /**
+     * 加载总耗时（纳秒）
+     */
+    private final long totalLoadTime;
+
+    /**
+     * 因容量被淘汰的条目数
+     */
+    private final long evictionCount;
+
+    /**
+     * 因软/弱引用被GC回收而清理的条目数
+     */
+    private final long collectedCount;
+
+    public CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                      long totalLoadTime, long evictionCount, long collectedCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.collectedCount = collectedCount;
+    }
+
+    /**
+     * 请求次数，即命中次数与未命中次数之和
+     *
+     * @return 请求次数
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * 命中次数
+     *
+     * @return 命中次数
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 命中率，没有请求时返回{@code 1.0}
+     *
+     * @return 命中率
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * 未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * 未命中率，没有请求时返回{@code 0.0}
+     *
+     * @return 未命中率
+     */
+    public double missRate() {
+        long requestCount = requestCount();
+        return requestCount == 0 ? 0.0 : (double) missCount / requestCount;
+    }
+
+    /**
+     * 加载成功次数
+     *
+     * @return 加载成功次数
+     */
+    public long loadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    /**
+     * 加载失败次数
+     *
+     * @return 加载失败次数
+     */
+    public long loadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * 加载总耗时（纳秒）
+     *
+     * @return 加载总耗时
+     */
+    public long totalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * 平均每次加载的耗时（纳秒）
+     *
+     * @return 平均加载耗时
+     */
+    public double averageLoadPenalty() {
+        long loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * 因容量被淘汰的条目数
+     *
+     * @return 淘汰数
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 因软/弱引用被GC回收而清理的条目数
+     *
+     * @return 回收数
+     */
+    public long collectedCount() {
+        return collectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", loadSuccessCount=" + loadSuccessCount +
+                ", loadFailureCount=" + loadFailureCount +
+                ", totalLoadTime=" + totalLoadTime +
+                ", evictionCount=" + evictionCount +
+                ", collectedCount=" + collectedCount +
+                '}';
+    }
+
+}
@@ -0,0 +1,592 @@
+package cn.tmkit.core.support;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 线程安全的缓存引擎，基于{@linkplain ConcurrentHashMap}实现
+ * <ul>
+ *     <li>读操作无锁，只会记录条目的最近访问时间，不会改变内部结构</li>
+ *     <li>超过最大容量时采用近似LRU（采样LRU）淘汰：从一个循环游标处连续采样若干条目，淘汰其中最久未被访问的条目</li>
+ *     <li>值可以是强引用、软引用或弱引用，被GC回收的条目会被自动清理</li>
+ *     <li>{@linkplain #computeIfAbsent(Object, Function)}保证同一个key在同一时刻只执行一次计算函数（single-flight），
+ *     计算时不持有任何锁，其他未命中的线程等待同一个计算结果；计算函数中对同一个key递归调用时抛出{@linkplain IllegalStateException}</li>
+ *     <li>通过{@linkplain #stats()}获取命中、未命中、加载耗时、淘汰、GC回收的统计快照</li>
+ * </ul>
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-06
+ */
+public class ConcurrentLruCache<K, V> {
+
+    /**
+     * 默认的采样数
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 8;
+
+    /**
+     * 真正缓存的池
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+
+    /**
+     * 最大容量
+     */
+    private final int maxCapacity;
+
+    /**
+     * 值的引用类型
+     */
+    private final ValueStrength valueStrength;
+
+    /**
+     * 每次淘汰时的采样数
+     */
+    private final int sampleSize;
+
+    /**
+     * 被GC回收的值引用队列，强引用时为{@code null}
+     */
+    private final ReferenceQueue<V> referenceQueue;
+
+    /**
+     * 正在加载中的key，用于保证同一个key只有一个线程执行计算函数
+     */
+    private final ConcurrentHashMap<K, Loading<V>> loadings = new ConcurrentHashMap<>();
+
+    /**
+     * 统计计数器
+     */
+    private final StatsCounter statsCounter = new StatsCounter();
+
+    /**
+     * 淘汰锁，同一时刻只有一个线程执行淘汰
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * 淘汰采样的循环游标，受{@linkplain #evictionLock}保护
+     */
+    private Iterator<Node<K, V>> evictionCursor;
+
+    /**
+     * 构造器，值为强引用
+     *
+     * @param maxCapacity 最大容量
+     */
+    public ConcurrentLruCache(int maxCapacity) {
+        this(maxCapacity, ValueStrength.STRONG);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param maxCapacity   最大容量
+     * @param valueStrength 值的引用类型
+     */
+    public ConcurrentLruCache(int maxCapacity, ValueStrength valueStrength) {
+        this(FixedLinkedHashMap.DEFAULT_INITIAL_CAPACITY, maxCapacity, valueStrength, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param initialCapacity 初始容量
+     * @param maxCapacity     最大容量
+     * @param valueStrength   值的引用类型
+     * @param sampleSize      每次淘汰时的采样数
+     */
+    public ConcurrentLruCache(int initialCapacity, int maxCapacity, ValueStrength valueStrength, int sampleSize) {
+        if (maxCapacity <= 0) {
+            throw new IllegalArgumentException("maxCapacity must be greater than 0");
+        }
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be greater than 0");
+        }
+        this.maxCapacity = maxCapacity;
+        this.valueStrength = Objects.requireNonNull(valueStrength, "valueStrength == null");
+        this.sampleSize = sampleSize;
+        this.data = new ConcurrentHashMap<>(Math.min(Math.max(initialCapacity, 0), maxCapacity));
+        this.referenceQueue = (valueStrength == ValueStrength.STRONG) ? null : new ReferenceQueue<>();
+    }
+
+    /**
+     * 从缓存池中获取值
+     *
+     * @param key 键
+     * @return 值，不存在或已被GC回收时返回{@code null}
+     */
+    public V get(K key) {
+        V value = getIfPresent(key);
+        if (value == null) {
+            statsCounter.misses.increment();
+        } else {
+            statsCounter.hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 将值放入到缓存中，{@code value}为{@code null}时等同于移除
+     *
+     * @param key   键
+     * @param value 值
+     * @return 原来的值，可能为{@code null}
+     */
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key == null");
+        if (value == null) {
+            return remove(key);
+        }
+        Node<K, V> old = data.put(key, newNode(key, value));
+        afterWrite();
+        return old == null ? null : old.getValue();
+    }
+
+    /**
+     * 如果不存在设置键值对
+     *
+     * @param key   键
+     * @param value 值
+     * @return 已经存在的值，不存在时返回{@code null}
+     */
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, "key == null");
+        Objects.requireNonNull(value, "value == null");
+        Object[] existing = new Object[1];
+        data.compute(key, (k, node) -> {
+            V v = (node == null) ? null : node.getValue();
+            if (v != null) {
+                existing[0] = v;
+                return node;
+            }
+            return newNode(k, value);
+        });
+        afterWrite();
+        return cast(existing[0]);
+    }
+
+    /**
+     * 如果key对应的值不存在，则调用{@code mappingFunction}的计算结果设置到缓存中。
+     * 同一个key并发调用时计算函数只会执行一次，其他线程等待同一个计算结果；计算期间不持有任何锁，
+     * 不会阻塞其他key的读写。
+     *
+     * @param key             键
+     * @param mappingFunction 值的计算函数
+     * @return 值，计算结果为{@code null}时返回{@code null}且不会缓存
+     * @throws IllegalStateException 计算函数中又对同一个key调用了本方法
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        Objects.requireNonNull(mappingFunction, "mappingFunction == null");
+        Loading<V> loading = new Loading<>();
+        Loading<V> inFlight = loadings.putIfAbsent(key, loading);
+        if (inFlight != null) {
+            if (inFlight.thread == Thread.currentThread()) {
+                // 等待自己的计算结果会永远阻塞，与ConcurrentHashMap一样直接失败
+                throw new IllegalStateException("Recursive load of key: " + key);
+            }
+            return await(inFlight);
+        }
+        try {
+            // double check，在登记前可能已被其他线程加载完成
+            value = getIfPresent(key);
+            if (value == null) {
+                value = load(key, mappingFunction);
+            }
+            loading.complete(value);
+            return value;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(key, loading);
+        }
+    }
+
+    /**
+     * 返回当前的统计快照
+     *
+     * @return 统计快照
+     */
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    /**
+     * 移除缓存
+     *
+     * @param key 键
+     * @return 值
+     */
+    public V remove(K key) {
+        Node<K, V> node = data.remove(key);
+        return node == null ? null : node.getValue();
+    }
+
+    /**
+     * 返回缓存大小，包含尚未清理的已被GC回收的条目
+     *
+     * @return 缓存大小
+     */
+    public int size() {
+        drainReferenceQueue();
+        return data.size();
+    }
+
+    /**
+     * 清空缓存池
+     */
+    public void clear() {
+        data.clear();
+        drainReferenceQueue();
+    }
+
+    /**
+     * 最大容量
+     *
+     * @return 最大容量
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * 值的引用类型
+     *
+     * @return 引用类型
+     */
+    public ValueStrength getValueStrength() {
+        return valueStrength;
+    }
+
+    /**
+     * 从缓存池中获取值，不记录命中统计
+     *
+     * @param key 键
+     * @return 值，不存在或已被GC回收时返回{@code null}
+     */
+    private V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.getValue();
+        if (value == null) {
+            // 值已被GC回收
+            if (data.remove(key, node)) {
+                statsCounter.collected.increment();
+            }
+            return null;
+        }
+        node.accessTime = System.nanoTime();
+        return value;
+    }
+
+    /**
+     * 执行计算函数并放入缓存
+     *
+     * @param key             键
+     * @param mappingFunction 值的计算函数
+     * @return 计算结果
+     */
+    private V load(K key, Function<? super K, ? extends V> mappingFunction) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = mappingFunction.apply(key);
+        } catch (Throwable e) {
+            statsCounter.recordLoadFailure(System.nanoTime() - start);
+            throw e;
+        }
+        if (value == null) {
+            statsCounter.recordLoadFailure(System.nanoTime() - start);
+            return null;
+        }
+        statsCounter.recordLoadSuccess(System.nanoTime() - start);
+        data.put(key, newNode(key, value));
+        afterWrite();
+        return value;
+    }
+
+    /**
+     * 等待其他线程的计算结果
+     *
+     * @param future 计算中的结果
+     * @return 计算结果
+     */
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 写操作之后的维护：清理被GC回收的条目，超出容量时淘汰
+     */
+    private void afterWrite() {
+        drainReferenceQueue();
+        if (data.size() > maxCapacity) {
+            evict();
+        }
+    }
+
+    /**
+     * 清理被GC回收的条目
+     */
+    @SuppressWarnings("unchecked")
+    private void drainReferenceQueue() {
+        if (referenceQueue == null) {
+            return;
+        }
+        Reference<? extends V> ref;
+        while ((ref = referenceQueue.poll()) != null) {
+            Node<K, V> node = ((NodeReference<K, V>) ref).node();
+            if (data.remove(node.key, node)) {
+                statsCounter.collected.increment();
+            }
+        }
+    }
+
+    /**
+     * 采样淘汰，只有获得淘汰锁的线程执行，其他线程直接返回
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            while (data.size() > maxCapacity) {
+                Node<K, V> victim = null;
+                for (int i = 0; i < sampleSize; i++) {
+                    Node<K, V> candidate = nextCandidate();
+                    if (candidate == null) {
+                        break;
+                    }
+                    if (candidate.getValue() == null) {
+                        // 已被回收的条目优先淘汰
+                        victim = candidate;
+                        break;
+                    }
+                    if (victim == null || candidate.accessTime - victim.accessTime < 0) {
+                        victim = candidate;
+                    }
+                }
+                if (victim == null) {
+                    break;
+                }
+                if (data.remove(victim.key, victim)) {
+                    if (victim.getValue() == null) {
+                        statsCounter.collected.increment();
+                    } else {
+                        statsCounter.evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 从循环游标中取出下一个候选条目，游标到末尾时从头开始
+     *
+     * @return 候选条目，缓存为空时返回{@code null}
+     */
+    private Node<K, V> nextCandidate() {
+        if (evictionCursor == null || !evictionCursor.hasNext()) {
+            evictionCursor = data.values().iterator();
+            if (!evictionCursor.hasNext()) {
+                return null;
+            }
+        }
+        return evictionCursor.next();
+    }
+
+    private Node<K, V> newNode(K key, V value) {
+        return new Node<>(key, value, valueStrength, referenceQueue);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    /**
+     * 加载中的结果，记录执行计算函数的线程
+     */
+    private static final class Loading<V> extends CompletableFuture<V> {
+
+        final Thread thread = Thread.currentThread();
+
+    }
+
+    /**
+     * 值的引用类型
+     */
+    public enum ValueStrength {
+
+        /**
+         * 强引用，只会因容量被淘汰
+         */
+        STRONG,
+
+        /**
+         * 软引用，内存不足时可被GC回收
+         */
+        SOFT,
+
+        /**
+         * 弱引用，没有其他强引用时即可被GC回收
+         */
+        WEAK,
+
+    }
+
+    /**
+     * 统计计数器，基于{@linkplain LongAdder}避免多线程竞争
+     */
+    private static final class StatsCounter {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder loadSuccesses = new LongAdder();
+
+        private final LongAdder loadFailures = new LongAdder();
+
+        private final LongAdder totalLoadTime = new LongAdder();
+
+        private final LongAdder evictions = new LongAdder();
+
+        private final LongAdder collected = new LongAdder();
+
+        private void recordLoadSuccess(long loadTime) {
+            loadSuccesses.increment();
+            totalLoadTime.add(loadTime);
+        }
+
+        private void recordLoadFailure(long loadTime) {
+            loadFailures.increment();
+            totalLoadTime.add(loadTime);
+        }
+
+        private CacheStats snapshot() {
+            return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                    totalLoadTime.sum(), evictions.sum(), collected.sum());
+        }
+
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        /**
+         * 强引用的值，非强引用时为{@code null}
+         */
+        private final V strongValue;
+
+        /**
+         * 软/弱引用的值，强引用时为{@code null}
+         */
+        private final Reference<V> valueRef;
+
+        /**
+         * 最近访问时间，允许并发写入时的竞争，淘汰本身就是近似的
+         */
+        private long accessTime;
+
+        private Node(K key, V value, ValueStrength strength, ReferenceQueue<V> queue) {
+            this.key = key;
+            this.accessTime = System.nanoTime();
+            switch (strength) {
+                case SOFT:
+                    this.strongValue = null;
+                    this.valueRef = new SoftNodeReference<>(value, queue, this);
+                    break;
+                case WEAK:
+                    this.strongValue = null;
+                    this.valueRef = new WeakNodeReference<>(value, queue, this);
+                    break;
+                default:
+                    this.strongValue = value;
+                    this.valueRef = null;
+            }
+        }
+
+        private V getValue() {
+            return valueRef == null ? strongValue : valueRef.get();
+        }
+
+    }
+
+    /**
+     * 能找回所属条目的引用
+     */
+    private interface NodeReference<K, V> {
+
+        Node<K, V> node();
+
+    }
+
+    private static final class SoftNodeReference<K, V> extends SoftReference<V> implements NodeReference<K, V> {
+
+        private final Node<K, V> node;
+
+        private SoftNodeReference(V referent, ReferenceQueue<V> queue, Node<K, V> node) {
+            super(referent, queue);
+            this.node = node;
+        }
+
+        @Override
+        public Node<K, V> node() {
+            return node;
+        }
+
+    }
+
+    private static final class WeakNodeReference<K, V> extends WeakReference<V> implements NodeReference<K, V> {
+
+        private final Node<K, V> node;
+
+        private WeakNodeReference(V referent, ReferenceQueue<V> queue, Node<K, V> node) {
+            super(referent, queue);
+            this.node = node;
+        }
+
+        @Override
+        public Node<K, V> node() {
+            return node;
+        }
+
+    }
+
+}
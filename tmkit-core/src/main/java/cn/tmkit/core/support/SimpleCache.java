@@ -1,25 +1,46 @@
 package cn.tmkit.core.support;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.lang.ref.SoftReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
- * 简单的缓存，基于{@linkplain SoftReference}实现了自动垃圾回收、LRU cache
- * <p>该缓存是线程非安全的。</p>
+ * 简单的缓存，默认基于{@linkplain SoftReference}实现了自动垃圾回收、近似LRU淘汰
+ * <p>该缓存是线程安全的，实际的存储和淘汰委托给{@linkplain ConcurrentLruCache}，调用方无需额外加锁。</p>
+ * <p>序列化时只保存容量和引用类型等配置，不保存缓存内容，反序列化后得到一个空的缓存。</p>
  *
  * @author miles.tang
  * @version 0.0.1
  * @date 2023-01-12
  * @see <a href="https://android.googlesource.com/platform/packages/apps/Mms/+/master/src/com/android/mms/util/SimpleCache.java">SimpleCache.java</a>
+ * @see ConcurrentLruCache
  */
 public class SimpleCache<K, V> implements Serializable {
 
+    private static final long serialVersionUID = 2023L;
+
+    /**
+     * 初始容量
+     */
+    private final int initialCapacity;
+
     /**
-     * 真正缓存的池
+     * 最大容量
      */
-    private final SoftReferenceMap softReferenceMap;
+    private final int maxCapacity;
+
+    /**
+     * 值的引用类型
+     */
+    private final ConcurrentLruCache.ValueStrength valueStrength;
+
+    /**
+     * 真正缓存的池，不参与序列化，反序列化时按配置重建
+     */
+    private transient ConcurrentLruCache<K, V> delegate;
 
     /**
      * 构造器
@@ -37,7 +58,7 @@ public class SimpleCache<K, V> implements Serializable {
      * @param maxCapacity     最大容量
      */
     public SimpleCache(int initialCapacity, int maxCapacity) {
-        this(initialCapacity, maxCapacity, FixedLinkedHashMap.DEFAULT_LOAD_FACTOR);
+        this(initialCapacity, maxCapacity, ConcurrentLruCache.ValueStrength.SOFT);
     }
 
     /**
@@ -45,10 +66,45 @@ public class SimpleCache<K, V> implements Serializable {
      *
      * @param initialCapacity 初始容量
      * @param maxCapacity     最大容量
-     * @param loadFactor      加载因子
+     * @param loadFactor      加载因子，已不再使用，仅为兼容保留
+     * @deprecated {@code loadFactor}会被忽略，请使用{@linkplain #SimpleCache(int, int)}
      */
+    @Deprecated
     public SimpleCache(int initialCapacity, int maxCapacity, float loadFactor) {
-        this.softReferenceMap = new SoftReferenceMap(initialCapacity, maxCapacity, loadFactor);
+        this(initialCapacity, maxCapacity, ConcurrentLruCache.ValueStrength.SOFT);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param maxCapacity   最大容量
+     * @param valueStrength 值的引用类型
+     */
+    public SimpleCache(int maxCapacity, ConcurrentLruCache.ValueStrength valueStrength) {
+        this(FixedLinkedHashMap.DEFAULT_INITIAL_CAPACITY, maxCapacity, valueStrength);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param initialCapacity 初始容量
+     * @param maxCapacity     最大容量
+     * @param valueStrength   值的引用类型
+     */
+    public SimpleCache(int initialCapacity, int maxCapacity, ConcurrentLruCache.ValueStrength valueStrength) {
+        this.initialCapacity = initialCapacity;
+        this.maxCapacity = Math.max(initialCapacity, maxCapacity);
+        this.valueStrength = valueStrength;
+        this.delegate = newDelegate();
+    }
+
+    private ConcurrentLruCache<K, V> newDelegate() {
+        return new ConcurrentLruCache<>(initialCapacity, maxCapacity, valueStrength, ConcurrentLruCache.DEFAULT_SAMPLE_SIZE);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.delegate = newDelegate();
     }
 
     /**
@@ -58,7 +114,7 @@ public class SimpleCache<K, V> implements Serializable {
      * @return 值
      */
     public V get(K key) {
-        return unwrap(softReferenceMap.get(key));
+        return delegate.get(key);
     }
 
     /**
@@ -69,7 +125,7 @@ public class SimpleCache<K, V> implements Serializable {
      * @return 值
      */
     public V put(K key, V value) {
-        softReferenceMap.put(key, new SoftReference<>(value));
+        delegate.put(key, value);
         return value;
     }
 
@@ -81,11 +137,10 @@ public class SimpleCache<K, V> implements Serializable {
      * @return 值，如果存在则返回{@code null}
      */
     public V putIfAbsent(K key, V value) {
-        V v = get(key);
-        if (v == null) {
-            return put(key, value);
+        if (value == null) {
+            return null;
         }
-        return null;
+        return delegate.putIfAbsent(key, value) == null ? value : null;
     }
 
     /**
@@ -96,11 +151,10 @@ public class SimpleCache<K, V> implements Serializable {
      * @return 值，可能为{@code null}
      */
     public V computeIfAbsent(K key, Supplier<V> supplier) {
-        V v = get(key);
-        if (v == null && supplier != null) {
-            v = put(key, supplier.get());
+        if (supplier == null) {
+            return get(key);
         }
-        return v;
+        return delegate.computeIfAbsent(key, k -> supplier.get());
     }
 
     /**
@@ -111,11 +165,10 @@ public class SimpleCache<K, V> implements Serializable {
      * @return 值，可能为{@code null}
      */
     public V computeIfAbsent(K key, Function<K, V> mappingFun) {
-        V v = get(key);
-        if (v == null && mappingFun != null) {
-            v = put(key, mappingFun.apply(key));
+        if (mappingFun == null) {
+            return get(key);
         }
-        return v;
+        return delegate.computeIfAbsent(key, mappingFun);
     }
 
     /**
@@ -124,45 +177,33 @@ public class SimpleCache<K, V> implements Serializable {
      * @return 缓存小小
      */
     public int size() {
-        return softReferenceMap.size();
+        return delegate.size();
     }
 
     /**
      * 清空缓存池
      */
     public void clear() {
-        softReferenceMap.clear();
+        delegate.clear();
     }
 
     /**
-     * 移除缓存
+     * 返回缓存的统计快照，包含命中、未命中、加载耗时、淘汰及软引用被回收的次数
      *
-     * @param key 键
-     * @return 值
+     * @return 统计快照
      */
-    public V remove(K key) {
-        return unwrap(softReferenceMap.remove(key));
+    public CacheStats stats() {
+        return delegate.stats();
     }
 
     /**
-     * 解包
+     * 移除缓存
      *
-     * @param ref 值的引用
-     * @return 实际的值
-     */
-    private V unwrap(SoftReference<V> ref) {
-        return ref != null ? ref.get() : null;
-    }
-
-    /**
-     * 简单的LRU缓存实现
+     * @param key 键
+     * @return 值
      */
-    private class SoftReferenceMap extends FixedLinkedHashMap<K, SoftReference<V>> {
-
-        public SoftReferenceMap(int initialCapacity, int maxCapacity, float loadFactor) {
-            super(initialCapacity, maxCapacity, loadFactor);
-        }
-
+    public V remove(K key) {
+        return delegate.remove(key);
     }
 
 }
@@ -6,8 +6,12 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Tester for {@linkplain BeanUtil}
@@ -73,22 +77,97 @@ public class BeanUtilTest {
 
     @Test
     void testCopyProperties3() {
+        OrderInfo source = OrderInfo.builder().id(1L)
+                .name("吃饭够")
+                .weight(20)
+                .orderDate(LocalDate.now())
+                .orderType(OrderInfo.OrderTypeEnum.PAY)
+                .build();
+        OrderInfo target = new OrderInfo();
+        BeanUtil.copyProperties(source, target, "name");
+        assertEquals(1L, target.getId());
+        assertNull(target.getName());
+        assertEquals(20, target.getWeight());
+        assertEquals(source.getOrderDate(), target.getOrderDate());
+        assertEquals(OrderInfo.OrderTypeEnum.PAY, target.getOrderType());
     }
 
     @Test
     void testCopyProperties4() {
+        OrderInfo source = OrderInfo.builder().name("").weight(20).build();
+        OrderInfo target = OrderInfo.builder().id(2L).name("西瓜").build();
+        BeanUtil.copyProperties(source, target, new CopyOption().setIgnoreEmptyString(true));
+        assertEquals(2L, target.getId());
+        assertEquals("西瓜", target.getName());
+
+        BeanUtil.copyProperties(source, target, new CopyOption(false));
+        assertNull(target.getId());
+        assertEquals("", target.getName());
     }
 
     @Test
     void testCopyProperties5() {
+        OrderInfo source = OrderInfo.builder().id(1L).name("吃饭够").weight(20).build();
+        OrderInfo target = BeanUtil.copyProperties(source, OrderInfo.class, new ValueConverter() {
+            @Override
+            public boolean matches(Object source, String key) {
+                return "name".equals(key);
+            }
+
+            @Override
+            public Object convert(Object source, Object value, Class<?> targetClass) {
+                return value + "!";
+            }
+        });
+        assertEquals("吃饭够!", target.getName());
+        assertEquals(20, target.getWeight());
     }
 
     @Test
     void testCopyProperties6() {
+        List<OrderInfo> sources = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            sources.add(i % 100 == 0 ? null : OrderInfo.builder().id((long) i).name("order-" + i).weight(i).build());
+        }
+        List<OrderWithMap> sequential = BeanUtil.copyToList(sources, OrderWithMap.class);
+        List<OrderWithMap> parallel = BeanUtil.copyToList(sources, OrderWithMap.class, new CopyOption("name"), 1000);
+        assertEquals(sources.size(), sequential.size());
+        assertEquals(sources.size(), parallel.size());
+        for (int i = 0; i < sources.size(); i++) {
+            OrderInfo source = sources.get(i);
+            if (source == null) {
+                assertNull(sequential.get(i));
+                assertNull(parallel.get(i));
+                continue;
+            }
+            assertEquals(source.getId(), sequential.get(i).getId());
+            assertEquals(source.getName(), sequential.get(i).getName());
+            assertEquals(source.getId(), parallel.get(i).getId());
+            assertEquals(source.getWeight(), parallel.get(i).getWeight());
+            assertNull(parallel.get(i).getName());
+        }
     }
 
     @Test
     void testCopyProperties7() {
+        OrderInfo source = OrderInfo.builder().id(1L).name("吃饭够").weight(20).build();
+        Map<String, Object> view = BeanUtil.beanToMapView(source);
+        assertEquals(5, view.size());
+        assertEquals(1L, view.get("id"));
+        assertEquals(20, view.get("weight"));
+        assertNull(view.get("orderDate"));
+        assertFalse(view.containsKey("class"));
+        assertEquals(BeanUtil.beanToMap(source), view);
+        assertFalse(BeanUtil.beanToMap(source, true).containsKey("orderDate"));
+
+        Map<String, Object> map = new HashMap<>(view);
+        map.put("weight", "30");
+        map.put("name", "");
+        OrderInfo target = new OrderInfo();
+        BeanUtil.mapToBean(map, target, new CopyOption().setIgnoreEmptyString(true));
+        assertEquals(1L, target.getId());
+        assertEquals(30, target.getWeight());
+        assertNull(target.getName());
     }
 
     @Test
@@ -0,0 +1,56 @@
+package cn.tmkit.core.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain Ids}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-13
+ */
+public class IdsTest {
+
+    @Test
+    public void uuid() {
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.randomUUID();
+            String expected = uuid.toString();
+            assertEquals(expected, IdChars.uuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), false));
+            assertEquals(expected.replace("-", ""),
+                    IdChars.uuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), true));
+        }
+        assertEquals(36, Ids.uuid().length());
+        assertTrue(Ids.uuidNoDash().matches("[0-9a-f]{32}"));
+        assertTrue(Ids.secureUuidNoDash().matches("[0-9a-f]{32}"));
+        assertDoesNotThrow(() -> UUID.fromString(Ids.secureUuid()));
+    }
+
+    @Test
+    public void dateId() {
+        String before = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String id = Ids.dateId();
+        String after = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        assertEquals(32, id.length());
+        assertTrue(id.matches("\\d{17}-\\d{6}[0-9A-Za-z]{8}"), id);
+        String second = id.substring(0, 14);
+        assertTrue(second.compareTo(before) >= 0 && second.compareTo(after) <= 0, id);
+        assertNotEquals(id.substring(18, 24), Ids.dateId().substring(18, 24));
+    }
+
+    @Test
+    public void formatDigits() {
+        char[] buf = new char[6];
+        IdChars.formatDigits(42, buf, 0, 6);
+        assertEquals("000042", new String(buf));
+        IdChars.formatDigits(7, buf, 1, 3);
+        assertEquals("000742", new String(buf));
+    }
+
+}
@@ -0,0 +1,57 @@
+package cn.tmkit.core.id;
+
+import cn.tmkit.core.id.snowflake.FastSnowflake;
+import cn.tmkit.core.id.snowflake.LockFreeSnowflake;
+import cn.tmkit.core.id.snowflake.TwitterSnowflake;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain LongIdGenerator#nextIds(int)}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-12
+ */
+public class LongIdGeneratorTest {
+
+    @Test
+    public void autoIncrement() {
+        AutoIncrementIdGenerator generator = new AutoIncrementIdGenerator(10);
+        assertEquals(10, generator.nextId());
+        assertArrayEquals(new long[]{11, 12, 13}, generator.nextIds(3));
+        assertEquals(14, generator.get());
+        assertEquals(0, generator.nextIds(0).length);
+        assertThrows(IllegalArgumentException.class, () -> generator.nextIds(-1));
+    }
+
+    @Test
+    public void snowflake() {
+        assertUniqueAndIncreasing(new FastSnowflake());
+        assertUniqueAndIncreasing(new TwitterSnowflake());
+        assertUniqueAndIncreasing(new LockFreeSnowflake());
+        assertEquals(1000, Ids.snowflakeIds(1000).length);
+    }
+
+    private static void assertUniqueAndIncreasing(LongIdGenerator generator) {
+        Set<Long> set = new HashSet<>();
+        long last = generator.nextId();
+        set.add(last);
+        for (int round = 0; round < 5; round++) {
+            for (long id : generator.nextIds(3000)) {
+                assertTrue(id > last, generator.getClass().getSimpleName());
+                assertTrue(set.add(id));
+                last = id;
+            }
+            long id = generator.nextId();
+            assertTrue(id > last);
+            assertTrue(set.add(id));
+            last = id;
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package cn.tmkit.core.id;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain PooledSecureRandom}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-14
+ */
+public class PooledSecureRandomTest {
+
+    @Test
+    public void nextBytes() {
+        PooledSecureRandom random = new PooledSecureRandom(3, 64, SecureRandom::new);
+        assertEquals(4, random.getStripeCount());
+        Set<String> set = new HashSet<>();
+        // 跨越预取缓冲区边界以及大于缓冲区的请求
+        for (int size : new int[]{16, 30, 64, 100}) {
+            for (int i = 0; i < 50; i++) {
+                byte[] bytes = new byte[size];
+                random.nextBytes(bytes);
+                assertTrue(set.add(Arrays.toString(bytes)));
+            }
+        }
+        PooledSecureRandom unbuffered = new PooledSecureRandom(1, 0, SecureRandom::new);
+        byte[] bytes = new byte[16];
+        unbuffered.nextBytes(bytes);
+        assertNotEquals(Arrays.toString(new byte[16]), Arrays.toString(bytes));
+    }
+
+    @Test
+    public void generators() {
+        Base64IdGenerator base64 = new Base64IdGenerator(new PooledSecureRandom(2, 128, SecureRandom::new));
+        assertEquals(24, base64.get().length());
+        SecureUuidGenerator uuid = new SecureUuidGenerator(true, new PooledSecureRandom());
+        assertTrue(uuid.get().matches("[0-9a-f]{32}"));
+        assertNotEquals(Ids.base64Id(), Ids.base64Id());
+    }
+
+    /**
+     * 对比共享{@linkplain SecureRandom}与{@linkplain PooledSecureRandom}在1、8、64个线程下生成ID的耗时，
+     * 耗时较长，默认不执行，需要时手动运行
+     */
+    @Test
+    @Disabled("benchmark")
+    public void contentionBenchmark() throws Exception {
+        SecureRandom shared = new SecureRandom();
+        EntropySource sharedSource = shared::nextBytes;
+        PooledSecureRandom pooled = new PooledSecureRandom();
+        int total = 256000;
+        for (int threads : new int[]{1, 8, 64}) {
+            long sharedMillis = run(new Base64IdGenerator(sharedSource), threads, total / threads);
+            long pooledMillis = run(new Base64IdGenerator(pooled), threads, total / threads);
+            System.out.printf("Base64IdGenerator threads=%d shared=%dms pooled=%dms%n", threads, sharedMillis, pooledMillis);
+            sharedMillis = run(new SecureUuidGenerator(false, sharedSource), threads, total / threads);
+            pooledMillis = run(new SecureUuidGenerator(false, pooled), threads, total / threads);
+            System.out.printf("SecureUuidGenerator threads=%d shared=%dms pooled=%dms%n", threads, sharedMillis, pooledMillis);
+        }
+    }
+
+    private static long run(IdGenerator<String> generator, int threads, int perThread) throws Exception {
+        for (int i = 0; i < 10000; i++) {
+            generator.get();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        generator.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        pool.shutdown();
+        return elapsed;
+    }
+
+}
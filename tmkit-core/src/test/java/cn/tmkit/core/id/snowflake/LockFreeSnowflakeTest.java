@@ -0,0 +1,146 @@
+package cn.tmkit.core.id.snowflake;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain LockFreeSnowflake}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-11
+ */
+public class LockFreeSnowflakeTest {
+
+    @Test
+    public void layout() {
+        SnowFlakeOptions options = SnowFlakeOptions.builder().workerId((short) 9).build();
+        LockFreeSnowflake snowflake = new LockFreeSnowflake(options);
+        long id = snowflake.nextId();
+        int seqBits = options.getSeqBitLength();
+        long seqMask = (1L << seqBits) - 1;
+        long workerMask = (1L << options.getWorkerIdBitLength()) - 1;
+        assertEquals(9, (id >>> seqBits) & workerMask);
+        assertEquals(options.getMinSeqNumber(), id & seqMask);
+        long timeTick = id >>> (seqBits + options.getWorkerIdBitLength());
+        assertTrue(Math.abs(System.currentTimeMillis() - options.getBaseTime() - timeTick) < 1000);
+    }
+
+    @Test
+    public void uniqueAndMonotonic() throws Exception {
+        LockFreeSnowflake snowflake = new LockFreeSnowflake(SnowFlakeOptions.builder().seqBitLength(16).build());
+        int threads = 8;
+        int perThread = 50000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet(threads * perThread);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                long last = 0;
+                for (int i = 0; i < perThread; i++) {
+                    long id = snowflake.nextId();
+                    assertTrue(id > last);
+                    last = id;
+                    ids.add(id);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void turnBack() {
+        ManualClockSnowflake snowflake = new ManualClockSnowflake();
+        snowflake.tick = 100000;
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ids.add(snowflake.nextId()));
+        }
+        // 回拨超过漂移上限，继续生成不重复的ID
+        snowflake.tick = 50000;
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(ids.add(snowflake.nextId()));
+        }
+        // 时间追平后恢复正常
+        snowflake.tick = 100005;
+        long id = snowflake.nextId();
+        assertTrue(ids.add(id));
+        assertEquals(100005, id >>> 12);
+    }
+
+    /**
+     * 对比{@linkplain FastSnowflake}与{@linkplain LockFreeSnowflake}在多线程竞争下的吞吐量，
+     * 序列数位长取16，避免默认每毫秒59个序列数把两者都限制在等待时钟上。
+     * 耗时较长，默认不执行，需要时手动运行
+     */
+    @Test
+    @Disabled("benchmark")
+    public void contentionBenchmark() throws Exception {
+        SnowFlakeOptions options = SnowFlakeOptions.builder().seqBitLength(16).build();
+        int[] threadCounts = {1, 4, 16};
+        int perThread = 200000;
+        for (int threads : threadCounts) {
+            long fast = run(new FastSnowflake(options), threads, perThread);
+            long lockFree = run(new LockFreeSnowflake(options), threads, perThread);
+            System.out.printf("threads=%d FastSnowflake=%dms LockFreeSnowflake=%dms%n", threads, fast, lockFree);
+        }
+    }
+
+    private static long run(FastSnowflake snowflake, int threads, int perThread) throws Exception {
+        // 预热
+        for (int i = 0; i < 10000; i++) {
+            snowflake.nextId();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        snowflake.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        pool.shutdown();
+        return elapsed;
+    }
+
+    /**
+     * 手动控制时间的雪花算法
+     */
+    private static class ManualClockSnowflake extends LockFreeSnowflake {
+
+        private volatile long tick;
+
+        @Override
+        protected long getCurrentTimeTick() {
+            return tick;
+        }
+
+    }
+
+}
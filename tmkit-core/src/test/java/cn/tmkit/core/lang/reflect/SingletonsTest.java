@@ -0,0 +1,87 @@
+package cn.tmkit.core.lang.reflect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain Singletons}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-15
+ */
+public class SingletonsTest {
+
+    @Test
+    public void get() {
+        StringBuilder first = Singletons.get(StringBuilder.class);
+        assertSame(first, Singletons.get(StringBuilder.class));
+        assertSame(first, Singletons.get(StringBuilder.class.getName()));
+        StringBuilder withParam = Singletons.get(StringBuilder.class, "a");
+        assertNotSame(first, withParam);
+        assertEquals("a", withParam.toString());
+        assertSame(first, Singletons.remove(StringBuilder.class));
+        assertNotSame(first, Singletons.get(StringBuilder.class));
+        assertNull(Singletons.get("singletons.none", (Supplier<Object>) null));
+    }
+
+    @Test
+    public void createOnce() throws Exception {
+        String key = "singletons.createOnce";
+        AtomicInteger created = new AtomicInteger();
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        Object[] results = new Object[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    results[index] = Singletons.get(key, () -> {
+                        created.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new Object();
+                    });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(1, created.get());
+        for (Object result : results) {
+            assertSame(results[0], result);
+        }
+    }
+
+    @Test
+    public void failure() {
+        String key = "singletons.failure";
+        assertThrows(IllegalStateException.class, () -> Singletons.get(key, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", Singletons.get(key, () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> Singletons.get("singletons.circular",
+                () -> Singletons.get("singletons.circular", () -> "inner")));
+        assertNull(Singletons.get("singletons.circular", (Supplier<Object>) null));
+    }
+
+}
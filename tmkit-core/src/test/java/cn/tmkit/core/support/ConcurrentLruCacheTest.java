@@ -0,0 +1,140 @@
+package cn.tmkit.core.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain ConcurrentLruCache}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-06
+ */
+public class ConcurrentLruCacheTest {
+
+    @Test
+    public void putAndGet() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(4);
+        assertNull(cache.put("a", "1"));
+        assertEquals("1", cache.put("a", "2"));
+        assertEquals("2", cache.get("a"));
+        assertEquals("2", cache.putIfAbsent("a", "3"));
+        assertNull(cache.putIfAbsent("b", "3"));
+        assertEquals(2, cache.size());
+        assertEquals("3", cache.remove("b"));
+        assertNull(cache.get("b"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evict() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 16);
+        }
+        assertEquals(999, cache.get(999));
+    }
+
+    @Test
+    public void computeIfAbsent() throws InterruptedException {
+        ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache<>(8);
+        AtomicInteger loads = new AtomicInteger();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                cache.computeIfAbsent("key", k -> {
+                    loads.incrementAndGet();
+                    return k.length();
+                });
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(3, cache.get("key"));
+        assertNull(cache.computeIfAbsent("null", k -> null));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void recursiveComputeIfAbsent() {
+        ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache<>(8);
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent("a", k -> cache.computeIfAbsent("a", k2 -> 1)));
+        // 失败后不残留加载状态
+        assertEquals(2, cache.computeIfAbsent("a", k -> 2));
+        assertEquals(3, cache.computeIfAbsent("b", k -> cache.computeIfAbsent("c", k2 -> 3)));
+    }
+
+    @Test
+    public void stats() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(2);
+        cache.computeIfAbsent(1, k -> k);
+        cache.computeIfAbsent(1, k -> k);
+        cache.computeIfAbsent(2, k -> k);
+        cache.computeIfAbsent(3, k -> k);
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent(4, k -> {
+            throw new IllegalStateException();
+        }));
+        CacheStats stats = cache.stats();
+        assertEquals(1L, stats.hitCount());
+        assertEquals(4L, stats.missCount());
+        assertEquals(3L, stats.loadSuccessCount());
+        assertEquals(1L, stats.loadFailureCount());
+        assertEquals(1L, stats.evictionCount());
+        assertEquals(0L, stats.collectedCount());
+        assertEquals(0.2D, stats.hitRate());
+    }
+
+    @Test
+    public void softValues() {
+        SimpleCache<String, Object> cache = new SimpleCache<>(4);
+        Object value = new Object();
+        cache.put("a", value);
+        assertSame(value, cache.get("a"));
+        assertSame(value, cache.computeIfAbsent("a", Object::new));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void serializeSimpleCache() throws Exception {
+        SimpleCache<String, String> cache = new SimpleCache<>(2, 2, ConcurrentLruCache.ValueStrength.STRONG);
+        cache.put("a", "1");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cache);
+        }
+        SimpleCache<String, String> copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (SimpleCache<String, String>) in.readObject();
+        }
+        // 只保存配置，不保存内容
+        assertEquals(0, copy.size());
+        for (int i = 0; i < 10; i++) {
+            copy.put("k" + i, "v" + i);
+        }
+        assertEquals(2, copy.size());
+        assertEquals("v9", copy.get("k9"));
+    }
+
+}
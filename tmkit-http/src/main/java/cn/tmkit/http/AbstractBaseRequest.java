@@ -13,10 +13,12 @@ import cn.tmkit.json.sjf4j.util.JSONs;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
@@ -360,15 +362,7 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
      */
     @Override
     public String string() throws HttpClientException {
-        Response httpResponse = null;
-        try {
-            httpResponse = this.execute();
-            httpResponse.checkStatus();
-            ResponseBody responseBody = httpResponse.body();
-            return (responseBody == null) ? null : responseBody.string(null);
-        } finally {
-            IoUtil.closeQuietly(httpResponse);
-        }
+        return readString(this.execute());
     }
 
     /**
@@ -380,8 +374,7 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
      */
     @Override
     public <T> T bean(Class<T> targetClass) throws HttpClientException {
-        String jsonStr = this.string();
-        return JSONs.fromJson(jsonStr, targetClass);
+        return readBean(this.execute(), targetClass);
     }
 
     /**
@@ -396,8 +389,39 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
      */
     @Override
     public <T> T bean(BaseTypeRef<T> typeRef) throws HttpClientException {
-        String jsonStr = this.string();
-        return JSONs.fromJson(jsonStr, typeRef);
+        return readBean(this.execute(), typeRef.getType());
+    }
+
+    /**
+     * 异步执行并处理响应内容转为字符串，服务器返回非200时以{@linkplain HttpClientException}结束
+     *
+     * @return 响应结果字符串
+     */
+    @Override
+    public CompletableFuture<String> stringAsync() {
+        return this.executeAsync().thenApply(AbstractBaseRequest::readString);
+    }
+
+    /**
+     * 异步执行并将响应结果转为JavaBean对象，服务器返回非200时以{@linkplain HttpClientException}结束
+     *
+     * @param targetClass 目标类型
+     * @return JavaBean对象
+     */
+    @Override
+    public <T> CompletableFuture<T> beanAsync(Class<T> targetClass) {
+        return this.executeAsync().thenApply(httpResponse -> readBean(httpResponse, targetClass));
+    }
+
+    /**
+     * 异步执行并将响应结果转为JavaBean对象，服务器返回非200时以{@linkplain HttpClientException}结束
+     *
+     * @param typeRef 带有泛型类的封装类
+     * @return JavaBean对象
+     */
+    @Override
+    public <T> CompletableFuture<T> beanAsync(BaseTypeRef<T> typeRef) {
+        return this.executeAsync().thenApply(httpResponse -> readBean(httpResponse, typeRef.getType()));
     }
 
     /**
@@ -420,7 +444,7 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
     }
 
     /**
-     * 将响应结果输出到文件中
+     * 将响应结果输出到文件中，边读边写，内存占用与响应大小无关
      *
      * @param saveFile 目标保存文件,非空
      */
@@ -453,7 +477,8 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
             if (target.exists()) {
                 target = getNewFilename(target, 1);
             }
-            Files.copy(responseBody.byteStream(), target);
+            Files.mkdir(target.getParentFile());
+            responseBody.transferTo(target.toPath());
         } finally {
             IoUtil.closeQuietly(httpResponse);
         }
@@ -470,7 +495,10 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
         try {
             httpResponse = this.execute();
             httpResponse.checkStatus();
-            IoUtil.copy(httpResponse.body().byteStream(), out);
+            ResponseBody responseBody = httpResponse.body();
+            if (responseBody != null) {
+                responseBody.transferTo(out);
+            }
         } finally {
             IoUtil.closeQuietly(httpResponse);
         }
@@ -486,6 +514,52 @@ public abstract class AbstractBaseRequest<Req extends BaseRequest<Req>> implemen
         return HttpClient.getClient(clientName).execute(generateRequest(), optionsBuilder == null ? null : optionsBuilder.build());
     }
 
+    /**
+     * 异步执行HTTP请求并返回原始响应对象，调用方负责关闭响应
+     *
+     * @return {@linkplain Response}
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync() {
+        return HttpClient.getClient(clientName).executeAsync(generateRequest(), optionsBuilder == null ? null : optionsBuilder.build());
+    }
+
+    /**
+     * 校验状态码并将响应内容直接从字节流转为JavaBean对象，字符集取自{@code Content-Type}，完成后关闭响应
+     *
+     * @param httpResponse 响应对象
+     * @param typeOfT      目标类型
+     * @param <T>          泛型类型
+     * @return JavaBean对象
+     * @throws HttpClientException 如果服务器返回非200则抛出此异常
+     */
+    private static <T> T readBean(Response httpResponse, Type typeOfT) throws HttpClientException {
+        try {
+            httpResponse.checkStatus();
+            ResponseBody responseBody = httpResponse.body();
+            return (responseBody == null) ? null : JSONs.fromJson(responseBody.byteStream(), httpResponse.charset(), typeOfT);
+        } finally {
+            IoUtil.closeQuietly(httpResponse);
+        }
+    }
+
+    /**
+     * 校验状态码并将响应内容转为字符串，完成后关闭响应
+     *
+     * @param httpResponse 响应对象
+     * @return 响应结果字符串
+     * @throws HttpClientException 如果服务器返回非200则抛出此异常
+     */
+    private static String readString(Response httpResponse) throws HttpClientException {
+        try {
+            httpResponse.checkStatus();
+            ResponseBody responseBody = httpResponse.body();
+            return (responseBody == null) ? null : responseBody.string(null);
+        } finally {
+            IoUtil.closeQuietly(httpResponse);
+        }
+    }
+
     private Options.Builder optionsBuilder() {
         return optionsBuilder == null ? Options.DEFAULT_OPTIONS.newBuilder() : optionsBuilder;
     }
@@ -8,6 +8,7 @@ import java.io.File;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -210,6 +211,38 @@ public interface BaseRequest<Req extends BaseRequest<Req>> {
      */
     <T> T bean(BaseTypeRef<T> typeRef) throws HttpClientException;
 
+    /**
+     * 异步执行HTTP请求并返回原始响应对象，调用方负责关闭响应
+     *
+     * @return {@linkplain Response}
+     */
+    CompletableFuture<Response> executeAsync();
+
+    /**
+     * 异步执行并处理响应内容转为字符串，服务器返回非200时以{@linkplain HttpClientException}结束
+     *
+     * @return 响应结果字符串
+     */
+    CompletableFuture<String> stringAsync();
+
+    /**
+     * 异步执行并将响应结果转为JavaBean对象，服务器返回非200时以{@linkplain HttpClientException}结束
+     *
+     * @param targetClass 目标类型
+     * @param <T>         泛型类型
+     * @return JavaBean对象
+     */
+    <T> CompletableFuture<T> beanAsync(Class<T> targetClass);
+
+    /**
+     * 异步执行并将响应结果转为JavaBean对象，服务器返回非200时以{@linkplain HttpClientException}结束
+     *
+     * @param typeRef 带有泛型类的封装类
+     * @param <T>     泛型类型
+     * @return JavaBean对象
+     */
+    <T> CompletableFuture<T> beanAsync(BaseTypeRef<T> typeRef);
+
     /**
      * 将响应结果转为字节数组
      *
@@ -56,6 +56,16 @@ public class ApiControllerAutoTest {
         Console.log(ipApiInfo);
     }
 
+    @Test
+    public void getIpInfoAsync() {
+        String url = serviceUrl + "/ip-info";
+        ApiResult<IpApiInfo> apiResult = HttpClient.get(url).beanAsync(new BaseTypeRef<ApiResult<IpApiInfo>>() {
+        }).join();
+        Assertions.assertNotNull(apiResult);
+        assertEquals(ApiResult.SUCCESS_CODE, apiResult.getCode());
+        Console.log(apiResult.getData());
+    }
+
     @Test
     public void query() {
         String url = serviceUrl + "/query";
@@ -1,13 +1,27 @@
 package cn.tmkit.web.servlet3.request;
 
+import cn.tmkit.core.lang.Strings;
 import cn.tmkit.http.shf4j.HttpMethod;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 基于Filter构建可重复流的HTTP Request
+ * <p>
+ * 支持的初始化参数：
+ * <ul>
+ *     <li>{@code memoryThreshold}：请求体在内存中缓存的上限，单位字节，超过后写入临时文件，默认1MB</li>
+ *     <li>{@code tempDir}：临时文件目录，默认使用容器的临时目录</li>
+ *     <li>{@code streamThroughContentTypes}：不缓存请求体的内容类型前缀，逗号分隔，如{@code application/octet-stream}</li>
+ *     <li>{@code streamThroughPaths}：不缓存请求体的路径前缀（不含ContextPath），逗号分隔，如{@code /upload/}</li>
+ * </ul>
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
@@ -15,18 +29,54 @@ import java.io.IOException;
  */
 public class RepeatableHttpServletRequestFilter implements BaseFilter {
 
+    private long memoryThreshold = RepeatableHttpServletRequestWrapper.DEFAULT_MEMORY_THRESHOLD;
+
+    private File tempDir;
+
+    private List<String> streamThroughContentTypes = Collections.emptyList();
+
+    private List<String> streamThroughPaths = Collections.emptyList();
+
     @Override
     public void init(FilterConfig filterConfig) {
-
+        String threshold = filterConfig.getInitParameter("memoryThreshold");
+        if (Strings.isNotBlank(threshold)) {
+            setMemoryThreshold(Long.parseLong(threshold.trim()));
+        }
+        String dir = filterConfig.getInitParameter("tempDir");
+        if (Strings.isNotBlank(dir)) {
+            setTempDir(new File(dir.trim()));
+        } else if (tempDir == null && filterConfig.getServletContext() != null) {
+            Object containerTempDir = filterConfig.getServletContext().getAttribute(ServletContext.TEMPDIR);
+            if (containerTempDir instanceof File) {
+                setTempDir((File) containerTempDir);
+            }
+        }
+        String contentTypes = filterConfig.getInitParameter("streamThroughContentTypes");
+        if (contentTypes != null) {
+            setStreamThroughContentTypes(Strings.split(contentTypes, ',', true, true));
+        }
+        String paths = filterConfig.getInitParameter("streamThroughPaths");
+        if (paths != null) {
+            setStreamThroughPaths(Strings.split(paths, ',', true, true));
+        }
     }
 
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
         HttpServletRequest requestToUse = (HttpServletRequest) servletRequest;
+        RepeatableHttpServletRequestWrapper wrapper = null;
         if (!isAsyncDispatch(servletRequest) && shouldCache(requestToUse) && !(servletRequest instanceof RepeatableHttpServletRequestWrapper)) {
-            requestToUse = new RepeatableHttpServletRequestWrapper(requestToUse);
+            wrapper = new RepeatableHttpServletRequestWrapper(requestToUse, memoryThreshold, tempDir);
+            requestToUse = wrapper;
+        }
+        try {
+            filterChain.doFilter(requestToUse, servletResponse);
+        } finally {
+            if (wrapper != null) {
+                release(wrapper);
+            }
         }
-        filterChain.doFilter(requestToUse, servletResponse);
     }
 
     @Override
@@ -36,8 +86,103 @@ public class RepeatableHttpServletRequestFilter implements BaseFilter {
 
     protected boolean shouldCache(HttpServletRequest request) {
         String method = request.getMethod().toUpperCase();
-        return !HttpMethod.GET.match(method);
+        return !HttpMethod.GET.match(method) && !isStreamThrough(request);
+    }
+
+    /**
+     * 判断请求是否配置为直接透传，不缓存请求体
+     *
+     * @param request HTTP请求
+     * @return 直接透传时返回{@code true}
+     */
+    protected boolean isStreamThrough(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType != null) {
+            for (String prefix : streamThroughContentTypes) {
+                if (Strings.startsWithIgnoreCase(contentType, prefix)) {
+                    return true;
+                }
+            }
+        }
+        if (!streamThroughPaths.isEmpty()) {
+            String uri = request.getRequestURI();
+            String contextPath = request.getContextPath();
+            String path = (uri != null && Strings.isNotEmpty(contextPath) && uri.startsWith(contextPath)) ?
+                    uri.substring(contextPath.length()) : uri;
+            for (String prefix : streamThroughPaths) {
+                if (path != null && path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
+    /**
+     * 请求处理完成后删除临时文件，异步请求在完成时删除
+     *
+     * @param wrapper 包装后的请求
+     */
+    private void release(RepeatableHttpServletRequestWrapper wrapper) {
+        if (wrapper.isAsyncStarted()) {
+            wrapper.getAsyncContext().addListener(new AsyncListener() {
+
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    wrapper.release();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            wrapper.release();
+        }
+    }
+
+    /**
+     * 设置请求体在内存中缓存的上限，超过后写入临时文件
+     *
+     * @param memoryThreshold 上限，单位字节
+     */
+    public void setMemoryThreshold(long memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * 设置临时文件目录
+     *
+     * @param tempDir 临时文件目录
+     */
+    public void setTempDir(File tempDir) {
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 设置不缓存请求体的内容类型前缀
+     *
+     * @param streamThroughContentTypes 内容类型前缀
+     */
+    public void setStreamThroughContentTypes(List<String> streamThroughContentTypes) {
+        this.streamThroughContentTypes = new ArrayList<>(streamThroughContentTypes);
+    }
+
+    /**
+     * 设置不缓存请求体的路径前缀，不含ContextPath
+     *
+     * @param streamThroughPaths 路径前缀
+     */
+    public void setStreamThroughPaths(List<String> streamThroughPaths) {
+        this.streamThroughPaths = new ArrayList<>(streamThroughPaths);
+    }
 
 }
@@ -1,9 +1,9 @@
 package cn.tmkit.web.servlet3.request;
 
-import cn.tmkit.core.exception.GenericRuntimeException;
 import cn.tmkit.core.io.IoUtil;
 import cn.tmkit.core.lang.Strings;
 import cn.tmkit.http.shf4j.HttpMethod;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.servlet.ReadListener;
 import javax.servlet.ServletException;
@@ -11,48 +11,112 @@ import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.Part;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.util.Collection;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
 
 /**
  * 比较完善的Request包装类：支持输入流重复读取，支持getParameter等方法调用
+ * <p>
+ * 请求体在第一次读取时才缓存：不超过{@code memoryThreshold}的内容保存在内存中，超过后写入临时文件，
+ * 临时文件通过{@linkplain #release()}删除，之后不能再读取请求体。{@code multipart/form-data}请求由容器解析，不缓存请求体。
+ * </p>
  *
  * @author miles.tang
  * @version 0.0.1
  * @date 2023-03-02
  */
+@Slf4j
 public class RepeatableHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
-    private final byte[] content;
+    /**
+     * 默认的内存缓存上限，1MB
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String TEMP_FILE_PREFIX = "tmkit-body-";
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
     private final boolean isMultipart;
-    private Collection<Part> parts;
+
+    /**
+     * 内存中缓存的上限，超过后写入临时文件
+     */
+    private final long memoryThreshold;
+
+    /**
+     * 临时文件目录，为{@code null}时使用系统临时目录
+     */
+    private final File tempDir;
+
+    /**
+     * 是否已缓存请求体
+     */
+    private boolean cached;
+
+    /**
+     * 是否已调用{@linkplain #release()}
+     */
+    private boolean released;
+
+    /**
+     * 内存中的请求体
+     */
+    private byte[] content;
+
+    /**
+     * 超过上限时写入的临时文件
+     */
+    private File spillFile;
+
+    /**
+     * 按名称索引的{@linkplain Part}，第一次调用时初始化
+     */
+    private Map<String, Part> parts;
 
     public RepeatableHttpServletRequestWrapper(HttpServletRequest request) {
+        this(request, DEFAULT_MEMORY_THRESHOLD, null);
+    }
+
+    /**
+     * 构造包装类
+     *
+     * @param request         原始请求
+     * @param memoryThreshold 内存中缓存的上限，单位字节
+     * @param tempDir         临时文件目录，为{@code null}时使用系统临时目录
+     */
+    public RepeatableHttpServletRequestWrapper(HttpServletRequest request, long memoryThreshold, File tempDir) {
         super(request);
-        try {
-            String contentType = request.getContentType();
-            isMultipart = HttpMethod.POST.match(request.getMethod()) &&
-                    Strings.startsWithIgnoreCase(contentType, "multipart/form-data");
-            if (isMultipart) {
-                parts = request.getParts();
-            }
-            this.content = IoUtil.readBytes(request.getInputStream());
-        } catch (Exception e) {
-            throw new GenericRuntimeException(e);
-        }
+        this.isMultipart = HttpMethod.POST.match(request.getMethod()) &&
+                Strings.startsWithIgnoreCase(request.getContentType(), "multipart/form-data");
+        this.memoryThreshold = Math.max(0, memoryThreshold);
+        this.tempDir = tempDir;
     }
 
     @Override
-    public Collection<Part> getParts() {
-        return parts;
+    public Collection<Part> getParts() throws IOException, ServletException {
+        return getPartMap().values();
     }
 
     @Override
     public Part getPart(String name) throws IOException, ServletException {
-        return parts.stream().filter(item -> item.getName().equals(name))
-                .findAny().orElse(null);
+        return getPartMap().get(name);
+    }
+
+    private Map<String, Part> getPartMap() throws IOException, ServletException {
+        if (parts == null) {
+            Collection<Part> source = super.getParts();
+            Map<String, Part> map = new LinkedHashMap<>(source.size() * 4 / 3 + 1);
+            for (Part part : source) {
+                // 同名时与原来一样返回第一个
+                map.putIfAbsent(part.getName(), part);
+            }
+            parts = Collections.unmodifiableMap(map);
+        }
+        return parts;
     }
 
     @Override
@@ -65,39 +129,77 @@ public class RepeatableHttpServletRequestWrapper extends HttpServletRequestWrapp
         if (isMultipart) {
             return super.getInputStream();
         }
-        final ByteArrayInputStream byteArray = new ByteArrayInputStream(content);
-        return new ServletInputStream() {
-
-            @Override
-            public synchronized void mark(int readLimit) {
-                byteArray.mark(readLimit);
-            }
-
-            @Override
-            public synchronized void reset() {
-                byteArray.reset();
-            }
+        if (released) {
+            // 原始输入流已被读取，不能返回空的请求体
+            throw new IllegalStateException("Request body has been released");
+        }
+        cacheContent();
+        InputStream in = spillFile == null ? new ByteArrayInputStream(content)
+                : new BufferedInputStream(new FileInputStream(spillFile), BUFFER_SIZE);
+        return new CachedServletInputStream(in);
+    }
 
-            @Override
-            public boolean isFinished() {
-                return byteArray.available() <= 0;
+    /**
+     * 读取原始请求体，超过上限时转存到临时文件
+     *
+     * @throws IOException 读取或写入临时文件异常
+     */
+    private void cacheContent() throws IOException {
+        if (cached) {
+            return;
+        }
+        InputStream in = super.getInputStream();
+        int contentLength = getContentLength();
+        ByteArrayOutputStream memory = new ByteArrayOutputStream(contentLength > 0 && contentLength <= memoryThreshold ?
+                contentLength : (int) Math.min(BUFFER_SIZE, memoryThreshold));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        OutputStream out = memory;
+        try {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (spillFile == null && memory.size() + n > memoryThreshold) {
+                    spillFile = (tempDir == null ? Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX)
+                            : Files.createTempFile(tempDir.toPath(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX)).toFile();
+                    out = new BufferedOutputStream(new FileOutputStream(spillFile), BUFFER_SIZE);
+                    memory.writeTo(out);
+                    memory = null;
+                }
+                out.write(buffer, 0, n);
             }
-
-            @Override
-            public boolean isReady() {
-                return true;
+            out.flush();
+        } catch (IOException e) {
+            IoUtil.closeQuietly(out);
+            deleteSpillFile();
+            throw e;
+        } finally {
+            if (out != memory) {
+                IoUtil.closeQuietly(out);
             }
+        }
+        content = memory == null ? null : memory.toByteArray();
+        cached = true;
+    }
 
-            @Override
-            public void setReadListener(ReadListener readListener) {
-                throw new UnsupportedOperationException();
-            }
+    /**
+     * 删除请求体的临时文件，请求处理完成后调用，之后再读取请求体时抛出{@linkplain IllegalStateException}
+     * <p>
+     * 通常在{@code finally}中调用，因此删除失败时只记录日志并在JVM退出时删除，不会抛出异常覆盖请求处理的结果。
+     * </p>
+     */
+    public void release() {
+        released = true;
+        content = null;
+        deleteSpillFile();
+    }
 
-            @Override
-            public int read() throws IOException {
-                return byteArray.read();
-            }
-        };
+    private void deleteSpillFile() {
+        File file = spillFile;
+        spillFile = null;
+        cached = false;
+        if (file != null && !file.delete() && file.exists()) {
+            log.warn("Unable to delete request body file {}, will retry on exit", file);
+            file.deleteOnExit();
+        }
     }
 
     /**
@@ -109,4 +211,74 @@ public class RepeatableHttpServletRequestWrapper extends HttpServletRequestWrapp
         return isMultipart;
     }
 
+    /**
+     * 基于缓存内容的{@linkplain ServletInputStream}
+     */
+    private static class CachedServletInputStream extends ServletInputStream {
+
+        private final InputStream in;
+
+        private boolean finished;
+
+        CachedServletInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b == -1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            finished = n == -1;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return in.markSupported();
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            in.mark(readLimit);
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            in.reset();
+            finished = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
 }
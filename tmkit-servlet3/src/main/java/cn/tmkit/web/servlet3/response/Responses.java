@@ -2,7 +2,6 @@ package cn.tmkit.web.servlet3.response;
 
 import cn.tmkit.core.exception.IoRuntimeException;
 import cn.tmkit.core.io.Files;
-import cn.tmkit.core.io.IoUtil;
 import cn.tmkit.core.lang.Charsets;
 import cn.tmkit.core.lang.Objects;
 import cn.tmkit.core.lang.Strings;
@@ -13,7 +12,12 @@ import cn.tmkit.json.sjf4j.util.JSONs;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * HTTP Response工具类
@@ -30,6 +34,33 @@ public class Responses {
     private static final String BROWSER_SAFARI = "Safari";
     private static final String BROWSER_FIREFOX = "Firefox";
 
+    private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    private static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    private static final String METHOD_GET = "GET";
+    private static final String METHOD_HEAD = "HEAD";
+
+    private static final String RANGE_UNIT_PREFIX = "bytes=";
+
+    /**
+     * 范围无法满足时的标记
+     */
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+    /**
+     * 文件输出使用的缓冲区大小
+     */
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 文件输出缓冲区池，避免大文件下载时频繁分配大数组
+     */
+    private static final BlockingQueue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(32);
+
     /**
      * 向{@linkplain HttpServletResponse}写入JSON,默认采用{@code UTF-8}
      *
@@ -170,6 +201,11 @@ public class Responses {
 
     /**
      * 对浏览器输出文件
+     * <p>
+     * 支持{@code ETag}/{@code Last-Modified}条件请求（命中时返回304或412）以及单段{@code Range}/{@code If-Range}断点续传，
+     * 多段Range时返回完整内容。文件通过{@linkplain FileChannel}按位置读取，使用池化的大缓冲区拷贝到输出流；
+     * Servlet API没有提供可写通道，{@linkplain FileChannel#transferTo}零拷贝在这里并不适用。
+     * </p>
      *
      * @param displayName  对外显示的下载文件名
      * @param downloadFile 要下载的文件
@@ -183,8 +219,38 @@ public class Responses {
             fileExt = Files.getFileExt(downloadFile);
         }
         ContentType contentType = ContentType.parseByFileExt(fileExt);
-        try (FileInputStream in = Files.openFileInputStream(downloadFile)) {
-            writeFile(displayName, in, downloadFile.length(), contentType, request, response);
+        try (FileChannel channel = FileChannel.open(downloadFile.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            // HTTP日期只精确到秒
+            long lastModified = downloadFile.lastModified() / 1000 * 1000;
+            String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+            response.setHeader(HEADER_ACCEPT_RANGES, "bytes");
+            response.setHeader(HEADER_ETAG, etag);
+            response.setDateHeader(HEADER_LAST_MODIFIED, lastModified);
+            if (!checkPreconditions(request, response, etag, lastModified)) {
+                return;
+            }
+            long[] range = resolveRange(request, etag, lastModified, length);
+            if (range == UNSATISFIABLE_RANGE) {
+                response.setHeader(HEADER_CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            long position = 0, count = length;
+            if (range != null) {
+                position = range[0];
+                count = range[1] - range[0] + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HEADER_CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + length);
+            }
+            response.setContentType(contentType.toString());
+            response.setHeader(HEADER_CONTENT_LENGTH, String.valueOf(count));
+            response.setHeader(HEADER_CONTENT_DISPOSITION, "attachment; filename=" + getBrowserDownloadFilename(request, displayName));
+            if (!METHOD_HEAD.equalsIgnoreCase(request.getMethod())) {
+                try (OutputStream out = response.getOutputStream()) {
+                    transfer(channel, position, count, out);
+                }
+            }
         } catch (IOException e) {
             throw new IoRuntimeException(e);
         }
@@ -207,16 +273,222 @@ public class Responses {
                                  HttpServletRequest request, HttpServletResponse response) {
         response.setContentType(contentType.toString());
         if (contentLength != -1) {
-            response.setHeader("Content-Length", String.valueOf(contentLength));
+            response.setHeader(HEADER_CONTENT_LENGTH, String.valueOf(contentLength));
         }
-        response.setHeader("Content-Disposition", "attachment; filename=" + getBrowserDownloadFilename(request, displayName));
+        response.setHeader(HEADER_CONTENT_DISPOSITION, "attachment; filename=" + getBrowserDownloadFilename(request, displayName));
+        byte[] buffer = borrowBuffer();
         try (OutputStream out = response.getOutputStream()) {
-            if (IoUtil.copy(in, out) == -1) {
-                throw new IOException("Copy input stream to output stream failed.");
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
             }
+            out.flush();
         } catch (IOException e) {
             throw new IoRuntimeException(e);
+        } finally {
+            returnBuffer(buffer);
+        }
+    }
+
+    /**
+     * 校验{@code If-Match}、{@code If-Unmodified-Since}、{@code If-None-Match}、{@code If-Modified-Since}，
+     * 顺序及语义参照RFC 7232
+     *
+     * @param request      HTTP请求对象
+     * @param response     HTTP响应对象
+     * @param etag         文件的ETag
+     * @param lastModified 文件的最后修改时间
+     * @return 需要继续输出内容时返回{@code true}，已响应304或412时返回{@code false}
+     */
+    private static boolean checkPreconditions(HttpServletRequest request, HttpServletResponse response, String etag, long lastModified) {
+        String ifMatch = request.getHeader("If-Match");
+        if (ifMatch != null) {
+            if (!matchEtag(ifMatch, etag, false)) {
+                response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+                return false;
+            }
+        } else {
+            long ifUnmodifiedSince = getDateHeader(request, "If-Unmodified-Since");
+            if (ifUnmodifiedSince != -1 && lastModified > ifUnmodifiedSince) {
+                response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+                return false;
+            }
+        }
+        boolean safeMethod = METHOD_GET.equalsIgnoreCase(request.getMethod()) || METHOD_HEAD.equalsIgnoreCase(request.getMethod());
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            if (matchEtag(ifNoneMatch, etag, true)) {
+                response.setStatus(safeMethod ? HttpServletResponse.SC_NOT_MODIFIED : HttpServletResponse.SC_PRECONDITION_FAILED);
+                return false;
+            }
+        } else if (safeMethod) {
+            long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+            if (ifModifiedSince != -1 && lastModified <= ifModifiedSince) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析{@code Range}请求头，只支持单段范围
+     *
+     * @param request      HTTP请求对象
+     * @param etag         文件的ETag
+     * @param lastModified 文件的最后修改时间
+     * @param length       文件长度
+     * @return 包含起止位置（均包含）的数组，需要返回完整内容时返回{@code null}，范围无法满足时返回{@linkplain #UNSATISFIABLE_RANGE}
+     */
+    private static long[] resolveRange(HttpServletRequest request, String etag, long lastModified, long length) {
+        String range = request.getHeader("Range");
+        if (range == null || !METHOD_GET.equalsIgnoreCase(request.getMethod())) {
+            return null;
+        }
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null) {
+            // If-Range只允许强校验，文件有变化时返回完整内容
+            boolean matched = ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")
+                    ? matchEtag(ifRange, etag, false) : getDateHeader(request, "If-Range") == lastModified;
+            if (!matched) {
+                return null;
+            }
         }
+        range = range.trim();
+        if (!range.startsWith(RANGE_UNIT_PREFIX) || range.indexOf(',') != -1) {
+            return null;
+        }
+        String spec = range.substring(RANGE_UNIT_PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+        long start, end;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // bytes=-500，最后500个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (last.isEmpty()) {
+                    end = length - 1;
+                } else {
+                    long lastPos = Long.parseLong(last);
+                    if (lastPos < start) {
+                        return null;
+                    }
+                    end = Math.min(lastPos, length - 1);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // 语法错误的Range直接忽略
+            return null;
+        }
+        if (start < 0 || start >= length) {
+            return UNSATISFIABLE_RANGE;
+        }
+        return new long[]{start, end};
+    }
+
+    /**
+     * ETag列表是否与文件的ETag匹配
+     *
+     * @param header 请求头的值，可以是{@code *}或逗号分隔的多个ETag
+     * @param etag   文件的ETag
+     * @param weak   是否使用弱比较
+     * @return 是否匹配
+     */
+    private static boolean matchEtag(String header, String etag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate)) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                candidate = candidate.substring(2);
+            }
+            if (etag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取日期类型的请求头，格式错误时当作不存在
+     *
+     * @param request HTTP请求对象
+     * @param name    请求头名称
+     * @return 毫秒时间，不存在或格式错误返回-1
+     */
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 将文件的指定范围写到输出流
+     *
+     * @param channel  文件通道
+     * @param position 起始位置
+     * @param count    字节数
+     * @param out      输出流
+     * @throws IOException 读写异常
+     */
+    private static void transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        long end = position + count;
+        byte[] buffer = borrowBuffer();
+        try {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            while (position < end) {
+                byteBuffer.clear();
+                byteBuffer.limit((int) Math.min(buffer.length, end - position));
+                int n = channel.read(byteBuffer, position);
+                if (n == -1) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+                position += n;
+            }
+        } finally {
+            returnBuffer(buffer);
+        }
+        if (position < end) {
+            throw new EOFException("File truncated while transferring, " + (end - position) + " bytes missing");
+        }
+        out.flush();
+    }
+
+    /**
+     * 从缓冲区池中取出一个缓冲区，池为空时新建
+     *
+     * @return 缓冲区
+     */
+    private static byte[] borrowBuffer() {
+        byte[] buffer = BUFFER_POOL.poll();
+        return buffer == null ? new byte[TRANSFER_BUFFER_SIZE] : buffer;
+    }
+
+    /**
+     * 归还缓冲区，池已满时直接丢弃
+     *
+     * @param buffer 缓冲区
+     */
+    private static void returnBuffer(byte[] buffer) {
+        BUFFER_POOL.offer(buffer);
     }
 
     /**
@@ -0,0 +1,269 @@
+package cn.tmkit.web.servlet3.request;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.*;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain RepeatableHttpServletRequestWrapper} and {@linkplain RepeatableHttpServletRequestFilter}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class RepeatableHttpServletRequestWrapperTest {
+
+    private static final int THRESHOLD = 100;
+
+    private File tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("repeatable").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = tempDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(tempDir.delete());
+    }
+
+    @Test
+    public void memoryThreshold() throws IOException {
+        byte[] body = body(THRESHOLD);
+        RepeatableHttpServletRequestWrapper wrapper = wrap(new MockRequest("POST", body));
+        assertArrayEquals(body, readAll(wrapper.getInputStream()));
+        // 刚好等于上限时保存在内存中
+        assertEquals(0, spillFiles());
+
+        body = body(THRESHOLD + 1);
+        wrapper = wrap(new MockRequest("POST", body));
+        assertArrayEquals(body, readAll(wrapper.getInputStream()));
+        assertEquals(1, spillFiles());
+        wrapper.release();
+    }
+
+    @Test
+    public void repeatableRead() throws IOException {
+        for (int length : new int[]{THRESHOLD, THRESHOLD * 10}) {
+            String text = new String(body(length), StandardCharsets.UTF_8) + "中文";
+            RepeatableHttpServletRequestWrapper wrapper = wrap(new MockRequest("POST", text.getBytes(StandardCharsets.UTF_8)));
+            byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(expected, readAll(wrapper.getInputStream()));
+            assertArrayEquals(expected, readAll(wrapper.getInputStream()));
+            assertEquals(text, readAll(wrapper.getReader()));
+            assertEquals(text, readAll(wrapper.getReader()));
+            assertArrayEquals(expected, readAll(wrapper.getInputStream()));
+            wrapper.release();
+        }
+    }
+
+    @Test
+    public void release() throws IOException {
+        RepeatableHttpServletRequestWrapper wrapper = wrap(new MockRequest("POST", body(THRESHOLD * 10)));
+        readAll(wrapper.getInputStream());
+        assertEquals(1, spillFiles());
+        wrapper.release();
+        assertEquals(0, spillFiles());
+        assertThrows(IllegalStateException.class, wrapper::getInputStream);
+        assertThrows(IllegalStateException.class, wrapper::getReader);
+        // 重复调用不会出错
+        wrapper.release();
+    }
+
+    @Test
+    public void filterReleases() throws Exception {
+        RepeatableHttpServletRequestFilter filter = newFilter();
+        byte[] body = body(THRESHOLD * 10);
+        AtomicReference<Object> chained = new AtomicReference<>();
+        filter.doFilter(new MockRequest("POST", body).uri("/app", "/app/api/save").proxy(), null, (request, response) -> {
+            chained.set(request);
+            assertArrayEquals(body, readAll(request.getInputStream()));
+            assertArrayEquals(body, readAll(request.getInputStream()));
+            assertEquals(1, spillFiles());
+        });
+        assertTrue(chained.get() instanceof RepeatableHttpServletRequestWrapper);
+        // 请求完成后删除临时文件
+        assertEquals(0, spillFiles());
+    }
+
+    @Test
+    public void filterStreamThrough() throws Exception {
+        RepeatableHttpServletRequestFilter filter = newFilter();
+        MockRequest[] passThrough = {
+                new MockRequest("POST", body(10)).contentType("application/octet-stream").uri("/app", "/app/api/save"),
+                new MockRequest("POST", body(10)).uri("/app", "/app/upload/avatar"),
+                new MockRequest("POST", body(10)).uri("", "/upload/avatar"),
+                new MockRequest("GET", new byte[0]).uri("/app", "/app/api/get"),
+        };
+        for (MockRequest mock : passThrough) {
+            HttpServletRequest request = mock.proxy();
+            AtomicReference<Object> chained = new AtomicReference<>();
+            filter.doFilter(request, null, (req, resp) -> chained.set(req));
+            assertSame(request, chained.get(), mock.uri);
+        }
+        // 路径前缀不含ContextPath，ContextPath本身为upload时不透传
+        HttpServletRequest request = new MockRequest("POST", body(10)).uri("/upload", "/upload/api/save").proxy();
+        AtomicReference<Object> chained = new AtomicReference<>();
+        filter.doFilter(request, null, (req, resp) -> chained.set(req));
+        assertTrue(chained.get() instanceof RepeatableHttpServletRequestWrapper);
+    }
+
+    private RepeatableHttpServletRequestFilter newFilter() {
+        RepeatableHttpServletRequestFilter filter = new RepeatableHttpServletRequestFilter();
+        filter.setMemoryThreshold(THRESHOLD);
+        filter.setTempDir(tempDir);
+        filter.setStreamThroughContentTypes(Collections.singletonList("application/octet-stream"));
+        filter.setStreamThroughPaths(Arrays.asList("/upload/", "/files/"));
+        return filter;
+    }
+
+    private RepeatableHttpServletRequestWrapper wrap(MockRequest request) {
+        return new RepeatableHttpServletRequestWrapper(request.proxy(), THRESHOLD, tempDir);
+    }
+
+    private int spillFiles() {
+        String[] names = tempDir.list();
+        return names == null ? 0 : names.length;
+    }
+
+    private static byte[] body(int length) {
+        byte[] body = new byte[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        return body;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[64];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            sb.append(buffer, 0, n);
+        }
+        reader.close();
+        return sb.toString();
+    }
+
+    /**
+     * 只实现包装类及过滤器用到的方法的请求对象，请求体只能读取一次
+     */
+    private static class MockRequest {
+
+        private final String method;
+
+        private final byte[] body;
+
+        private final Map<String, Object> values = new HashMap<>();
+
+        private String uri = "/";
+
+        private boolean bodyRead;
+
+        MockRequest(String method, byte[] body) {
+            this.method = method;
+            this.body = body;
+            values.put("getContentType", "application/json");
+            values.put("getContextPath", "");
+        }
+
+        MockRequest contentType(String contentType) {
+            values.put("getContentType", contentType);
+            return this;
+        }
+
+        MockRequest uri(String contextPath, String uri) {
+            this.uri = uri;
+            values.put("getContextPath", contextPath);
+            return this;
+        }
+
+        HttpServletRequest proxy() {
+            return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{HttpServletRequest.class},
+                    (proxy, m, args) -> {
+                        switch (m.getName()) {
+                            case "getMethod":
+                                return method;
+                            case "getContentType":
+                            case "getContextPath":
+                                return values.get(m.getName());
+                            case "getRequestURI":
+                                return uri;
+                            case "getContentLength":
+                                return body.length;
+                            case "getCharacterEncoding":
+                                return "UTF-8";
+                            case "getDispatcherType":
+                                return DispatcherType.REQUEST;
+                            case "isAsyncStarted":
+                                return false;
+                            case "getInputStream":
+                                assertFalse(bodyRead, "body read twice");
+                                bodyRead = true;
+                                return servletInputStream(new ByteArrayInputStream(body));
+                            default:
+                                throw new UnsupportedOperationException(m.getName());
+                        }
+                    });
+        }
+
+        private static ServletInputStream servletInputStream(InputStream in) {
+            return new ServletInputStream() {
+
+                @Override
+                public boolean isFinished() {
+                    return false;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                }
+
+                @Override
+                public int read() throws IOException {
+                    return in.read();
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,307 @@
+package cn.tmkit.web.servlet3.response;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tester for {@linkplain Responses#writeFile(String, File, boolean, HttpServletRequest, HttpServletResponse)}
+ *
+ * @author miles.tang
+ * @version 0.0.1
+ * @date 2023-03-18
+ */
+public class ResponsesTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private static final long LAST_MODIFIED = 1_600_000_000_000L;
+
+    private File file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = File.createTempFile("responses", ".txt");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(LAST_MODIFIED));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void fullContent() {
+        MockResponse response = writeFile(new MockRequest("GET"));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+        assertEquals(CONTENT, response.body());
+        assertEquals("bytes", response.headers.get("Accept-Ranges"));
+        assertEquals(String.valueOf(CONTENT.length()), response.headers.get("Content-Length"));
+        assertEquals(etag(), response.headers.get("ETag"));
+        assertEquals(String.valueOf(LAST_MODIFIED), response.headers.get("Last-Modified"));
+    }
+
+    @Test
+    public void head() {
+        MockResponse response = writeFile(new MockRequest("HEAD").header("Range", "bytes=0-1"));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+        assertEquals(String.valueOf(CONTENT.length()), response.headers.get("Content-Length"));
+        assertEquals("", response.body());
+    }
+
+    @Test
+    public void range() {
+        MockResponse response = writeFile(new MockRequest("GET").header("Range", "bytes=2-5"));
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.status);
+        assertEquals("bytes 2-5/20", response.headers.get("Content-Range"));
+        assertEquals("4", response.headers.get("Content-Length"));
+        assertEquals("2345", response.body());
+
+        response = writeFile(new MockRequest("GET").header("Range", "bytes=-3"));
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.status);
+        assertEquals("bytes 17-19/20", response.headers.get("Content-Range"));
+        assertEquals("hij", response.body());
+
+        response = writeFile(new MockRequest("GET").header("Range", "bytes=15-100"));
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.status);
+        assertEquals("bytes 15-19/20", response.headers.get("Content-Range"));
+        assertEquals("fghij", response.body());
+    }
+
+    @Test
+    public void rangeIgnored() {
+        // 多段、语法错误的Range返回完整内容
+        for (String range : new String[]{"bytes=0-1,3-4", "bytes=abc", "items=0-1", "bytes=5-2"}) {
+            MockResponse response = writeFile(new MockRequest("GET").header("Range", range));
+            assertEquals(HttpServletResponse.SC_OK, response.status, range);
+            assertNull(response.headers.get("Content-Range"), range);
+            assertEquals(CONTENT, response.body(), range);
+        }
+    }
+
+    @Test
+    public void rangeNotSatisfiable() {
+        for (String range : new String[]{"bytes=20-", "bytes=-0"}) {
+            MockResponse response = writeFile(new MockRequest("GET").header("Range", range));
+            assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.status, range);
+            assertEquals("bytes */20", response.headers.get("Content-Range"), range);
+            assertEquals("", response.body(), range);
+        }
+    }
+
+    @Test
+    public void ifRange() {
+        MockResponse response = writeFile(new MockRequest("GET").header("Range", "bytes=0-1").header("If-Range", etag()));
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.status);
+        assertEquals("01", response.body());
+
+        response = writeFile(new MockRequest("GET").header("Range", "bytes=0-1").header("If-Range", httpDate(LAST_MODIFIED)));
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.status);
+        assertEquals("01", response.body());
+
+        // 文件已变化时返回完整内容
+        response = writeFile(new MockRequest("GET").header("Range", "bytes=0-1").header("If-Range", "\"other\""));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+        assertEquals(CONTENT, response.body());
+
+        response = writeFile(new MockRequest("GET").header("Range", "bytes=0-1").header("If-Range", "W/" + etag()));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+
+        response = writeFile(new MockRequest("GET").header("Range", "bytes=0-1").header("If-Range", httpDate(LAST_MODIFIED - 1000)));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+        assertEquals(CONTENT, response.body());
+    }
+
+    @Test
+    public void notModified() {
+        MockResponse response = writeFile(new MockRequest("GET").header("If-None-Match", "\"other\", " + etag()));
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.status);
+        assertEquals("", response.body());
+
+        response = writeFile(new MockRequest("GET").header("If-None-Match", "W/" + etag()));
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.status);
+
+        response = writeFile(new MockRequest("GET").header("If-Modified-Since", httpDate(LAST_MODIFIED)));
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.status);
+        assertEquals("", response.body());
+
+        // If-None-Match存在时忽略If-Modified-Since
+        response = writeFile(new MockRequest("GET").header("If-None-Match", "\"other\"")
+                .header("If-Modified-Since", httpDate(LAST_MODIFIED)));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+        assertEquals(CONTENT, response.body());
+
+        response = writeFile(new MockRequest("GET").header("If-Modified-Since", httpDate(LAST_MODIFIED - 1000)));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+
+        // 日期格式错误时当作不存在
+        response = writeFile(new MockRequest("GET").header("If-Modified-Since", "yesterday"));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+    }
+
+    @Test
+    public void preconditionFailed() {
+        MockResponse response = writeFile(new MockRequest("GET").header("If-Match", "\"other\""));
+        assertEquals(HttpServletResponse.SC_PRECONDITION_FAILED, response.status);
+        assertEquals("", response.body());
+
+        response = writeFile(new MockRequest("GET").header("If-Match", "W/" + etag()));
+        assertEquals(HttpServletResponse.SC_PRECONDITION_FAILED, response.status);
+
+        response = writeFile(new MockRequest("GET").header("If-Unmodified-Since", httpDate(LAST_MODIFIED - 1000)));
+        assertEquals(HttpServletResponse.SC_PRECONDITION_FAILED, response.status);
+
+        response = writeFile(new MockRequest("POST").header("If-None-Match", "*"));
+        assertEquals(HttpServletResponse.SC_PRECONDITION_FAILED, response.status);
+
+        response = writeFile(new MockRequest("GET").header("If-Match", "*")
+                .header("If-Unmodified-Since", httpDate(LAST_MODIFIED)));
+        assertEquals(HttpServletResponse.SC_OK, response.status);
+        assertEquals(CONTENT, response.body());
+    }
+
+    private MockResponse writeFile(MockRequest request) {
+        MockResponse response = new MockResponse();
+        Responses.writeFile("test.txt", file, false, request.proxy(), response.proxy());
+        return response;
+    }
+
+    private static String etag() {
+        return "\"" + Long.toHexString(CONTENT.length()) + "-" + Long.toHexString(LAST_MODIFIED) + "\"";
+    }
+
+    private static SimpleDateFormat httpDateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    private static String httpDate(long millis) {
+        return httpDateFormat().format(millis);
+    }
+
+    /**
+     * 只实现{@linkplain Responses}用到的方法的请求对象
+     */
+    private static class MockRequest {
+
+        private final String method;
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        MockRequest(String method) {
+            this.method = method;
+        }
+
+        MockRequest header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        HttpServletRequest proxy() {
+            return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{HttpServletRequest.class},
+                    (proxy, m, args) -> {
+                        switch (m.getName()) {
+                            case "getMethod":
+                                return method;
+                            case "getHeader":
+                                return headers.get((String) args[0]);
+                            case "getDateHeader":
+                                String value = headers.get((String) args[0]);
+                                if (value == null) {
+                                    return -1L;
+                                }
+                                try {
+                                    return httpDateFormat().parse(value).getTime();
+                                } catch (ParseException e) {
+                                    throw new IllegalArgumentException(value);
+                                }
+                            default:
+                                throw new UnsupportedOperationException(m.getName());
+                        }
+                    });
+        }
+
+    }
+
+    /**
+     * 记录状态码、响应头及响应体的响应对象
+     */
+    private static class MockResponse {
+
+        private int status = HttpServletResponse.SC_OK;
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        String body() {
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        HttpServletResponse proxy() {
+            ServletOutputStream outputStream = new ServletOutputStream() {
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+
+                @Override
+                public void write(int b) {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    out.write(b, off, len);
+                }
+            };
+            return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{HttpServletResponse.class},
+                    (proxy, m, args) -> {
+                        switch (m.getName()) {
+                            case "setStatus":
+                            case "sendError":
+                                status = (Integer) args[0];
+                                return null;
+                            case "setHeader":
+                            case "setDateHeader":
+                                headers.put((String) args[0], String.valueOf(args[1]));
+                                return null;
+                            case "setContentType":
+                                headers.put("Content-Type", (String) args[0]);
+                                return null;
+                            case "getOutputStream":
+                                return outputStream;
+                            default:
+                                throw new UnsupportedOperationException(m.getName());
+                        }
+                    });
+        }
+
+    }
+
+}